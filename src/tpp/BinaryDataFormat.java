@@ -0,0 +1,410 @@
+package tpp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+/**
+ * A compact binary format for data sets, which can be read without parsing
+ * any text. The file has:
+ * <ul>
+ * <li>a header: the magic number, version, number of rows and columns, the
+ * class index (or -1) and the relation name</li>
+ * <li>the metadata of each column: its name, type, date format (for dates),
+ * dictionary of values (for nominal and string attributes) and where its data
+ * starts in the file</li>
+ * <li>the data of each column, starting on an 8 byte boundary: doubles for
+ * numeric and date attributes (NaN if missing), or ints for nominal and string
+ * attributes, which are the indices of the values in the dictionary (or -1 if
+ * missing)</li>
+ * </ul>
+ * All numbers are little-endian, and strings are written as their length in
+ * bytes followed by their UTF-8 encoding. The columns are read and written
+ * through memory mapped buffers, one per column, so the operating system can
+ * page the data in directly (and share the pages between windows that open the
+ * same file).
+ */
+public class BinaryDataFormat {
+
+	/** The extension used for binary data files */
+	public static final String EXTENSION = "tppb";
+
+	/** "TPPB" */
+	static final int MAGIC = 0x54505042;
+
+	static final int VERSION = 1;
+
+	static final int NUMERIC = 0;
+
+	static final int NOMINAL = 1;
+
+	static final int STRING = 2;
+
+	static final int DATE = 3;
+
+	/** The boundary that each column starts on */
+	private static final int ALIGNMENT = 8;
+
+	private static final String CHARSET = "UTF-8";
+
+	private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	/** The size of the buffer through which the columns are written */
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Write the instances to the file. They are written to a temporary file
+	 * in the same directory, which then replaces the file, so that a file
+	 * that is being read (eg by a Reader, which maps it) is never truncated
+	 * or overwritten, and a failed write leaves the old file as it was.
+	 *
+	 * @throws TPPException
+	 *             if any of the attributes is of a type (eg relational) that
+	 *             cannot be stored
+	 */
+	public static void write(Instances instances, File file) throws IOException, TPPException {
+		int numRows = instances.numInstances(), numColumns = instances.numAttributes(), c;
+		int[] types = new int[numColumns];
+		for (c = 0; c < numColumns; c++)
+			types[c] = typeOf(instances.attribute(c));
+
+		// lay out the columns after the header, which we write once to find
+		// its length and again once we know where the columns start
+		long[] offsets = new long[numColumns];
+		long start = align(header(instances, types, offsets).length);
+		for (c = 0; c < numColumns; c++) {
+			offsets[c] = start;
+			start = align(start + columnLength(types[c], numRows));
+		}
+		byte[] header = header(instances, types, offsets);
+
+		File dir = file.getAbsoluteFile().getParentFile();
+		File temp = File.createTempFile(file.getName() + ".", ".tmp", dir);
+		boolean written = false;
+		try {
+			writeColumns(instances, types, offsets, header, start, temp);
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			written = true;
+		} finally {
+			if (!written)
+				temp.delete();
+		}
+	}
+
+	/**
+	 * Write the header and columns to a new file. The columns are written
+	 * through a buffer rather than mapped, so that nothing is left mapped when
+	 * the file is moved into place.
+	 */
+	private static void writeColumns(Instances instances, int[] types, long[] offsets, byte[] header, long start,
+			File file) throws IOException {
+		int numRows = instances.numInstances(), r;
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.write(header);
+			raf.setLength(start);
+			FileChannel channel = raf.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ORDER);
+			boolean numeric;
+			for (int c = 0; c < types.length; c++) {
+				channel.position(offsets[c]);
+				numeric = (types[c] == NUMERIC || types[c] == DATE);
+				for (r = 0; r < numRows; r++) {
+					if (buffer.remaining() < 8)
+						writeBuffer(buffer, channel);
+					if (numeric)
+						buffer.putDouble(instances.instance(r).value(c));
+					else
+						buffer.putInt(instances.instance(r).isMissing(c) ? -1 : (int) instances.instance(r).value(c));
+				}
+				writeBuffer(buffer, channel);
+			}
+			channel.force(false);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/** Write the contents of the buffer to the channel, and clear it */
+	private static void writeBuffer(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Read instances from the file
+	 *
+	 * @throws TPPException
+	 *             if the file is not in this format
+	 */
+	public static Instances read(File file) throws IOException, TPPException {
+		Reader reader = new Reader(file);
+		try {
+			return reader.read(0, reader.getNumRows());
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Reads the rows of a binary data file in batches, eg so that a large file
+	 * can be shown while the rest of it is still being read. The header is
+	 * read and the columns are mapped when the reader is opened, and every
+	 * batch shares the same attributes (whose dictionaries are complete, since
+	 * they are stored in the header).
+	 */
+	public static class Reader implements Closeable {
+
+		private final RandomAccessFile raf;
+
+		private final String relation;
+
+		private final ArrayList<Attribute> attributes;
+
+		private final int numRows, classIndex;
+
+		/** The mapped numeric and date columns (or null) */
+		private final DoubleBuffer[] doubles;
+
+		/** The mapped nominal and string columns (or null) */
+		private final IntBuffer[] ints;
+
+		/**
+		 * @throws TPPException
+		 *             if the file is not in this format
+		 */
+		public Reader(File file) throws IOException, TPPException {
+			raf = new RandomAccessFile(file, "r");
+			try {
+				FileChannel channel = raf.getChannel();
+				MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+						Math.min(channel.size(), Integer.MAX_VALUE));
+				header.order(ORDER);
+				if (channel.size() < 20 || header.getInt() != MAGIC)
+					throw new TPPException(file.getName() + " is not a binary TPP data file");
+				int version = header.getInt();
+				if (version != VERSION)
+					throw new TPPException("Cannot read version " + version + " of the binary TPP data format");
+				numRows = header.getInt();
+				int numColumns = header.getInt(), c;
+				classIndex = header.getInt();
+				relation = readString(header);
+
+				// read the metadata and create the attributes
+				attributes = new ArrayList<Attribute>(numColumns);
+				int[] types = new int[numColumns];
+				long[] offsets = new long[numColumns];
+				String name;
+				Attribute at;
+				for (c = 0; c < numColumns; c++) {
+					name = readString(header);
+					types[c] = header.getInt();
+					switch (types[c]) {
+					case NUMERIC:
+						at = new Attribute(name);
+						break;
+					case DATE:
+						at = new Attribute(name, readString(header));
+						break;
+					case NOMINAL:
+					case STRING:
+						List<String> values = new ArrayList<String>();
+						int numValues = header.getInt();
+						for (int v = 0; v < numValues; v++)
+							values.add(readString(header));
+						if (types[c] == NOMINAL)
+							at = new Attribute(name, values);
+						else {
+							at = new Attribute(name, (List<String>) null);
+							for (String value : values)
+								at.addStringValue(value);
+						}
+						break;
+					default:
+						throw new TPPException("Unknown type " + types[c] + " for attribute " + name);
+					}
+					offsets[c] = header.getLong();
+					attributes.add(at);
+				}
+
+				// map each column
+				doubles = new DoubleBuffer[numColumns];
+				ints = new IntBuffer[numColumns];
+				MappedByteBuffer buffer;
+				for (c = 0; c < numColumns; c++) {
+					buffer = channel.map(FileChannel.MapMode.READ_ONLY, offsets[c], columnLength(types[c], numRows));
+					buffer.order(ORDER);
+					if (types[c] == NUMERIC || types[c] == DATE)
+						doubles[c] = buffer.asDoubleBuffer();
+					else
+						ints[c] = buffer.asIntBuffer();
+				}
+			} catch (IOException e) {
+				raf.close();
+				throw e;
+			} catch (TPPException e) {
+				raf.close();
+				throw e;
+			}
+		}
+
+		/** The number of rows in the file */
+		public int getNumRows() {
+			return numRows;
+		}
+
+		public String getRelationName() {
+			return relation;
+		}
+
+		/** Copy the rows from (inclusive) to (exclusive) into new instances */
+		public synchronized Instances read(int from, int to) {
+			from = Math.max(0, from);
+			to = Math.min(numRows, to);
+			Instances instances = new Instances(relation, attributes, Math.max(0, to - from));
+			int numColumns = attributes.size(), code, c;
+			double[] values;
+			for (int r = from; r < to; r++) {
+				values = new double[numColumns];
+				for (c = 0; c < numColumns; c++)
+					if (doubles[c] != null)
+						values[c] = doubles[c].get(r);
+					else {
+						code = ints[c].get(r);
+						values[c] = (code < 0 ? Utils.missingValue() : code);
+					}
+				instances.add(new DenseInstance(1, values));
+			}
+			instances.setClassIndex(classIndex);
+			return instances;
+		}
+
+		/** Close the file (the batches already read are not affected) */
+		public void close() throws IOException {
+			raf.close();
+		}
+	}
+
+	/** Is this file in the binary format? (ie does it start with the magic number) */
+	public static boolean isBinaryDataFile(File file) {
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			try {
+				return raf.length() >= 4 && Integer.reverseBytes(raf.readInt()) == MAGIC;
+			} finally {
+				raf.close();
+			}
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/** The header and metadata of the file */
+	private static byte[] header(Instances instances, int[] types, long[] offsets) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		LittleEndianOutput out = new LittleEndianOutput(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(instances.numInstances());
+		out.writeInt(instances.numAttributes());
+		out.writeInt(instances.classIndex());
+		out.writeString(instances.relationName());
+		Attribute at;
+		for (int c = 0; c < types.length; c++) {
+			at = instances.attribute(c);
+			out.writeString(at.name());
+			out.writeInt(types[c]);
+			if (types[c] == DATE)
+				out.writeString(at.getDateFormat());
+			if (types[c] == NOMINAL || types[c] == STRING) {
+				out.writeInt(at.numValues());
+				for (int v = 0; v < at.numValues(); v++)
+					out.writeString(at.value(v));
+			}
+			out.writeLong(offsets[c]);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static int typeOf(Attribute at) throws TPPException {
+		if (at.isDate())
+			return DATE;
+		if (at.isNumeric())
+			return NUMERIC;
+		if (at.isNominal())
+			return NOMINAL;
+		if (at.isString())
+			return STRING;
+		throw new TPPException("Cannot store attribute " + at.name() + " in the binary data format");
+	}
+
+	/** The number of bytes used by a column of this type */
+	private static long columnLength(int type, int numRows) {
+		return (long) numRows * (type == NUMERIC || type == DATE ? 8 : 4);
+	}
+
+	private static long align(long position) {
+		return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	private static String readString(MappedByteBuffer buffer) throws IOException {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, CHARSET);
+	}
+
+	/** Writes numbers little-endian, and strings as their length and UTF-8 bytes */
+	private static class LittleEndianOutput {
+
+		private final DataOutputStream out;
+
+		LittleEndianOutput(ByteArrayOutputStream bytes) {
+			out = new DataOutputStream(bytes);
+		}
+
+		void writeInt(int v) throws IOException {
+			out.writeInt(Integer.reverseBytes(v));
+		}
+
+		void writeLong(long v) throws IOException {
+			out.writeLong(Long.reverseBytes(v));
+		}
+
+		void writeString(String s) throws IOException {
+			byte[] bytes = s.getBytes(CHARSET);
+			writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+		void flush() throws IOException {
+			out.flush();
+		}
+	}
+}
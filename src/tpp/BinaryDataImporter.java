@@ -0,0 +1,68 @@
+package tpp;
+
+import java.io.File;
+
+import javax.swing.JFileChooser;
+
+import weka.core.Instances;
+
+/**
+ * A class for importing instances from a binary TPP data file (see
+ * BinaryDataFormat), which is memory mapped rather than parsed.
+ */
+public class BinaryDataImporter implements DataImporter {
+	private static final BinaryFileFilter FILE_FILTER = new BinaryFileFilter();
+
+	/** The default directory for file operations */
+	private static final String DEFAULT_DIRECTORY = ".";
+
+	/** The file to import, or null if the user is to choose one */
+	private File file;
+
+	public BinaryDataImporter() {
+	}
+
+	public BinaryDataImporter(File file) {
+		this.file = file;
+	}
+
+	/* (non-Javadoc)
+	 * @see tpp.DataImporter#importData()
+	 */
+	public Instances importData() throws Exception {
+		File in = chooseFile();
+		if (in == null)
+			return null;
+
+		// Read data from file
+		System.out.println("Reading data from file " + in.getName());
+		return BinaryDataFormat.read(in);
+	}
+
+	/**
+	 * Open the file for reading in batches (see ProgressiveLoader), or return
+	 * null if the user doesn't choose one
+	 */
+	public BinaryDataFormat.Reader open() throws Exception {
+		File in = chooseFile();
+		if (in == null)
+			return null;
+		System.out.println("Reading data from file " + in.getName());
+		return new BinaryDataFormat.Reader(in);
+	}
+
+	/** The file to import, or null if the user doesn't choose one */
+	private File chooseFile() {
+		if (file != null)
+			return file;
+
+		// Get a new data file from the file chooser
+		JFileChooser chooser = new JFileChooser(DEFAULT_DIRECTORY);
+		chooser.setFileFilter(FILE_FILTER);
+		int returnVal = chooser.showOpenDialog(null);
+		if (returnVal != JFileChooser.APPROVE_OPTION)
+			return null;
+		return chooser.getSelectedFile();
+	}
+
+}
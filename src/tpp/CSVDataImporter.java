@@ -1,37 +1,56 @@
-package tpp;
-
-import javax.swing.JFileChooser;
-
-import weka.core.Instances;
-import weka.core.converters.CSVLoader;
-
-/** A class for importing TPPModels from a CSV or TSV file */
-public class CSVDataImporter implements DataImporter {
-	private static final CSVFileFilter FILE_FILTER = new CSVFileFilter();
-
-	/** The default directory for file operations */
-	private static final String DEFAULT_DIRECTORY = ".";
-
-	/* (non-Javadoc)
-	 * @see tpp.ModelImporter#importModel()
-	 */
-	public Instances importData() throws Exception {
-		// Read the instances to be displayed
-		Instances in = null;
-
-		// Get a new data file from the file chooser
-		JFileChooser chooser = new JFileChooser(DEFAULT_DIRECTORY);
-		chooser.setFileFilter(FILE_FILTER);
-		int returnVal = chooser.showOpenDialog(null);
-		if (returnVal != JFileChooser.APPROVE_OPTION)
-			return null;
-
-		// Read data from file
-		System.out.println("Reading data from file " + chooser.getSelectedFile().getName());
-		CSVLoader loader = new CSVLoader();
-		loader.setFile(chooser.getSelectedFile());
-		in=loader.getDataSet();
-		return in;
-	}
-
-}
+package tpp;
+
+import java.io.File;
+
+import javax.swing.JFileChooser;
+
+import weka.core.Instances;
+import weka.core.converters.CSVLoader;
+
+/**
+ * A class for importing TPPModels from a CSV or TSV file. The first line of
+ * the file should hold the names of the attributes. Numeric columns become
+ * numeric attributes, and the rest become nominal (or string, if they have
+ * too many values). Files with quoted cells that span lines, which the
+ * DelimitedParser cannot split into rows, are read with Weka's CSVLoader
+ * instead, which is much slower.
+ */
+public class CSVDataImporter implements DataImporter {
+	private static final CSVFileFilter FILE_FILTER = new CSVFileFilter();
+
+	/** The default directory for file operations */
+	private static final String DEFAULT_DIRECTORY = ".";
+
+	/* (non-Javadoc)
+	 * @see tpp.ModelImporter#importModel()
+	 */
+	public Instances importData() throws Exception {
+		// Read the instances to be displayed
+		Instances in = null;
+
+		// Get a new data file from the file chooser
+		JFileChooser chooser = new JFileChooser(DEFAULT_DIRECTORY);
+		chooser.setFileFilter(FILE_FILTER);
+		int returnVal = chooser.showOpenDialog(null);
+		if (returnVal != JFileChooser.APPROVE_OPTION)
+			return null;
+
+		// Read data from file
+		File file = chooser.getSelectedFile();
+		System.out.println("Reading data from file " + file.getName());
+		DelimitedParser parser = new DelimitedParser(file.getName().toLowerCase().endsWith(".tsv") ? '\t' : ',', true);
+		parser.parse(file);
+		if (parser.hasMultiLineCells()) {
+			System.out.println("Some cells in " + file.getName() + " span lines, so reading it with the CSV loader");
+			CSVLoader loader = new CSVLoader();
+			loader.setFile(file);
+			return loader.getDataSet();
+		}
+		String name = file.getName();
+		if (name.lastIndexOf('.') > 0)
+			name = name.substring(0, name.lastIndexOf('.'));
+		in = parser.toInstances(name);
+		return in;
+	}
+
+}
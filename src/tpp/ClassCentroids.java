@@ -0,0 +1,110 @@
+package tpp;
+
+import weka.core.Attribute;
+import weka.core.matrix.Matrix;
+
+/**
+ * The centroids, in the data space, of the classes defined by a nominal
+ * attribute, together with the indices of the points in each class. Since the
+ * projection is linear, the centroids of the classes in the view can then be
+ * found by just projecting these centroids, rather than going through all the
+ * points.
+ */
+public class ClassCentroids {
+
+	/** The attribute that defines the classes */
+	private final Attribute classification;
+
+	/** The version of the data that the centroids were found for */
+	private final int dataVersion;
+
+	/** The centroid of each class (zero for empty classes) */
+	private final double[][] centroids;
+
+	/** The indices of the points in each class */
+	private final int[][] members;
+
+	/**
+	 * Find the centroids of the points in the data for each class. Points with
+	 * missing classes are ignored.
+	 */
+	ClassCentroids(Attribute classification, double[] classes, Matrix data, int dataVersion) {
+		this.classification = classification;
+		this.dataVersion = dataVersion;
+		int numClasses = classification.numValues(), dims = data.getColumnDimension(), n = data.getRowDimension();
+		double[][] aData = data.getArray();
+		int[] numPoints = new int[numClasses];
+		int c, p, i;
+		for (p = 0; p < n; p++)
+			if (!Double.isNaN(classes[p]))
+				numPoints[(int) classes[p]]++;
+		members = new int[numClasses][];
+		for (c = 0; c < numClasses; c++)
+			members[c] = new int[numPoints[c]];
+
+		// total up the positions for each class
+		centroids = new double[numClasses][dims];
+		int[] count = new int[numClasses];
+		for (p = 0; p < n; p++) {
+			if (!Double.isNaN(classes[p])) {
+				c = (int) classes[p];
+				members[c][count[c]++] = p;
+				for (i = 0; i < dims; i++)
+					centroids[c][i] += aData[p][i];
+			}
+		}
+
+		// then divide by the number of points in each class (if this class is
+		// not empty)
+		for (c = 0; c < numClasses; c++)
+			if (numPoints[c] > 0)
+				for (i = 0; i < dims; i++)
+					centroids[c][i] /= numPoints[c];
+	}
+
+	/** Were these centroids found for the given attribute and data version? */
+	boolean isFor(Attribute classification, int dataVersion) {
+		return this.classification == classification && this.dataVersion == dataVersion;
+	}
+
+	/** The number of classes */
+	public int getNumClasses() {
+		return centroids.length;
+	}
+
+	/** The number of points in the given class */
+	public int getNumPoints(int c) {
+		return members[c].length;
+	}
+
+	/** The indices of the points in the given class. Should not be modified. */
+	public int[] getMembers(int c) {
+		return members[c];
+	}
+
+	/** The centroids of the classes in the data space */
+	public Matrix getCentroids() {
+		return new Matrix(centroids).copy();
+	}
+
+	/**
+	 * Find the centroids of the classes in the view, by projecting their
+	 * centroids in the data space
+	 */
+	public double[][] project(Matrix projection) {
+		double[][] w = projection.getArray();
+		int k = projection.getColumnDimension();
+		double[][] projected = new double[centroids.length][k];
+		double v;
+		int c, i, j;
+		for (c = 0; c < centroids.length; c++)
+			if (members[c].length > 0)
+				for (j = 0; j < k; j++) {
+					v = 0;
+					for (i = 0; i < w.length; i++)
+						v += centroids[c][i] * w[i][j];
+					projected[c][j] = v;
+				}
+		return projected;
+	}
+}
@@ -0,0 +1,220 @@
+package tpp;
+
+import java.util.Arrays;
+import java.util.List;
+
+import weka.core.Attribute;
+import weka.core.Instances;
+
+/**
+ * The values of the instances, stored by column as primitive arrays, so that
+ * loops over all the points can read them directly rather than going through
+ * an Instance object for every value. <br>
+ * Each attribute has one array of values, as returned by Instance.value (ie
+ * NaN if missing, and the index of the value for nominal and string
+ * attributes). Nominal and string attributes also have an array of int codes,
+ * which are the indices of their values in the attribute's dictionary (ie
+ * Attribute.value(code)), or MISSING. <br>
+ * Columns are copied from the instances the first time they are asked for. The
+ * store is not updated when the instances change, so a new one must be made
+ * (the model does this whenever the data changes, extending the columns of the
+ * old store when instances are only appended). Each store is labelled with the
+ * version of the data that it was made for, so that a store made before a
+ * change to the values is not mistaken for a current one. The arrays are shared, and
+ * so should not be modified, and may be longer than the number of rows, so
+ * that appended rows can be added in place.
+ */
+public class ColumnStore {
+
+	/** The code of a missing nominal or string value */
+	public static final int MISSING = -1;
+
+	private final Instances instances;
+
+	private final int numRows;
+
+	/** The version of the data (eg TPPModel's count of its changes) */
+	private final int version;
+
+	/** The values of each attribute, or null if not yet copied */
+	private final double[][] values;
+
+	/** The codes of each nominal or string attribute, or null if not yet copied */
+	private final int[][] codes;
+
+	/**
+	 * Has a later store been made by extending this one? If so its columns
+	 * may have been written to after this store's rows, so they can't be
+	 * extended in place again.
+	 */
+	private boolean extended;
+
+	/**
+	 * @param version
+	 *            the version of the data that this is a store of, as checked
+	 *            by isStoreOf
+	 */
+	public ColumnStore(Instances instances, int version) {
+		this.instances = instances;
+		this.version = version;
+		numRows = instances.numInstances();
+		values = new double[instances.numAttributes()][];
+		codes = new int[instances.numAttributes()][];
+	}
+
+	/**
+	 * A store of the instances after rows have been appended to those of the
+	 * previous store (eg by TPPModel.appendInstances). The columns that the
+	 * previous store had already copied are extended with just the new rows,
+	 * in place if they have room (the previous store only reads the rows
+	 * before them), and otherwise into copies twice as long.
+	 */
+	ColumnStore(ColumnStore previous, Instances instances, int version) {
+		this(instances, version);
+		if (previous.instances != instances || previous.values.length != values.length || previous.numRows > numRows)
+			return;
+		int a, r, from = previous.numRows;
+		synchronized (previous) {
+			boolean inPlace = !previous.extended;
+			previous.extended = true;
+			for (a = 0; a < values.length; a++) {
+				if (previous.values[a] != null) {
+					values[a] = previous.values[a];
+					if (!inPlace || values[a].length < numRows)
+						values[a] = Arrays.copyOf(values[a], Math.max(numRows, 2 * values[a].length));
+					for (r = from; r < numRows; r++)
+						values[a][r] = instances.instance(r).value(a);
+				}
+				if (previous.codes[a] != null) {
+					codes[a] = previous.codes[a];
+					if (!inPlace || codes[a].length < numRows)
+						codes[a] = Arrays.copyOf(codes[a], Math.max(numRows, 2 * codes[a].length));
+					for (r = from; r < numRows; r++)
+						codes[a][r] = (Double.isNaN(values[a][r]) ? MISSING : (int) values[a][r]);
+				}
+			}
+		}
+	}
+
+	/** The instances that this is a store of */
+	public Instances getInstances() {
+		return instances;
+	}
+
+	/** The number of rows (ie instances) */
+	public int getNumRows() {
+		return numRows;
+	}
+
+	/** The number of attributes */
+	public int getNumColumns() {
+		return values.length;
+	}
+
+	/**
+	 * Is this still a store of this version of these instances? ie they are
+	 * the same object, with the same number of instances and attributes, and
+	 * the store was made for the same version of the data
+	 */
+	public boolean isStoreOf(Instances ins, int version) {
+		return ins == instances && version == this.version && ins.numInstances() == numRows
+				&& ins.numAttributes() == values.length;
+	}
+
+	/**
+	 * The values of the attribute. Should not be modified, and may be longer
+	 * than the number of rows.
+	 */
+	public double[] getColumn(Attribute at) {
+		return getColumn(at.index());
+	}
+
+	/**
+	 * The values of the attribute with this index. Should not be modified,
+	 * and may be longer than the number of rows.
+	 */
+	public synchronized double[] getColumn(int a) {
+		if (values[a] == null) {
+			double[] column = new double[numRows];
+			for (int r = 0; r < numRows; r++)
+				column[r] = instances.instance(r).value(a);
+			values[a] = column;
+		}
+		return values[a];
+	}
+
+	/**
+	 * Change the value of an attribute for a row, in place, keeping its code
+	 * in step (eg as the model's clusters of the view follow the points). Only
+	 * the columns that have already been copied are changed, since the others
+	 * will be copied from the instances, which should already have the value.
+	 */
+	synchronized void setValue(int row, int a, double value) {
+		if (values[a] != null)
+			values[a][row] = value;
+		if (codes[a] != null)
+			codes[a][row] = (Double.isNaN(value) ? MISSING : (int) value);
+	}
+
+	/**
+	 * The codes of the values of a nominal or string attribute (ie the index of
+	 * each value in the attribute's list of values, or MISSING). Should not be
+	 * modified, and may be longer than the number of rows.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the attribute is not nominal or string
+	 */
+	public int[] getCodes(Attribute at) {
+		if (!at.isNominal() && !at.isString())
+			throw new IllegalArgumentException("Attribute " + at.name() + " is not nominal or string");
+		return getCodes(at.index());
+	}
+
+	private synchronized int[] getCodes(int a) {
+		if (codes[a] == null) {
+			double[] column = getColumn(a);
+			int[] c = new int[numRows];
+			for (int r = 0; r < numRows; r++)
+				c[r] = (Double.isNaN(column[r]) ? MISSING : (int) column[r]);
+			codes[a] = c;
+		}
+		return codes[a];
+	}
+
+	/**
+	 * Copy the values of the attributes into an array of rows (eg for a
+	 * Matrix)
+	 */
+	public double[][] getRows(List<Attribute> attributes) {
+		int cols = attributes.size();
+		double[][] rows = new double[numRows][cols];
+		double[] column;
+		for (int c = 0; c < cols; c++) {
+			column = getColumn(attributes.get(c));
+			for (int r = 0; r < numRows; r++)
+				rows[r][c] = column[r];
+		}
+		return rows;
+	}
+
+	/**
+	 * The smallest and largest (non-missing) values of the attribute, as [min,
+	 * max], or NaN if all values are missing
+	 */
+	public double[] getRange(Attribute at) {
+		double[] column = getColumn(at);
+		double min = Double.NaN, max = Double.NaN;
+		for (int r = 0; r < numRows; r++)
+			if (!Double.isNaN(column[r])) {
+				if (Double.isNaN(min) || column[r] < min)
+					min = column[r];
+				if (Double.isNaN(max) || column[r] > max)
+					max = column[r];
+			}
+		return new double[] { min, max };
+	}
+
+	public String toString() {
+		return "Column store of " + numRows + " rows and " + values.length + " columns";
+	}
+}
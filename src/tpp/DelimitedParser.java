@@ -0,0 +1,659 @@
+package tpp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+/**
+ * A fast parser for delimited text files (eg CSV and TSV). The file is memory
+ * mapped and split into chunks at line boundaries, and the chunks are parsed
+ * in parallel, straight from the bytes. <br>
+ * Each column is assumed to be numeric until a value is found that is not a
+ * number, so the numbers are parsed as the file is read. Numbers with up to 15
+ * significant digits are parsed in place without creating any objects; longer
+ * ones fall back to Double.parseDouble so that they are still correctly
+ * rounded. Empty cells and "?" are missing (NaN). The text of a column is only
+ * extracted (in a second pass) if it is asked for, eg because the column is not
+ * numeric. <br>
+ * Cells may be quoted with double quotes (with "" for a quote inside a cell),
+ * but quoted cells cannot span lines, since the file is split at line breaks:
+ * hasMultiLineCells tells whether the file has any, in which case its rows
+ * will not have been split correctly and it should be read some other way.
+ * Spaces around cells are ignored. Rows may have different numbers of cells:
+ * missing cells are NaN (or null text). <br>
+ * Text columns with more than MAX_NOMINAL_VALUES different values (eg ids,
+ * names or time stamps) become string attributes rather than nominal ones.
+ * Dates are not recognised, so they are nominal or string too.
+ */
+public class DelimitedParser {
+
+	/** The smallest chunk worth parsing in a separate thread */
+	public static final int MIN_CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * The most values that a text column can have and still become a nominal
+	 * attribute
+	 */
+	public static final int MAX_NOMINAL_VALUES = 1000;
+
+	/** The largest chunk (which must fit in a single mapped buffer) */
+	private static final int MAX_CHUNK_SIZE = 1 << 30;
+
+	/** The most significant digits that can be parsed exactly in place */
+	private static final int MAX_EXACT_DIGITS = 15;
+
+	/** The powers of ten that can be represented exactly */
+	private static final double[] POWERS_OF_TEN = new double[23];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++)
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+	}
+
+	private static final String CHARSET = "UTF-8";
+
+	/** The pool used to parse the chunks, shared by all parsers */
+	private static ExecutorService executor;
+
+	private final byte delimiter;
+
+	private final boolean header;
+
+	private File file;
+
+	/** Where each chunk starts in the file, and where the last one ends */
+	private long[] chunkStarts;
+
+	private String[] names;
+
+	private int numRows, numColumns;
+
+	/** The numeric value of each cell, by column */
+	private double[][] values;
+
+	/** Whether each column is numeric, ie has no cells that are not numbers */
+	private boolean[] numeric;
+
+	/** The text of each cell, by column, or null if not yet extracted */
+	private String[][] text;
+
+	/** Did any quoted cell contain a line break? */
+	private boolean multiLineCells;
+
+	/**
+	 * @param delimiter
+	 *            the character between cells, eg ',' or '\t'
+	 * @param header
+	 *            whether the first line of the file holds the names of the
+	 *            columns
+	 */
+	public DelimitedParser(char delimiter, boolean header) {
+		this.delimiter = (byte) delimiter;
+		this.header = header;
+	}
+
+	/**
+	 * Parse the file. Afterwards the values of the numeric columns are
+	 * available, and the text of any column can be asked for.
+	 */
+	public void parse(File file) throws IOException, TPPException {
+		this.file = file;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			long length = raf.length(), start = 0;
+
+			// read the header
+			if (header) {
+				start = nextLine(raf, 0);
+				Chunk chunk = new Chunk(map(raf, 0, start), null, true);
+				chunk.parse();
+				multiLineCells = chunk.multiLineCells;
+				names = new String[chunk.numRows > 0 ? chunk.numColumns : 0];
+				for (int col = 0; col < names.length; col++)
+					names[col] = chunk.text[col][0];
+			}
+
+			// split the rest of the file into chunks that end at line breaks
+			int threads = Runtime.getRuntime().availableProcessors();
+			long size = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, (length - start) / threads + 1));
+			List<Long> starts = new ArrayList<Long>();
+			starts.add(Long.valueOf(start));
+			while (start < length) {
+				start = (start + size >= length ? length : nextLine(raf, start + size));
+				starts.add(Long.valueOf(start));
+			}
+			chunkStarts = new long[starts.size()];
+			for (int c = 0; c < chunkStarts.length; c++)
+				chunkStarts[c] = starts.get(c).longValue();
+
+			// parse the chunks in parallel, and join them together
+			List<Chunk> chunks = parseChunks(raf, null);
+			numColumns = (names == null ? 0 : names.length);
+			numRows = 0;
+			for (Chunk chunk : chunks) {
+				numColumns = Math.max(numColumns, chunk.numColumns);
+				numRows += chunk.numRows;
+				multiLineCells |= chunk.multiLineCells;
+			}
+			values = new double[numColumns][];
+			numeric = new boolean[numColumns];
+			text = new String[numColumns][];
+			for (int col = 0; col < numColumns; col++) {
+				values[col] = new double[numRows];
+				numeric[col] = true;
+				int row = 0;
+				for (Chunk chunk : chunks) {
+					if (col < chunk.numColumns) {
+						System.arraycopy(chunk.values[col], 0, values[col], row, chunk.numRows);
+						numeric[col] &= chunk.numeric[col];
+					} else
+						Arrays.fill(values[col], row, row + chunk.numRows, Double.NaN);
+					row += chunk.numRows;
+				}
+			}
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Parse each chunk in parallel, either finding the numeric values or (if
+	 * wantText is not null) extracting the text of the wanted columns
+	 */
+	private List<Chunk> parseChunks(final RandomAccessFile raf, final boolean[] wantText) throws IOException,
+			TPPException {
+		List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>();
+		for (int c = 0; c < chunkStarts.length - 1; c++) {
+			final MappedByteBuffer buffer = map(raf, chunkStarts[c], chunkStarts[c + 1]);
+			futures.add(getExecutor().submit(new Callable<Chunk>() {
+				public Chunk call() throws IOException {
+					Chunk chunk = new Chunk(buffer, wantText, false);
+					chunk.parse();
+					return chunk;
+				}
+			}));
+		}
+		List<Chunk> chunks = new ArrayList<Chunk>(futures.size());
+		try {
+			for (Future<Chunk> f : futures)
+				chunks.add(f.get());
+		} catch (InterruptedException e) {
+			for (Future<Chunk> f : futures)
+				f.cancel(true);
+			throw new TPPException("Reading " + file.getName() + " interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			e.getCause().printStackTrace();
+			throw new TPPException("Reading " + file.getName() + " failed: " + e.getCause().getMessage());
+		}
+		return chunks;
+	}
+
+	private static MappedByteBuffer map(RandomAccessFile raf, long start, long end) throws IOException {
+		return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, start, end - start);
+	}
+
+	/** The position after the next line break at or after this position */
+	private static long nextLine(RandomAccessFile raf, long position) throws IOException {
+		byte[] buffer = new byte[8192];
+		int read;
+		raf.seek(position);
+		while ((read = raf.read(buffer)) > 0) {
+			for (int i = 0; i < read; i++)
+				if (buffer[i] == '\n')
+					return position + i + 1;
+			position += read;
+		}
+		return position;
+	}
+
+	/**
+	 * Extract the text of the columns, if it hasn't been already
+	 */
+	private void extractText(boolean[] wanted) throws IOException, TPPException {
+		boolean any = false;
+		for (int col = 0; col < numColumns; col++) {
+			wanted[col] &= (text[col] == null);
+			any |= wanted[col];
+		}
+		if (!any)
+			return;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			List<Chunk> chunks = parseChunks(raf, wanted);
+			for (int col = 0; col < numColumns; col++)
+				if (wanted[col]) {
+					text[col] = new String[numRows];
+					int row = 0;
+					for (Chunk chunk : chunks) {
+						if (col < chunk.numColumns)
+							System.arraycopy(chunk.text[col], 0, text[col], row, chunk.numRows);
+						row += chunk.numRows;
+					}
+				}
+		} finally {
+			raf.close();
+		}
+	}
+
+	public int getNumRows() {
+		return numRows;
+	}
+
+	public int getNumColumns() {
+		return numColumns;
+	}
+
+	/**
+	 * The name of the column (from the header, or "Column n" if there is none)
+	 */
+	public String getName(int col) {
+		if (names != null && col < names.length && names[col] != null && names[col].length() > 0)
+			return names[col];
+		return "Column " + (col + 1);
+	}
+
+	/**
+	 * Did any quoted cell span more than one line? If so the rows were not
+	 * split correctly.
+	 */
+	public boolean hasMultiLineCells() {
+		return multiLineCells;
+	}
+
+	/**
+	 * Is the column numeric? ie are all its cells numbers (or missing)
+	 */
+	public boolean isNumeric(int col) {
+		return numeric[col];
+	}
+
+	/**
+	 * The values of the column, with NaN for cells that are missing or not
+	 * numbers. Should not be modified.
+	 */
+	public double[] getValues(int col) {
+		return values[col];
+	}
+
+	/**
+	 * The text of each cell in the column, or null for missing cells. Should
+	 * not be modified.
+	 */
+	public String[] getText(int col) throws IOException, TPPException {
+		boolean[] wanted = new boolean[numColumns];
+		wanted[col] = true;
+		extractText(wanted);
+		return text[col];
+	}
+
+	/** The values of all the cells, by row */
+	public double[][] getRows() {
+		double[][] rows = new double[numRows][numColumns];
+		for (int col = 0; col < numColumns; col++)
+			for (int row = 0; row < numRows; row++)
+				rows[row][col] = values[col][row];
+		return rows;
+	}
+
+	/** The text of all the cells, by row */
+	public String[][] getTextRows() throws IOException, TPPException {
+		boolean[] wanted = new boolean[numColumns];
+		Arrays.fill(wanted, true);
+		extractText(wanted);
+		String[][] rows = new String[numRows][numColumns];
+		for (int col = 0; col < numColumns; col++)
+			for (int row = 0; row < numRows; row++)
+				rows[row][col] = text[col][row];
+		return rows;
+	}
+
+	/**
+	 * Create instances from the file: numeric columns become numeric
+	 * attributes, and the others become nominal attributes (with their values
+	 * in the order in which they first appear), or string attributes if they
+	 * have more than MAX_NOMINAL_VALUES values
+	 */
+	public Instances toInstances(String relationName) throws IOException, TPPException {
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>(numColumns);
+		double[][] columns = new double[numColumns][];
+		int col, row;
+		for (col = 0; col < numColumns; col++) {
+			if (numeric[col]) {
+				attributes.add(new Attribute(getName(col)));
+				columns[col] = values[col];
+			} else {
+				String[] cells = getText(col);
+				HashMap<String, Integer> codes = new HashMap<String, Integer>();
+				List<String> dictionary = new ArrayList<String>();
+				columns[col] = new double[numRows];
+				Integer code;
+				for (row = 0; row < numRows; row++) {
+					if (cells[row] == null || cells[row].length() == 0 || cells[row].equals("?")) {
+						columns[col][row] = Double.NaN;
+						continue;
+					}
+					code = codes.get(cells[row]);
+					if (code == null) {
+						code = Integer.valueOf(dictionary.size());
+						codes.put(cells[row], code);
+						dictionary.add(cells[row]);
+					}
+					columns[col][row] = code.intValue();
+				}
+				if (dictionary.size() <= MAX_NOMINAL_VALUES)
+					attributes.add(new Attribute(getName(col), dictionary));
+				else {
+					Attribute at = new Attribute(getName(col), (List<String>) null);
+					for (String value : dictionary)
+						at.addStringValue(value);
+					attributes.add(at);
+				}
+			}
+		}
+		Instances instances = new Instances(relationName, attributes, numRows);
+		double[] rowValues;
+		for (row = 0; row < numRows; row++) {
+			rowValues = new double[numColumns];
+			for (col = 0; col < numColumns; col++)
+				rowValues[col] = columns[col][row];
+			instances.add(new DenseInstance(1, rowValues));
+		}
+		return instances;
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null)
+			executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "Delimited file parser");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		return executor;
+	}
+
+	/**
+	 * The cells in one chunk of the file, which is parsed either for the
+	 * numeric values of all columns, or for the text of some columns
+	 */
+	private class Chunk {
+
+		private final MappedByteBuffer buffer;
+
+		/** The columns whose text is wanted, or null */
+		private final boolean[] wantText;
+
+		/**
+		 * Whether to extract the text of every column (eg for the header)
+		 * rather than parse the values
+		 */
+		private final boolean allText;
+
+		/** Whether we are extracting text rather than parsing values */
+		private final boolean textMode;
+
+		int numRows, numColumns;
+
+		double[][] values = new double[0][];
+
+		boolean[] numeric = new boolean[0];
+
+		String[][] text = new String[0][];
+
+		/** The capacity of each column */
+		private int capacity = 1024;
+
+		/** Did any quoted cell contain a line break? */
+		boolean multiLineCells;
+
+		/** The last number found by parseNumber */
+		private double number;
+
+		/** Used for the bytes of numbers that are not parsed in place */
+		private byte[] scratch = new byte[64];
+
+		Chunk(MappedByteBuffer buffer, boolean[] wantText, boolean allText) {
+			this.buffer = buffer;
+			this.wantText = wantText;
+			this.allText = allText;
+			textMode = (allText || wantText != null);
+		}
+
+		void parse() throws IOException {
+			int limit = buffer.limit(), pos = 0, col, start, end;
+			byte b;
+			boolean quoted;
+			while (pos < limit) {
+				// skip blank lines
+				b = buffer.get(pos);
+				if (b == '\n' || b == '\r') {
+					pos++;
+					continue;
+				}
+
+				// read each cell in the row
+				col = 0;
+				while (true) {
+					while (pos < limit && isSpace(buffer.get(pos)))
+						pos++;
+					quoted = (pos < limit && buffer.get(pos) == '"');
+					if (quoted) {
+						start = ++pos;
+						while (pos < limit && (buffer.get(pos) != '"' || (pos + 1 < limit && buffer.get(pos + 1) == '"'))) {
+							multiLineCells |= (buffer.get(pos) == '\n');
+							pos += (buffer.get(pos) == '"' ? 2 : 1);
+						}
+						end = pos;
+						while (pos < limit && !isEndOfCell(buffer.get(pos)))
+							pos++;
+					} else {
+						start = pos;
+						while (pos < limit && !isEndOfCell(buffer.get(pos)))
+							pos++;
+						end = pos;
+						while (end > start && isSpace(buffer.get(end - 1)))
+							end--;
+					}
+					cell(col++, start, end, quoted);
+					if (pos < limit && buffer.get(pos) == delimiter)
+						pos++;
+					else
+						break;
+				}
+				while (pos < limit && buffer.get(pos) != '\n')
+					pos++;
+				pos++;
+				// fill in any cells missing from the end of the row
+				for (; col < numColumns; col++)
+					cell(col, 0, 0, false);
+				numRows++;
+			}
+		}
+
+		private boolean isEndOfCell(byte b) {
+			return b == delimiter || b == '\n' || b == '\r';
+		}
+
+		private boolean isSpace(byte b) {
+			return (b == ' ' || b == '\t') && b != delimiter;
+		}
+
+		/** Record the cell in the current row */
+		private void cell(int col, int start, int end, boolean quoted) throws IOException {
+			if (col >= numColumns)
+				addColumn();
+			if (numRows >= capacity)
+				grow();
+			if (textMode) {
+				if (text[col] != null)
+					text[col][numRows] = (end > start || quoted ? text(start, end, quoted) : null);
+			} else if (end == start || (end == start + 1 && buffer.get(start) == '?'))
+				values[col][numRows] = Double.NaN;
+			else if (numeric[col] && parseNumber(start, end))
+				values[col][numRows] = number;
+			else {
+				numeric[col] = false;
+				values[col][numRows] = Double.NaN;
+			}
+		}
+
+		/** Add a column, in which all the rows so far are missing */
+		private void addColumn() {
+			values = Arrays.copyOf(values, numColumns + 1);
+			numeric = Arrays.copyOf(numeric, numColumns + 1);
+			text = Arrays.copyOf(text, numColumns + 1);
+			if (!textMode) {
+				values[numColumns] = new double[capacity];
+				Arrays.fill(values[numColumns], 0, numRows, Double.NaN);
+				numeric[numColumns] = true;
+			} else if (allText || (numColumns < wantText.length && wantText[numColumns]))
+				text[numColumns] = new String[capacity];
+			numColumns++;
+		}
+
+		private void grow() {
+			capacity *= 2;
+			for (int col = 0; col < numColumns; col++)
+				if (!textMode)
+					values[col] = Arrays.copyOf(values[col], capacity);
+				else if (text[col] != null)
+					text[col] = Arrays.copyOf(text[col], capacity);
+		}
+
+		private String text(int start, int end, boolean quoted) throws IOException {
+			byte[] bytes = new byte[end - start];
+			int length = 0;
+			for (int i = start; i < end; i++) {
+				bytes[length++] = buffer.get(i);
+				// unescape doubled quotes
+				if (quoted && bytes[length - 1] == '"' && i + 1 < end && buffer.get(i + 1) == '"')
+					i++;
+			}
+			return new String(bytes, 0, length, CHARSET);
+		}
+
+		/**
+		 * Parse the bytes as a number, setting number if successful. The
+		 * number is found as mantissa * 10^exponent, and trailing zeros of the
+		 * mantissa are held back so that they do not count as significant
+		 * digits.
+		 */
+		private boolean parseNumber(int start, int end) {
+			int pos = start, digits = 0, zeros = 0, exponent = 0, d;
+			long mantissa = 0;
+			boolean negative = false, fraction = false, any = false;
+			byte b = buffer.get(pos);
+			if (b == '-' || b == '+') {
+				negative = (b == '-');
+				pos++;
+			}
+			for (; pos < end; pos++) {
+				b = buffer.get(pos);
+				if (b >= '0' && b <= '9') {
+					any = true;
+					d = b - '0';
+					if (fraction)
+						exponent--;
+					if (d == 0)
+						zeros += (mantissa > 0 ? 1 : 0);
+					else {
+						digits += zeros + 1;
+						if (digits > MAX_EXACT_DIGITS)
+							return parseDouble(start, end);
+						for (; zeros > 0; zeros--)
+							mantissa *= 10;
+						mantissa = mantissa * 10 + d;
+					}
+				} else if (b == '.' && !fraction)
+					fraction = true;
+				else
+					break;
+			}
+			if (pos < end && (b == 'e' || b == 'E') && any) {
+				int e = 0;
+				boolean negativeExponent = false;
+				if (++pos < end && (buffer.get(pos) == '-' || buffer.get(pos) == '+'))
+					negativeExponent = (buffer.get(pos++) == '-');
+				if (pos == end)
+					return false;
+				for (; pos < end && e < 10000; pos++) {
+					b = buffer.get(pos);
+					if (b < '0' || b > '9')
+						return false;
+					e = e * 10 + (b - '0');
+				}
+				if (pos < end)
+					return parseDouble(start, end);
+				exponent += (negativeExponent ? -e : e);
+			}
+			if (!any || pos < end)
+				return (pos < end && looksNumeric(buffer.get(start)) ? parseDouble(start, end) : false);
+			exponent += zeros;
+			if (mantissa == 0)
+				number = 0;
+			else if (exponent >= 0 && exponent < POWERS_OF_TEN.length)
+				number = mantissa * POWERS_OF_TEN[exponent];
+			else if (exponent < 0 && -exponent < POWERS_OF_TEN.length)
+				number = mantissa / POWERS_OF_TEN[-exponent];
+			else
+				return parseDouble(start, end);
+			if (negative)
+				number = -number;
+			return true;
+		}
+
+		/** Could this be the start of a number that we don't parse in place? (eg NaN or Infinity) */
+		private boolean looksNumeric(byte b) {
+			return b == 'N' || b == 'I' || b == '-' || b == '+';
+		}
+
+		/** Parse the number with Double.parseDouble */
+		private boolean parseDouble(int start, int end) {
+			if (scratch.length < end - start)
+				scratch = new byte[end - start];
+			for (int i = start; i < end; i++)
+				scratch[i - start] = buffer.get(i);
+			try {
+				number = Double.parseDouble(new String(scratch, 0, end - start, "ISO-8859-1"));
+				return true;
+			} catch (Exception e) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Time parsing of a file (with the file name and delimiter as arguments)
+	 */
+	public static void main(String[] args) throws Exception {
+		File file = new File(args[0]);
+		char delimiter = (args.length > 1 ? args[1].charAt(0) : ',');
+		for (int repeat = 0; repeat < 3; repeat++) {
+			long start = System.currentTimeMillis();
+			DelimitedParser parser = new DelimitedParser(delimiter, true);
+			parser.parse(file);
+			long time = System.currentTimeMillis() - start;
+			System.out.println("Parsed " + parser.getNumRows() + " rows and " + parser.getNumColumns()
+					+ " columns in " + time + "ms (" + (file.length() / 1000 / Math.max(1, time)) + " MB/s)");
+		}
+	}
+}
@@ -1,63 +1,58 @@
-package tpp;
-
-import java.io.File;
-import java.util.Scanner;
-
-import javax.swing.JFileChooser;
-
-public class GraphImporter {
-
-	private static final CSVFileFilter FILE_FILTER = new CSVFileFilter();
-
-	/** The default directory for file operations */
-	private static final String DEFAULT_DIRECTORY = ".";
-
-	private Graph graph;
-
-	public Graph importGraph() throws Exception {
-
-		String instancesFileName;
-
-		JFileChooser chooser = new JFileChooser(DEFAULT_DIRECTORY);
-		chooser.setFileFilter(FILE_FILTER);
-
-		int returnVal = chooser.showOpenDialog(null);
-
-		if (returnVal == JFileChooser.APPROVE_OPTION)
-			instancesFileName = chooser.getSelectedFile().getPath();
-		else
-			return null;
-
-		// Read data from file
-		System.out.println("Reading graph data from file " + instancesFileName);
-
-		File selectedFile = chooser.getSelectedFile();
-
-		Scanner fileScanner = new Scanner(selectedFile);
-		graph = new Graph();
-		// read the each line separately
-		while (fileScanner.hasNextLine()) {
-			readLine(fileScanner.nextLine());
-		}
-		fileScanner.close();
-		return graph;
-	}
-
-	private void readLine(String aLine) {
-
-		// String nodeA = null;
-		// String nodeB = null;
-		Scanner lineScanner = new Scanner(aLine).useDelimiter(";");
-
-		String nodeA = lineScanner.next();
-
-		while (lineScanner.hasNext()) {
-			String nodeB = lineScanner.next();
-			Connection cnxn = new Connection(nodeA, nodeB);
-			graph.add(cnxn);
-		}
-		lineScanner.close();
-
-	}
-
-}
+package tpp;
+
+import java.io.File;
+
+import javax.swing.JFileChooser;
+
+public class GraphImporter {
+
+	private static final CSVFileFilter FILE_FILTER = new CSVFileFilter();
+
+	/** The character between the nodes on each line */
+	private static final char DELIMITER = ';';
+
+	/** The default directory for file operations */
+	private static final String DEFAULT_DIRECTORY = ".";
+
+	private Graph graph;
+
+	public Graph importGraph() throws Exception {
+
+		String instancesFileName;
+
+		JFileChooser chooser = new JFileChooser(DEFAULT_DIRECTORY);
+		chooser.setFileFilter(FILE_FILTER);
+
+		int returnVal = chooser.showOpenDialog(null);
+
+		if (returnVal == JFileChooser.APPROVE_OPTION)
+			instancesFileName = chooser.getSelectedFile().getPath();
+		else
+			return null;
+
+		// Read data from file
+		System.out.println("Reading graph data from file " + instancesFileName);
+
+		File selectedFile = chooser.getSelectedFile();
+
+		DelimitedParser parser = new DelimitedParser(DELIMITER, false);
+		parser.parse(selectedFile);
+		graph = new Graph();
+		if (parser.getNumRows() > 0)
+			// read the each line separately
+			for (String[] line : parser.getTextRows())
+				readLine(line);
+		return graph;
+	}
+
+	/** Connect the first node in the line to each of the others */
+	private void readLine(String[] nodes) {
+		String nodeA = nodes[0];
+		if (nodeA == null)
+			return;
+		for (int n = 1; n < nodes.length; n++)
+			if (nodes[n] != null)
+				graph.add(new Connection(nodeA, nodes[n]));
+	}
+
+}
@@ -0,0 +1,256 @@
+package tpp;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Density based clustering (DBSCAN) of the points in a 2D view. (M. Ester, H.
+ * Kriegel, J. Sander and X. Xu (1996): "A density-based algorithm for
+ * discovering clusters in large spatial databases with noise", KDD) <br>
+ * A point is a core point if there are at least minPoints points (including
+ * itself) within the radius of it. Clusters are the connected groups of core
+ * points, together with any other points within the radius of them. The rest
+ * of the points are noise. <br>
+ * The points are indexed by a uniform grid of cells at least as wide as the
+ * radius, so the neighbours of a point are all in the 3x3 block of cells
+ * around it, and the whole clustering takes about linear time. The arrays are
+ * kept between calls, so the same clusterer can be used to recluster the view
+ * each time it changes.
+ */
+public class GridDBSCAN {
+
+	/** The label given to points that are not in any cluster */
+	public static final int NOISE = -1;
+
+	/** The default number of points needed within the radius of a core point */
+	public static final int DEFAULT_MIN_POINTS = 5;
+
+	private static final int UNCLASSIFIED = -2;
+
+	/** The largest number of cells in the grid per point */
+	private static final int MAX_CELLS_PER_POINT = 4;
+
+	private double radius;
+
+	private final int minPoints;
+
+	private int numClusters;
+
+	/** The cluster of each point, or NOISE */
+	private int[] labels;
+
+	/** The cell of each point */
+	private int[] cellOf;
+
+	/**
+	 * The points, sorted by cell, and where the points in each cell start in
+	 * this list
+	 */
+	private int[] sorted, cellStart;
+
+	private boolean[] core;
+
+	/** The queue of core points whose neighbours are still to be added */
+	private int[] queue;
+
+	private int columns, rows;
+
+	private double minX, minY, cellSize;
+
+	/**
+	 * @param radius
+	 *            the radius of the neighbourhood of each point, in the units of
+	 *            the view
+	 * @param minPoints
+	 *            the number of points needed in the neighbourhood of a core
+	 *            point
+	 */
+	public GridDBSCAN(double radius, int minPoints) {
+		this.radius = radius;
+		this.minPoints = Math.max(1, minPoints);
+	}
+
+	/**
+	 * Cluster the points in the view, using the given columns as X and Y.
+	 * Returns the cluster of each point, or NOISE. The array is reused by the
+	 * next call.
+	 */
+	public int[] cluster(double[][] view, int x, int y) {
+		return cluster(view, view.length, x, y);
+	}
+
+	/**
+	 * Cluster the first n points in the view (which may have more rows, eg
+	 * room for appended points)
+	 */
+	public int[] cluster(double[][] view, int n, int x, int y) {
+		int i, j;
+		allocate(n);
+		numClusters = 0;
+		if (n == 0)
+			return labels;
+		index(view, n, x, y);
+
+		// find the core points
+		for (i = 0; i < n; i++)
+			core[i] = (countNeighbours(view, x, y, i) >= minPoints);
+
+		// and grow a cluster from each core point that isn't yet in one
+		Arrays.fill(labels, 0, n, UNCLASSIFIED);
+		int head, tail, p, cx, cy, c, r, q;
+		double px, py, dx, dy, r2 = radius * radius;
+		for (i = 0; i < n; i++) {
+			if (!core[i] || labels[i] != UNCLASSIFIED)
+				continue;
+			labels[i] = numClusters;
+			head = tail = 0;
+			queue[tail++] = i;
+			while (head < tail) {
+				p = queue[head++];
+				px = view[p][x];
+				py = view[p][y];
+				cx = cellOf[p] % columns;
+				cy = cellOf[p] / columns;
+				for (r = Math.max(0, cy - 1); r <= Math.min(rows - 1, cy + 1); r++)
+					for (c = Math.max(0, cx - 1); c <= Math.min(columns - 1, cx + 1); c++)
+						for (j = cellStart[r * columns + c]; j < cellStart[r * columns + c + 1]; j++) {
+							q = sorted[j];
+							if (labels[q] >= 0)
+								continue;
+							dx = view[q][x] - px;
+							dy = view[q][y] - py;
+							if (dx * dx + dy * dy <= r2) {
+								labels[q] = numClusters;
+								if (core[q])
+									queue[tail++] = q;
+							}
+						}
+			}
+			numClusters++;
+		}
+		for (i = 0; i < n; i++)
+			if (labels[i] == UNCLASSIFIED)
+				labels[i] = NOISE;
+		return labels;
+	}
+
+	/** Make sure the arrays are big enough for n points */
+	private void allocate(int n) {
+		if (labels == null || labels.length != n) {
+			labels = new int[n];
+			cellOf = new int[n];
+			sorted = new int[n];
+			core = new boolean[n];
+			queue = new int[n];
+		}
+	}
+
+	/**
+	 * Put the points into a grid of cells at least as wide as the radius (but
+	 * with no more than MAX_CELLS_PER_POINT cells per point), and sort them by
+	 * cell
+	 */
+	private void index(double[][] view, int n, int x, int y) {
+		int i;
+		minX = minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (i = 0; i < n; i++) {
+			minX = Math.min(minX, view[i][x]);
+			maxX = Math.max(maxX, view[i][x]);
+			minY = Math.min(minY, view[i][y]);
+			maxY = Math.max(maxY, view[i][y]);
+		}
+		cellSize = Math.max(radius, Double.MIN_NORMAL);
+		while (true) {
+			columns = (int) Math.min(Integer.MAX_VALUE, Math.floor((maxX - minX) / cellSize) + 1);
+			rows = (int) Math.min(Integer.MAX_VALUE, Math.floor((maxY - minY) / cellSize) + 1);
+			if ((long) columns * rows <= (long) MAX_CELLS_PER_POINT * n + 16)
+				break;
+			cellSize *= 2;
+		}
+
+		// counting sort of the points by cell
+		int numCells = columns * rows;
+		if (cellStart == null || cellStart.length < numCells + 1)
+			cellStart = new int[numCells + 1];
+		Arrays.fill(cellStart, 0, numCells + 1, 0);
+		int c, r;
+		for (i = 0; i < n; i++) {
+			c = Math.min(columns - 1, (int) ((view[i][x] - minX) / cellSize));
+			r = Math.min(rows - 1, (int) ((view[i][y] - minY) / cellSize));
+			cellOf[i] = r * columns + c;
+			cellStart[cellOf[i] + 1]++;
+		}
+		for (c = 0; c < numCells; c++)
+			cellStart[c + 1] += cellStart[c];
+		for (i = 0; i < n; i++)
+			sorted[cellStart[cellOf[i]]++] = i;
+		// (the sort moved each start to the start of the next cell)
+		for (c = numCells; c > 0; c--)
+			cellStart[c] = cellStart[c - 1];
+		cellStart[0] = 0;
+	}
+
+	/**
+	 * The number of points within the radius of the point (including itself),
+	 * stopping once there are minPoints
+	 */
+	private int countNeighbours(double[][] view, int x, int y, int p) {
+		int cx = cellOf[p] % columns, cy = cellOf[p] / columns, count = 0, r, c, j, q;
+		double px = view[p][x], py = view[p][y], dx, dy, r2 = radius * radius;
+		for (r = Math.max(0, cy - 1); r <= Math.min(rows - 1, cy + 1); r++)
+			for (c = Math.max(0, cx - 1); c <= Math.min(columns - 1, cx + 1); c++)
+				for (j = cellStart[r * columns + c]; j < cellStart[r * columns + c + 1]; j++) {
+					q = sorted[j];
+					dx = view[q][x] - px;
+					dy = view[q][y] - py;
+					if (dx * dx + dy * dy <= r2 && ++count >= minPoints)
+						return count;
+				}
+		return count;
+	}
+
+	/** The number of clusters found by the last call to cluster */
+	public int getNumClusters() {
+		return numClusters;
+	}
+
+	public double getRadius() {
+		return radius;
+	}
+
+	/** Set the radius used by the next call to cluster (eg as the view is rescaled) */
+	public void setRadius(double radius) {
+		this.radius = radius;
+	}
+
+	public int getMinPoints() {
+		return minPoints;
+	}
+
+	public String toString() {
+		return "DBSCAN clustering: radius " + radius + ", min points " + minPoints + ", " + numClusters
+				+ " clusters";
+	}
+
+	/**
+	 * Time clustering of a random view (with optional arguments: number of
+	 * points, radius)
+	 */
+	public static void main(String[] args) {
+		int n = (args.length > 0 ? Integer.parseInt(args[0]) : 100000);
+		double radius = (args.length > 1 ? Double.parseDouble(args[1]) : 0.05);
+		Random r = new Random(0);
+		double[][] view = new double[n][2];
+		for (int i = 0; i < n; i++) {
+			view[i][0] = r.nextGaussian() + 4 * (i % 3);
+			view[i][1] = r.nextGaussian() + 4 * (i % 2);
+		}
+		GridDBSCAN dbscan = new GridDBSCAN(radius, DEFAULT_MIN_POINTS);
+		for (int repeat = 0; repeat < 5; repeat++) {
+			long start = System.nanoTime();
+			dbscan.cluster(view, 0, 1);
+			System.out.println(dbscan + " of " + n + " points: " + (System.nanoTime() - start) / 1000000 + "ms");
+		}
+	}
+}
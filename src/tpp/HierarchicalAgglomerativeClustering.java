@@ -1,113 +1,484 @@
-package tpp;
-
-import weka.core.Instance;
-import weka.core.matrix.Matrix;
-
-/**
- * Class for performing HAC using the S. C. Johnson (1967):
- * "Hierarchical Clustering Schemes" Psychometrika, 2:241-254. Different methods
- * use different distance measure to determine the distance between clusters. <br>
- * see http://home.dei.polimi.it/matteucc/Clustering/tutorial_html/
- * hierarchical.html#johnson for more information
- */
-public class HierarchicalAgglomerativeClustering {
-
-	TPPModel model;
-	
-	/**
-	 * HAC using single linkage clustering
-	 */
-	public HierarchicalCluster singleLinkage(TPPModel model) {
-		this.model=model;
-		return agglomerativeClustering(model, new SingleLinkage());
-	}
-
-	/**
-	 * HAC using the given distance measure
-	 */
-	public HierarchicalCluster agglomerativeClustering(TPPModel model, ClusterDistanceCalculator cdc) {
-		// the 'root' cluster containing all others
-		HierarchicalCluster root = new HierarchicalCluster(model);
-
-		// create new 'leaf' clusters, each containing a single instance
-		HierarchicalCluster leaf;
-		for (int i = 0; i < model.getNumDataPoints(); i++) {
-			leaf = new HierarchicalCluster(model);
-			leaf.add(model.instances.instance(i));
-			root.add(leaf);
-		}
-
-		// until there is a single root cluster
-		while (root.size() > 1) {
-
-			// compute distances between clusters and record the most nearest
-			// pair
-			double nearestDistance = -1, distance;
-			HierarchicalCluster[] nearestPair = null;
-			HierarchicalCluster cluster1, cluster2;
-			for (int i = 0; i < root.size(); i++) {
-				for (int j = 0; j < i; j++) {
-					cluster1 = (HierarchicalCluster) root.get(i);
-					cluster2 = (HierarchicalCluster) root.get(j);
-					distance = cdc.distance(cluster1, cluster2);
-					if (nearestDistance < 0 || (distance < nearestDistance)) {
-						nearestPair = new HierarchicalCluster[] { cluster1, cluster2 };
-						nearestDistance = distance;
-					}
-				}
-			}
-
-			// create a new cluster containing the nearest pair and remove the
-			// old two
-			HierarchicalCluster newCluster = new HierarchicalCluster(model);
-			newCluster.add(nearestPair[0]);
-			newCluster.add(nearestPair[1]);
-			root.remove(nearestPair[0]);
-			root.remove(nearestPair[1]);
-			root.add(newCluster);
-
-		}
-
-		System.out.println("Clustering: " + root);
-
-		return root;
-	}
-
-	/**
-	 * Class for calculating distances between clusters. Difference
-	 * implementations can be used to perform different types of clustering.
-	 */
-	private abstract class ClusterDistanceCalculator {
-
-		abstract double distance(HierarchicalCluster c1, HierarchicalCluster c2);
-
-		protected double euclideanDistance(Instance in1, Instance in2) {
-			int i1 = model.indexOf(in1);
-			int i2 = model.indexOf(in2);
-			Matrix m1 = model.data.getMatrix(i1, i1, 0, model.data.getColumnDimension()-1);
-			Matrix m2 = model.data.getMatrix(i2, i2, 0, model.data.getColumnDimension()-1);
-			double distance = m1.minus(m2).normF();
-			return distance;
-		}
-		
-	}
-
-	private class SingleLinkage extends ClusterDistanceCalculator {
-
-
-		public double distance(HierarchicalCluster c1, HierarchicalCluster c2) {
-			double distance, minDistance = -1;
-
-			// search through the instances in each of the clusters
-			for (Instance i1 : c1.getInstances())
-				for (Instance i2 : c2.getInstances()) {
-					distance = euclideanDistance(i1, i2);
-					if (minDistance < 0 || minDistance < distance)
-						minDistance = distance;
-				}
-
-			return minDistance;
-		}
-	}
-
-}
+package tpp;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Hierarchical agglomerative clustering of the points in a model, working
+ * directly on the (numeric, normalised) data. Different methods use different
+ * distance measures to determine the distance between clusters. <br>
+ * Single linkage clustering uses Sibson's SLINK algorithm (R. Sibson (1973):
+ * "SLINK: an optimally efficient algorithm for the single-link cluster
+ * method", The Computer Journal 16(1):30-34), which takes O(n^2) time and O(n)
+ * memory. <br>
+ * The other methods use the nearest-neighbour chain algorithm (see F. Murtagh
+ * (1983): "A survey of recent advances in hierarchical clustering algorithms",
+ * The Computer Journal 26(4):354-359), which is O(n^2) time since all these
+ * linkages are reducible. Complete and average linkage need the distances
+ * between all pairs of points, which are kept in a condensed float matrix of
+ * n(n-1)/2 entries, but Ward's distances are found from the cluster centroids
+ * and sizes, so only O(n) memory is needed.<br>
+ * The result of the clustering is a list of merges, in the format [cluster1,
+ * cluster2, height], where clusters numbered below n are single points and
+ * cluster n+k is the one formed by the k'th merge. This is turned into a
+ * HierarchicalCluster, which uses the same numbering for its nodes.
+ */
+public class HierarchicalAgglomerativeClustering {
+
+	/** The distance between clusters is the distance between their nearest points */
+	public static final int SINGLE_LINKAGE = 0;
+
+	/** The distance between clusters is the distance between their furthest points */
+	public static final int COMPLETE_LINKAGE = 1;
+
+	/** The distance between clusters is the mean distance between their points */
+	public static final int AVERAGE_LINKAGE = 2;
+
+	/**
+	 * Merge the clusters that least increase the total within-cluster
+	 * variance. Heights are reported as for the Lance-Williams form of Ward's
+	 * method on Euclidean distances, ie sqrt(2 n1 n2/(n1+n2)) |c1-c2|
+	 */
+	public static final int WARD_LINKAGE = 3;
+
+	/**
+	 * The largest number of points for which a distance matrix can be indexed
+	 * by an int, whatever memory is available
+	 */
+	private static final int MAX_MATRIX_POINTS = 65535;
+
+	/** The proportion of the free memory that the distance matrix may use */
+	private static final double MATRIX_MEMORY_FRACTION = 0.75;
+
+	/**
+	 * HAC using single linkage clustering
+	 */
+	public HierarchicalCluster singleLinkage(TPPModel model) {
+		try {
+			return agglomerativeClustering(model, SINGLE_LINKAGE);
+		} catch (TPPException e) {
+			// single linkage doesn't need a distance matrix, so this can't
+			// happen
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * HAC using the given linkage (SINGLE_LINKAGE, COMPLETE_LINKAGE,
+	 * AVERAGE_LINKAGE or WARD_LINKAGE)
+	 *
+	 * @throws TPPException
+	 *             if there are too many points to keep the distances between
+	 *             them all (for complete or average linkage)
+	 */
+	public HierarchicalCluster agglomerativeClustering(TPPModel model, int linkage) throws TPPException {
+		return new HierarchicalCluster(model.getData(), linkage(MatrixUtils.getRows(model.getData()), linkage));
+	}
+
+	/**
+	 * Cluster the rows of the data and return the list of merges, as [cluster1,
+	 * cluster2, height].
+	 *
+	 * @throws TPPException
+	 *             if there are too many points to keep the distances between
+	 *             them all (for complete or average linkage)
+	 */
+	public static double[][] linkage(double[][] data, int linkage) throws TPPException {
+		switch (linkage) {
+		case SINGLE_LINKAGE:
+			return slink(data);
+		case WARD_LINKAGE:
+			return wardChain(data);
+		case COMPLETE_LINKAGE:
+		case AVERAGE_LINKAGE:
+			return matrixChain(data, linkage);
+		default:
+			throw new TPPException("Unknown linkage " + linkage);
+		}
+	}
+
+	/**
+	 * Single linkage clustering by the SLINK algorithm. This builds the
+	 * 'pointer representation' of the dendrogram: for each point i, lambda(i)
+	 * is the height at which it stops being the last point of its cluster, and
+	 * pi(i) is the last point of the cluster it then joins. The merges are then
+	 * found by taking the points in order of lambda.
+	 */
+	static double[][] slink(double[][] data) {
+		int n = data.length, i, j;
+		int[] pi = new int[n];
+		double[] lambda = new double[n], m = new double[n];
+		for (i = 0; i < n; i++) {
+			pi[i] = i;
+			lambda[i] = Double.POSITIVE_INFINITY;
+			for (j = 0; j < i; j++)
+				m[j] = squaredDistance(data[i], data[j]);
+			for (j = 0; j < i; j++) {
+				if (lambda[j] >= m[j]) {
+					m[pi[j]] = Math.min(m[pi[j]], lambda[j]);
+					lambda[j] = m[j];
+					pi[j] = i;
+				} else
+					m[pi[j]] = Math.min(m[pi[j]], m[j]);
+			}
+			for (j = 0; j < i; j++)
+				if (lambda[j] >= lambda[pi[j]])
+					pi[j] = i;
+		}
+
+		// sort the points by lambda (the last point has infinite lambda, so
+		// comes last and is ignored)
+		Integer[] order = new Integer[n];
+		for (i = 0; i < n; i++)
+			order[i] = Integer.valueOf(i);
+		final double[] heights = lambda;
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return Double.compare(heights[a.intValue()], heights[b.intValue()]);
+			}
+		});
+
+		// and merge the cluster containing each point with the cluster
+		// containing its pointer
+		int[] parent = new int[n], cluster = new int[n];
+		for (i = 0; i < n; i++) {
+			parent[i] = i;
+			cluster[i] = i;
+		}
+		double[][] merges = new double[Math.max(0, n - 1)][];
+		int a, b;
+		for (int k = 0; k < n - 1; k++) {
+			i = order[k].intValue();
+			a = find(parent, i);
+			b = find(parent, pi[i]);
+			merges[k] = new double[] { Math.min(cluster[a], cluster[b]), Math.max(cluster[a], cluster[b]),
+					Math.sqrt(lambda[i]) };
+			parent[a] = b;
+			cluster[b] = n + k;
+		}
+		return merges;
+	}
+
+	/** Find the root of the set containing i, compressing the path */
+	private static int find(int[] parent, int i) {
+		int root = i, next;
+		while (parent[root] != root)
+			root = parent[root];
+		while (parent[i] != root) {
+			next = parent[i];
+			parent[i] = root;
+			i = next;
+		}
+		return root;
+	}
+
+	/**
+	 * The largest number of points whose distance matrix (of n(n-1)/2 floats)
+	 * fits in the memory that is free, counting memory that the heap can
+	 * still grow into (ie Runtime.maxMemory)
+	 */
+	static int maxMatrixPoints() {
+		Runtime runtime = Runtime.getRuntime();
+		long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+		double pairs = MATRIX_MEMORY_FRACTION * free / 4;
+		// the largest n with n(n-1)/2 <= pairs
+		long n = (long) Math.floor((1 + Math.sqrt(1 + 8 * pairs)) / 2);
+		return (int) Math.min(MAX_MATRIX_POINTS, n);
+	}
+
+	/**
+	 * Complete or average linkage clustering by the nearest-neighbour chain
+	 * algorithm, using a condensed matrix of the distances between clusters,
+	 * which is updated by the Lance-Williams formula after each merge.
+	 */
+	static double[][] matrixChain(double[][] data, int linkage) throws TPPException {
+		int n = data.length, i, j, max = maxMatrixPoints();
+		if (n > max)
+			throw new TPPException("Too many points (" + n + ") for "
+					+ (linkage == COMPLETE_LINKAGE ? "complete" : "average")
+					+ " linkage clustering in the memory available. The maximum is " + max);
+		// the distance between points i<j is at rowStart[i]+j
+		int[] rowStart = new int[n];
+		for (i = 0; i < n; i++)
+			rowStart[i] = (int) ((long) n * i - (long) i * (i + 1) / 2 - i - 1);
+		float[] distances = new float[(int) ((long) n * (n - 1) / 2)];
+		for (i = 0; i < n; i++)
+			for (j = i + 1; j < n; j++)
+				distances[rowStart[i] + j] = (float) Math.sqrt(squaredDistance(data[i], data[j]));
+
+		ActiveClusters active = new ActiveClusters(n);
+		int[] size = new int[n];
+		Arrays.fill(size, 1);
+		double[][] merges = new double[Math.max(0, n - 1)][];
+		int[] chain = new int[n];
+		int top = 0, a, b, k, c, ac, bc, merge = 0;
+		double d, nearestDistance;
+		while (active.count > 1) {
+			if (top == 0)
+				chain[top++] = active.slots[0];
+
+			// find the nearest neighbour of the cluster at the top of the
+			// chain, preferring the previous cluster in the chain if there is a
+			// tie
+			a = chain[top - 1];
+			b = (top > 1 ? chain[top - 2] : -1);
+			nearestDistance = (b >= 0 ? distances[b > a ? rowStart[a] + b : rowStart[b] + a]
+					: Double.POSITIVE_INFINITY);
+			for (k = 0; k < active.count; k++) {
+				c = active.slots[k];
+				if (c != a) {
+					d = distances[c > a ? rowStart[a] + c : rowStart[c] + a];
+					if (d < nearestDistance) {
+						nearestDistance = d;
+						b = c;
+					}
+				}
+			}
+
+			if (top > 1 && b == chain[top - 2]) {
+				// reciprocal nearest neighbours, so merge them into a's slot
+				// and update the distances to the new cluster
+				top -= 2;
+				merges[merge] = active.merge(a, b, nearestDistance, n + merge);
+				merge++;
+				for (k = 0; k < active.count; k++) {
+					c = active.slots[k];
+					if (c != a) {
+						ac = (c > a ? rowStart[a] + c : rowStart[c] + a);
+						bc = (c > b ? rowStart[b] + c : rowStart[c] + b);
+						if (linkage == COMPLETE_LINKAGE)
+							distances[ac] = Math.max(distances[ac], distances[bc]);
+						else
+							distances[ac] = (size[a] * distances[ac] + size[b] * distances[bc]) / (size[a] + size[b]);
+					}
+				}
+				size[a] += size[b];
+			} else
+				chain[top++] = b;
+		}
+		return merges;
+	}
+
+	/**
+	 * Ward's clustering by the nearest-neighbour chain algorithm. The
+	 * distances between clusters are found from their centroids and sizes, so
+	 * no distance matrix is needed.
+	 */
+	static double[][] wardChain(double[][] data) {
+		int n = data.length, dims = (n > 0 ? data[0].length : 0);
+		double[][] centroid = new double[n][];
+		for (int i = 0; i < n; i++)
+			centroid[i] = data[i].clone();
+		int[] size = new int[n];
+		Arrays.fill(size, 1);
+
+		ActiveClusters active = new ActiveClusters(n);
+		double[][] merges = new double[Math.max(0, n - 1)][];
+		int[] chain = new int[n];
+		int top = 0, a, b, k, c, merge = 0;
+		double d, nearestDistance;
+		while (active.count > 1) {
+			if (top == 0)
+				chain[top++] = active.slots[0];
+
+			a = chain[top - 1];
+			b = (top > 1 ? chain[top - 2] : -1);
+			nearestDistance = (b >= 0 ? wardDistance(centroid, size, a, b) : Double.POSITIVE_INFINITY);
+			for (k = 0; k < active.count; k++) {
+				c = active.slots[k];
+				if (c != a) {
+					d = wardDistance(centroid, size, a, c);
+					if (d < nearestDistance) {
+						nearestDistance = d;
+						b = c;
+					}
+				}
+			}
+
+			if (top > 1 && b == chain[top - 2]) {
+				// merge the reciprocal nearest neighbours into a's slot
+				top -= 2;
+				merges[merge] = active.merge(a, b, Math.sqrt(2 * nearestDistance), n + merge);
+				merge++;
+				for (int i = 0; i < dims; i++)
+					centroid[a][i] = (size[a] * centroid[a][i] + size[b] * centroid[b][i]) / (size[a] + size[b]);
+				size[a] += size[b];
+			} else
+				chain[top++] = b;
+		}
+		return merges;
+	}
+
+	/**
+	 * The increase in the within-cluster sum of squares if two clusters are
+	 * merged: n1 n2/(n1+n2) |c1-c2|^2
+	 */
+	private static double wardDistance(double[][] centroid, int[] size, int a, int b) {
+		return (double) size[a] * size[b] / (size[a] + size[b]) * squaredDistance(centroid[a], centroid[b]);
+	}
+
+	/** The squared distance between two points */
+	private static double squaredDistance(double[] p1, double[] p2) {
+		double distance = 0, d;
+		for (int c = 0; c < p1.length; c++) {
+			d = p1[c] - p2[c];
+			distance += d * d;
+		}
+		return distance;
+	}
+
+	/**
+	 * The clusters that have not yet been merged. Each is held in a slot
+	 * (initially the index of its point), and the number of the cluster in
+	 * each slot is kept so that merges can be reported.
+	 */
+	private static class ActiveClusters {
+
+		/** The slots of the active clusters (the first count of them) */
+		final int[] slots;
+
+		/** The position of each slot in the list of active slots */
+		final int[] position;
+
+		/** The number of the cluster in each slot */
+		final int[] cluster;
+
+		int count;
+
+		ActiveClusters(int n) {
+			slots = new int[n];
+			position = new int[n];
+			cluster = new int[n];
+			for (int i = 0; i < n; i++)
+				slots[i] = position[i] = cluster[i] = i;
+			count = n;
+		}
+
+		/**
+		 * Merge the cluster in slot b into the one in slot a, giving it the
+		 * new cluster number, and return the merge
+		 */
+		double[] merge(int a, int b, double height, int newCluster) {
+			double[] merge = new double[] { Math.min(cluster[a], cluster[b]), Math.max(cluster[a], cluster[b]),
+					height };
+			cluster[a] = newCluster;
+
+			// remove b by moving the last active slot into its position
+			int last = slots[--count];
+			slots[position[b]] = last;
+			position[last] = position[b];
+			return merge;
+		}
+	}
+
+	/**
+	 * Cluster the data by brute force, straight from the definitions of the
+	 * linkages: at each step the closest pair of clusters (over all pairs) is
+	 * merged. This takes O(n^3) time, so it is only used to check the other
+	 * methods on small data sets.
+	 */
+	static double[][] bruteForce(double[][] data, int linkage) {
+		int n = data.length, i, j, k, a = 0, b = 0;
+		double[][] distance = new double[n][n], centroid = new double[n][];
+		int[] size = new int[n], cluster = new int[n];
+		boolean[] merged = new boolean[n];
+		for (i = 0; i < n; i++) {
+			size[i] = 1;
+			cluster[i] = i;
+			centroid[i] = data[i].clone();
+			for (j = 0; j < n; j++)
+				distance[i][j] = Math.sqrt(squaredDistance(data[i], data[j]));
+		}
+		// for average linkage, keep the sum of the distances between the
+		// points of each pair of clusters
+		double[][] sum = new double[n][];
+		for (i = 0; i < n; i++)
+			sum[i] = distance[i].clone();
+		double[][] merges = new double[Math.max(0, n - 1)][];
+		double d, nearest;
+		for (int merge = 0; merge < n - 1; merge++) {
+			nearest = Double.POSITIVE_INFINITY;
+			for (i = 0; i < n; i++)
+				for (j = i + 1; j < n; j++)
+					if (!merged[i] && !merged[j]) {
+						if (linkage == AVERAGE_LINKAGE)
+							d = sum[i][j] / (size[i] * size[j]);
+						else if (linkage == WARD_LINKAGE)
+							d = Math.sqrt(2 * wardDistance(centroid, size, i, j));
+						else
+							d = distance[i][j];
+						if (d < nearest) {
+							nearest = d;
+							a = i;
+							b = j;
+						}
+					}
+			merges[merge] = new double[] { Math.min(cluster[a], cluster[b]), Math.max(cluster[a], cluster[b]),
+					nearest };
+			for (k = 0; k < n; k++)
+				if (!merged[k] && k != a && k != b) {
+					if (linkage == SINGLE_LINKAGE)
+						distance[a][k] = distance[k][a] = Math.min(distance[a][k], distance[b][k]);
+					else if (linkage == COMPLETE_LINKAGE)
+						distance[a][k] = distance[k][a] = Math.max(distance[a][k], distance[b][k]);
+					sum[a][k] = sum[k][a] = sum[a][k] + sum[b][k];
+				}
+			for (k = 0; k < data[a].length; k++)
+				centroid[a][k] = (size[a] * centroid[a][k] + size[b] * centroid[b][k]) / (size[a] + size[b]);
+			size[a] += size[b];
+			merged[b] = true;
+			cluster[a] = n + merge;
+		}
+		return merges;
+	}
+
+	/**
+	 * The largest difference between the sorted merge heights of two
+	 * clusterings of the same data
+	 */
+	static double heightDifference(double[][] merges1, double[][] merges2) {
+		double[] h1 = new double[merges1.length], h2 = new double[merges2.length];
+		for (int m = 0; m < h1.length; m++) {
+			h1[m] = merges1[m][2];
+			h2[m] = merges2[m][2];
+		}
+		Arrays.sort(h1);
+		Arrays.sort(h2);
+		double max = 0;
+		for (int m = 0; m < h1.length; m++)
+			max = Math.max(max, Math.abs(h1[m] - h2[m]));
+		return max;
+	}
+
+	/**
+	 * Check each linkage against the brute force clustering of a small random
+	 * data set, and then time the clustering of random data, with optional
+	 * arguments: points, dimensions
+	 */
+	public static void main(String[] args) throws TPPException {
+		int n = (args.length > 0 ? Integer.parseInt(args[0]) : 20000);
+		int dims = (args.length > 1 ? Integer.parseInt(args[1]) : 10);
+		Random r = new Random(0);
+		String[] names = new String[] { "single", "complete", "average", "Ward" };
+		double[][] small = new double[300][dims];
+		for (int i = 0; i < small.length; i++)
+			for (int j = 0; j < dims; j++)
+				small[i][j] = r.nextGaussian() + (i % 5);
+		for (int linkage = SINGLE_LINKAGE; linkage <= WARD_LINKAGE; linkage++)
+			System.out.println(names[linkage] + " linkage of " + small.length
+					+ " points: largest difference in height from brute force "
+					+ heightDifference(linkage(small, linkage), bruteForce(small, linkage)));
+
+		double[][] data = new double[n][dims];
+		for (int i = 0; i < n; i++)
+			for (int j = 0; j < dims; j++)
+				data[i][j] = r.nextGaussian() + (i % 5);
+		for (int linkage = SINGLE_LINKAGE; linkage <= WARD_LINKAGE; linkage++) {
+			long start = System.currentTimeMillis();
+			double[][] merges = linkage(data, linkage);
+			System.out.println(names[linkage] + " linkage of " + n + " points: "
+					+ (System.currentTimeMillis() - start) + "ms, final height " + merges[merges.length - 1][2]);
+		}
+	}
+}
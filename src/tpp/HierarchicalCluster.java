@@ -1,95 +1,156 @@
-package tpp;
-
-import java.util.Vector;
-
-import weka.core.Instance;
-import weka.core.matrix.Matrix;
-
-/** A cluster of instances and or other clusters */
-public class HierarchicalCluster {
-
-	private Vector members;
-
-	/**
-	 * A 1xN row matrix containing the centroid of the members of this cluster
-	 * -- used when drawing cluster arcs
-	 */
-	private Matrix centroid;
-
-	TPPModel model;
-	
-	HierarchicalCluster(TPPModel model) {
-		members = new Vector();
-		this.model = model;
-	}
-
-	/** cluster can only contain Instances or other Clusters */
-	public void add(Object member) {
-		if (member instanceof Instance || member instanceof HierarchicalCluster) {
-			members.add(member);
-			recalculateCentroid();
-		} else
-			throw new RuntimeException("HierarchicalCLusters can only contain instances or other Clusters");
-	}
-
-	public void remove(Object member) {
-		members.remove(member);
-	}
-
-	private void recalculateCentroid() {
-		centroid = new Matrix(1, model.getNumDataDimensions());
-		int i;
-		for (Object member : members) {
-			if (member instanceof Instance) {
-				i = model.indexOf((Instance) member);
-				centroid = centroid.plus(model.data.getMatrix(i, i, 0, model.getNumDataDimensions() - 1));
-			} else
-				centroid = centroid.plus(((HierarchicalCluster) member).centroid);
-		}
-		centroid = centroid.times(1d / members.size());
-	}
-
-	public Matrix getCentroid() {
-		return centroid;
-	}
-
-	public int size() {
-		return members.size();
-	}
-
-	/** is this a leaf? ie does it contain just one instance and no sub-clusters */
-	public boolean isLeaf() {
-		return ((members.size() == 1) && (members.get(0) instanceof Instance));
-	}
-
-	public String toString() {
-		String s = "[";
-		for (Object member : members) {
-			if (member instanceof Instance)
-				s = s + model.indexOf(((Instance) member)) + " ";
-			else
-				s = s + member + " ";
-		}
-		return s.trim() + "]";
-	}
-
-	public Object get(int i) {
-		return members.get(i);
-	}
-	public Vector getMembers() {
-		return members;
-	}
-
-	/** All the instances in all the sub-clusters of this one */
-	public Vector<Instance> getInstances() {
-		Vector<Instance> vi = new Vector<Instance>();
-		for (Object member : getMembers()) {
-			if (member instanceof Instance)
-				vi.add((Instance) member);
-			if (member instanceof HierarchicalCluster)
-				vi.addAll(((HierarchicalCluster) member).getInstances());
-		}
-		return vi;
-	}
-
-}
+package tpp;
+
+import weka.core.matrix.Matrix;
+
+/**
+ * A hierarchical clustering of the points (aka dendrogram), stored as flat
+ * arrays of nodes rather than as objects. Nodes numbered below n are the
+ * points themselves (the leaves), and node n+k is the cluster formed by the
+ * k'th merge, so the root is the last node. For each node we keep its two
+ * children, the height at which they were merged, the number of points in it,
+ * and its centroid in the data space.
+ */
+public class HierarchicalCluster {
+
+	/** The number of points (ie leaves) */
+	private final int numPoints;
+
+	/** The number of dimensions of the data */
+	private final int dims;
+
+	/** The children of each node, or -1 for leaves */
+	private final int[] left, right;
+
+	/** The number of points in each node */
+	private final int[] size;
+
+	/** The height at which each node was formed (zero for leaves) */
+	private final double[] height;
+
+	/**
+	 * The centroids of all the nodes, one after another: ie the centroid of
+	 * node i starts at i*dims
+	 */
+	private final double[] centroids;
+
+	/**
+	 * Build the tree from the data and the list of merges (as [cluster1,
+	 * cluster2, height]) found by HierarchicalAgglomerativeClustering. The
+	 * centroid of each merged cluster is the size-weighted average of the
+	 * centroids of its two children, so the whole tree is built in a single
+	 * pass.
+	 */
+	HierarchicalCluster(Matrix data, double[][] merges) {
+		double[][] aData = data.getArray();
+		numPoints = data.getRowDimension();
+		dims = data.getColumnDimension();
+		int numNodes = numPoints + merges.length;
+		left = new int[numNodes];
+		right = new int[numNodes];
+		size = new int[numNodes];
+		height = new double[numNodes];
+		centroids = new double[numNodes * dims];
+
+		int node, l, r, i;
+		for (node = 0; node < numPoints; node++) {
+			left[node] = right[node] = -1;
+			size[node] = 1;
+			System.arraycopy(aData[node], 0, centroids, node * dims, dims);
+		}
+		for (int k = 0; k < merges.length; k++) {
+			node = numPoints + k;
+			l = (int) merges[k][0];
+			r = (int) merges[k][1];
+			left[node] = l;
+			right[node] = r;
+			height[node] = merges[k][2];
+			size[node] = size[l] + size[r];
+			for (i = 0; i < dims; i++)
+				centroids[node * dims + i] = (size[l] * centroids[l * dims + i] + size[r] * centroids[r * dims + i])
+						/ size[node];
+		}
+	}
+
+	/** The number of points that were clustered */
+	public int getNumPoints() {
+		return numPoints;
+	}
+
+	/** The number of nodes in the tree (including the leaves) */
+	public int getNumNodes() {
+		return left.length;
+	}
+
+	/** The root of the tree, or -1 if there are no points */
+	public int getRoot() {
+		return left.length - 1;
+	}
+
+	/** Is this node a leaf? ie a single point */
+	public boolean isLeaf(int node) {
+		return left[node] < 0;
+	}
+
+	/** The first child of this node, or -1 if it is a leaf */
+	public int getLeft(int node) {
+		return left[node];
+	}
+
+	/** The second child of this node, or -1 if it is a leaf */
+	public int getRight(int node) {
+		return right[node];
+	}
+
+	/** The number of points in this node */
+	public int getSize(int node) {
+		return size[node];
+	}
+
+	/** The height at which this node was formed (zero for leaves) */
+	public double getHeight(int node) {
+		return height[node];
+	}
+
+	/** The centroid of this node, in the data space */
+	public double[] getCentroid(int node) {
+		double[] centroid = new double[dims];
+		System.arraycopy(centroids, node * dims, centroid, 0, dims);
+		return centroid;
+	}
+
+	/**
+	 * The centroids of all the nodes, one after another, starting at
+	 * getCentroidOffset(node). Should not be modified.
+	 */
+	double[] getCentroids() {
+		return centroids;
+	}
+
+	/** Where the centroid of the node starts in getCentroids() */
+	int getCentroidOffset(int node) {
+		return node * dims;
+	}
+
+	/** The indices of the points in this node */
+	public int[] getMembers(int node) {
+		int[] members = new int[size[node]];
+		int[] stack = new int[size[node]];
+		int top = 0, count = 0;
+		stack[top++] = node;
+		while (top > 0) {
+			node = stack[--top];
+			if (isLeaf(node))
+				members[count++] = node;
+			else {
+				stack[top++] = right[node];
+				stack[top++] = left[node];
+			}
+		}
+		return members;
+	}
+
+	public String toString() {
+		return "Hierarchical clustering of " + numPoints + " points"
+				+ (numPoints > 1 ? ", height " + height[getRoot()] : "");
+	}
+}
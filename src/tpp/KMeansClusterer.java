@@ -0,0 +1,453 @@
+package tpp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * K-means clustering of the rows of a data matrix, working directly on the
+ * primitive arrays. <br>
+ * The initial centres are chosen by k-means++ (D. Arthur and S. Vassilvitskii
+ * (2007): "k-means++: the advantages of careful seeding", SODA). The clusters
+ * are then refined by Lloyd's iterations, using Hamerly's bounds (G. Hamerly
+ * (2010): "Making k-means even faster", SDM) to skip the distance
+ * calculations for points that cannot have changed cluster. Each iteration
+ * assigns the points in parallel, in blocks. <br>
+ * For very large data there is also a mini-batch mode (D. Sculley (2010):
+ * "Web-scale k-means clustering", WWW), where each iteration moves the centres
+ * towards a small random sample of the points, followed by a single pass to
+ * assign all the points to their nearest centre.
+ */
+public class KMeansClusterer {
+
+	/** The default maximum number of iterations */
+	public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+	/**
+	 * The number of points above which TPPModel uses mini-batches by default
+	 */
+	public static final int MINI_BATCH_THRESHOLD = 100000;
+
+	/** The default size of each mini-batch */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * The default seed used to choose the initial centres, so that clustering
+	 * the same data twice gives the same clusters
+	 */
+	public static final long DEFAULT_SEED = 1;
+
+	/** The number of points assigned by each task */
+	private static final int BLOCK_SIZE = 4096;
+
+	/** The pool used to assign the points, shared by all clusterers */
+	private static ExecutorService executor;
+
+	private final int numClusters;
+
+	private int maxIterations = DEFAULT_MAX_ITERATIONS;
+
+	/** The size of each mini-batch, or 0 to use all the points each iteration */
+	private int batchSize = 0;
+
+	private long seed = DEFAULT_SEED;
+
+	private double[][] data;
+
+	private double[][] centres;
+
+	/** The cluster of each point */
+	private int[] assignment;
+
+	/**
+	 * For each point, an upper bound on the distance to its centre and a lower
+	 * bound on the distance to any other centre
+	 */
+	private double[] upper, lower;
+
+	/** The number of iterations used by the last clustering */
+	private int iterations;
+
+	/** The number of point-centre distances found by the last clustering */
+	private long distances;
+
+	public KMeansClusterer(int numClusters) {
+		this.numClusters = Math.max(1, numClusters);
+	}
+
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Set the size of each mini-batch, or 0 to use all the points in every
+	 * iteration
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/** Set the seed used to choose the initial centres (and mini-batches) */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Cluster the rows of the data, and return the cluster of each row. If
+	 * there are fewer rows than clusters then only that many clusters are
+	 * found.
+	 */
+	public int[] cluster(double[][] data) throws TPPException {
+		this.data = data;
+		int n = data.length;
+		int k = Math.min(numClusters, n);
+		assignment = new int[n];
+		iterations = 0;
+		distances = 0;
+		if (n == 0)
+			return assignment;
+		Random random = new Random(seed);
+		centres = seed(k, random);
+		if (batchSize > 0 && batchSize < n)
+			miniBatch(random);
+		else
+			lloyd();
+		return assignment;
+	}
+
+	/**
+	 * Choose the initial centres by k-means++: ie each new centre is a point
+	 * chosen with probability proportional to its squared distance to the
+	 * nearest centre so far
+	 */
+	private double[][] seed(int k, Random random) {
+		int n = data.length, i, c;
+		double[][] seeds = new double[k][];
+		double[] nearest = new double[n];
+		seeds[0] = data[random.nextInt(n)].clone();
+		Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+		for (c = 1; c < k; c++) {
+			double total = 0;
+			for (i = 0; i < n; i++) {
+				nearest[i] = Math.min(nearest[i], squaredDistance(data[i], seeds[c - 1]));
+				total += nearest[i];
+			}
+			// if all the points are on the existing centres then pick any
+			// point
+			i = 0;
+			if (total > 0) {
+				double r = random.nextDouble() * total;
+				while (i < n - 1 && (r -= nearest[i]) > 0)
+					i++;
+			} else
+				i = random.nextInt(n);
+			seeds[c] = data[i].clone();
+		}
+		distances += (long) n * (k - 1);
+		return seeds;
+	}
+
+	/** Lloyd's iterations, pruned by Hamerly's bounds */
+	private void lloyd() throws TPPException {
+		int n = data.length, k = centres.length, dims = data[0].length;
+		upper = new double[n];
+		lower = new double[n];
+		double[] halfGap = new double[k], moved = new double[k];
+		double[][] sums = new double[k][dims];
+		int[] counts = new int[k];
+
+		// the first assignment finds all the distances
+		int changed = assign(true, halfGap, sums, counts);
+		while (changed > 0 && iterations < maxIterations) {
+			iterations++;
+
+			// move each centre to the mean of its points (or leave it where
+			// it is if it has none)
+			int furthest = -1, secondFurthest = -1, c, d;
+			for (c = 0; c < k; c++) {
+				moved[c] = 0;
+				if (counts[c] > 0) {
+					double[] mean = sums[c];
+					for (d = 0; d < dims; d++)
+						mean[d] /= counts[c];
+					moved[c] = Math.sqrt(squaredDistance(mean, centres[c]));
+					System.arraycopy(mean, 0, centres[c], 0, dims);
+				}
+				if (furthest < 0 || moved[c] > moved[furthest]) {
+					secondFurthest = furthest;
+					furthest = c;
+				} else if (secondFurthest < 0 || moved[c] > moved[secondFurthest])
+					secondFurthest = c;
+			}
+
+			// loosen the bounds by how far the centres moved
+			double otherMoved;
+			for (int i = 0; i < n; i++) {
+				upper[i] += moved[assignment[i]];
+				otherMoved = (assignment[i] != furthest ? moved[furthest] : (secondFurthest < 0 ? 0
+						: moved[secondFurthest]));
+				lower[i] -= otherMoved;
+			}
+
+			// half the distance from each centre to the nearest other one
+			for (c = 0; c < k; c++) {
+				halfGap[c] = Double.POSITIVE_INFINITY;
+				for (d = 0; d < k; d++)
+					if (d != c)
+						halfGap[c] = Math.min(halfGap[c], Math.sqrt(squaredDistance(centres[c], centres[d])));
+				halfGap[c] /= 2;
+			}
+			distances += (long) k * (k - 1);
+			changed = assign(false, halfGap, sums, counts);
+		}
+	}
+
+	/**
+	 * Assign each point to its nearest centre, in parallel, and find the sum
+	 * and number of the points in each cluster. Points whose bounds show that
+	 * their nearest centre cannot have changed are skipped, unless all is
+	 * true, in which case all the distances are found and the bounds are set.
+	 * Returns the number of points that changed cluster.
+	 */
+	private int assign(final boolean all, final double[] halfGap, double[][] sums, int[] counts)
+			throws TPPException {
+		int n = data.length, k = centres.length, dims = data[0].length;
+		List<Future<Block>> futures = new ArrayList<Future<Block>>();
+		for (int start = 0; start < n; start += BLOCK_SIZE) {
+			final int from = start, to = Math.min(n, start + BLOCK_SIZE);
+			futures.add(getExecutor().submit(new Callable<Block>() {
+				public Block call() {
+					return assignBlock(from, to, all, halfGap);
+				}
+			}));
+		}
+		for (int c = 0; c < k; c++)
+			Arrays.fill(sums[c], 0);
+		Arrays.fill(counts, 0);
+		int changed = 0;
+		for (Block block : collect(futures)) {
+			changed += block.changed;
+			distances += block.distances;
+			for (int c = 0; c < k; c++) {
+				counts[c] += block.counts[c];
+				for (int d = 0; d < dims; d++)
+					sums[c][d] += block.sums[c][d];
+			}
+		}
+		return changed;
+	}
+
+	/** Assign the points in the block, using Hamerly's bounds */
+	private Block assignBlock(int from, int to, boolean all, double[] halfGap) {
+		int k = centres.length, dims = data[0].length, c, nearest;
+		Block block = new Block(k, dims);
+		double bound, d, first, second;
+		double[] point;
+		for (int i = from; i < to; i++) {
+			point = data[i];
+			bound = (all ? 0 : Math.max(halfGap[assignment[i]], lower[i]));
+			if (all || upper[i] > bound) {
+				// tighten the upper bound, and if that isn't enough then
+				// find the distances to all the centres
+				if (!all) {
+					upper[i] = Math.sqrt(squaredDistance(point, centres[assignment[i]]));
+					block.distances++;
+				}
+				if (all || upper[i] > bound) {
+					first = second = Double.POSITIVE_INFINITY;
+					nearest = 0;
+					for (c = 0; c < k; c++) {
+						d = squaredDistance(point, centres[c]);
+						if (d < first) {
+							second = first;
+							first = d;
+							nearest = c;
+						} else if (d < second)
+							second = d;
+					}
+					block.distances += k;
+					if (all || nearest != assignment[i])
+						block.changed++;
+					assignment[i] = nearest;
+					upper[i] = Math.sqrt(first);
+					lower[i] = Math.sqrt(second);
+				}
+			}
+			block.counts[assignment[i]]++;
+			for (c = 0; c < dims; c++)
+				block.sums[assignment[i]][c] += point[c];
+		}
+		return block;
+	}
+
+	/**
+	 * Mini-batch k-means: move each centre towards the points in a random
+	 * sample that are nearest to it, with a learning rate of one over the
+	 * number of points it has been moved towards so far. Then assign all the
+	 * points to their nearest centre.
+	 */
+	private void miniBatch(Random random) throws TPPException {
+		int n = data.length, k = centres.length, dims = data[0].length;
+		int[] seen = new int[k];
+		int[] batch = new int[batchSize];
+		int[] nearest = new int[batchSize];
+		double rate;
+		for (iterations = 0; iterations < maxIterations; iterations++) {
+			for (int b = 0; b < batchSize; b++) {
+				batch[b] = random.nextInt(n);
+				nearest[b] = nearestCentre(data[batch[b]]);
+			}
+			distances += (long) batchSize * k;
+			for (int b = 0; b < batchSize; b++) {
+				double[] centre = centres[nearest[b]], point = data[batch[b]];
+				rate = 1.0 / ++seen[nearest[b]];
+				for (int d = 0; d < dims; d++)
+					centre[d] += rate * (point[d] - centre[d]);
+			}
+		}
+
+		// assign all the points to the final centres
+		upper = new double[n];
+		lower = new double[n];
+		assign(true, null, new double[k][dims], new int[k]);
+	}
+
+	/** The index of the centre nearest to the point */
+	private int nearestCentre(double[] point) {
+		int nearest = 0;
+		double min = Double.POSITIVE_INFINITY, d;
+		for (int c = 0; c < centres.length; c++) {
+			d = squaredDistance(point, centres[c]);
+			if (d < min) {
+				min = d;
+				nearest = c;
+			}
+		}
+		return nearest;
+	}
+
+	private static double squaredDistance(double[] a, double[] b) {
+		double d = 0, x;
+		for (int i = 0; i < a.length; i++) {
+			x = a[i] - b[i];
+			d += x * x;
+		}
+		return d;
+	}
+
+	/** Wait for all the blocks to be assigned */
+	private static List<Block> collect(List<Future<Block>> futures) throws TPPException {
+		List<Block> blocks = new ArrayList<Block>(futures.size());
+		try {
+			for (Future<Block> f : futures)
+				blocks.add(f.get());
+		} catch (InterruptedException e) {
+			for (Future<Block> f : futures)
+				f.cancel(true);
+			throw new TPPException("K-means clustering interrupted");
+		} catch (ExecutionException e) {
+			e.getCause().printStackTrace();
+			throw new TPPException("K-means clustering failed: " + e.getCause().getMessage());
+		}
+		return blocks;
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null)
+			executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "K-means clustering");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		return executor;
+	}
+
+	/** The results of assigning a block of points */
+	private static class Block {
+
+		final double[][] sums;
+
+		final int[] counts;
+
+		int changed;
+
+		long distances;
+
+		Block(int k, int dims) {
+			sums = new double[k][dims];
+			counts = new int[k];
+		}
+	}
+
+	/** The number of clusters that were asked for */
+	public int getNumClusters() {
+		return numClusters;
+	}
+
+	/** The final centres of the clusters */
+	public double[][] getCentres() {
+		double[][] copy = new double[centres.length][];
+		for (int c = 0; c < centres.length; c++)
+			copy[c] = centres[c].clone();
+		return copy;
+	}
+
+	/** The number of iterations used by the last clustering */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * The number of distances between points and centres that were found by
+	 * the last clustering (ie the work that was done)
+	 */
+	public long getNumDistances() {
+		return distances;
+	}
+
+	/** The sum of the squared distances from each point to its centre */
+	public double getInertia() {
+		double inertia = 0;
+		for (int i = 0; i < data.length; i++)
+			inertia += squaredDistance(data[i], centres[assignment[i]]);
+		return inertia;
+	}
+
+	public String toString() {
+		return "K-means clustering: " + numClusters + " clusters"
+				+ (batchSize > 0 ? ", mini-batches of " + batchSize : "") + ", " + iterations + " iterations";
+	}
+
+	/**
+	 * Time clustering of random data (with optional arguments: number of
+	 * points, number of dimensions, number of clusters)
+	 */
+	public static void main(String[] args) throws TPPException {
+		int n = (args.length > 0 ? Integer.parseInt(args[0]) : 200000);
+		int dims = (args.length > 1 ? Integer.parseInt(args[1]) : 10);
+		int k = (args.length > 2 ? Integer.parseInt(args[2]) : 10);
+		Random r = new Random(0);
+		double[][] data = new double[n][dims];
+		for (int i = 0; i < n; i++)
+			for (int j = 0; j < dims; j++)
+				data[i][j] = r.nextGaussian() + 4 * ((i * (j + 1)) % k);
+		for (int batch = 0; batch <= DEFAULT_BATCH_SIZE; batch += DEFAULT_BATCH_SIZE) {
+			KMeansClusterer clusterer = new KMeansClusterer(k);
+			clusterer.setSeed(0);
+			clusterer.setBatchSize(batch);
+			long start = System.currentTimeMillis();
+			clusterer.cluster(data);
+			System.out.println(clusterer + " of " + n + " points: " + (System.currentTimeMillis() - start) + "ms, "
+					+ clusterer.getNumDistances() + " distances, inertia " + clusterer.getInertia());
+		}
+	}
+}
@@ -0,0 +1,420 @@
+package tpp;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import weka.core.matrix.CholeskyDecomposition;
+import weka.core.matrix.Matrix;
+
+/**
+ * A linear projection whose pursuit is solved directly, as a linear least
+ * squares problem, rather than by gradient descent. <br>
+ * The projection W is chosen to minimise |XW-T|^2 + lambda|W-W0|^2 over the
+ * selected points, where X is the data, T the target and W0 the current
+ * projection. The small ridge term keeps the problem well conditioned and means
+ * that any directions that are not constrained by the target (eg when there are
+ * more attributes than selected points) are left where they were. <br>
+ * The Cholesky factorisation of (X'X + lambda I) is cached, so once it has been
+ * found each pursuit costs a single pass over the data to find X'T, and an
+ * O(d^2.k) solve. <br>
+ * If there are more attributes than selected points (eg microarray data) then
+ * the same problem is solved in the dual, through the n x n kernel matrix XX',
+ * since W = W0 + X'(XX' + lambda I)^-1 (T - XW0). This is O(n^2.k) per
+ * pursuit, plus a single pass over the data to map the result back to a
+ * projection.
+ */
+public class LeastSquaresProjection extends LinearProjection {
+
+	private static final long serialVersionUID = -5594038715813318875L;
+
+	/**
+	 * The ridge parameter, lambda, as a proportion of the mean of the diagonal
+	 * of X'X
+	 */
+	private static final double RIDGE = 1E-4;
+
+	/** The minimum value allowed for the norm of the target */
+	private static final double MIN_VALUE = 1E-100;
+
+	/** The cached factorisation, or null if none has been found yet */
+	private transient LeastSquaresSolver solver;
+
+	public LeastSquaresProjection(int inputDimensions, int outputDimensions) {
+		super(inputDimensions, outputDimensions);
+	}
+
+	/** Construct a LeastSquaresProjection from a matrix */
+	public LeastSquaresProjection(Matrix m) {
+		super(m);
+	}
+
+	/**
+	 * Create an independent copy of this projection. The copy shares the
+	 * cached factorisation, which is only read when solving, so copies can be
+	 * pursued in different threads without factorising the data again.
+	 */
+	public LinearProjection copyProjection() {
+		LeastSquaresProjection copy = new LeastSquaresProjection(this);
+		copy.solver = solver;
+		return copy;
+	}
+
+	/**
+	 * Find the projection that best maps the data to the target, by solving
+	 * the least squares problem directly. If the problem cannot be factorised
+	 * then we fall back to gradient descent.
+	 *
+	 * @param inTrainingSet
+	 *            which points have been selected -- we ignore the other ones.
+	 *            (if ==null then we use all the points)
+	 * @return the resulting error (norm_frobenius(error) /
+	 *         norm_frobenius(target))
+	 */
+	public double pursueTarget(Matrix data, Matrix target, boolean[] inTrainingSet) {
+		LeastSquaresSolver s = getSolver(data, inTrainingSet);
+		if (s == null)
+			return super.pursueTarget(data, target, inTrainingSet);
+
+		double normTarget = s.squaredNorm(target);
+		if (normTarget < MIN_VALUE)
+			throw new RuntimeException("norm of target is zero");
+		double[] squaredError = new double[1];
+		setValues(s.solve(target, getArray(), squaredError));
+		return Math.sqrt(squaredError[0] / normTarget);
+	}
+
+	/**
+	 * Find how the projection would respond to pursuing the given change in
+	 * the target, from the current projection. Since the solution is linear in
+	 * the target this is just (X'X + lambda I)^-1 X'dT, and each column of the
+	 * response is the change in the corresponding column of the projection.
+	 * Returns null if the data cannot be factorised.
+	 */
+	LeastSquaresProjection findResponse(Matrix data, Matrix dTarget, boolean[] inTrainingSet) {
+		LeastSquaresSolver s = getSolver(data, inTrainingSet);
+		if (s == null)
+			return null;
+		return new LeastSquaresProjection(new Matrix(s.solveChange(dTarget)));
+	}
+
+	/**
+	 * Get the solver for this data and selection of points, reusing the cached
+	 * factorisation if possible. Returns null if the data cannot be factorised.
+	 */
+	LeastSquaresSolver getSolver(Matrix data, boolean[] inTrainingSet) {
+		// (a solver that failed is kept too, so we don't try again every step)
+		if (solver == null || !solver.isFor(data, inTrainingSet))
+			solver = new LeastSquaresSolver(data, inTrainingSet);
+		return (solver.isValid() ? solver : null);
+	}
+
+	/**
+	 * The pursuit only reaches the same projection from every start if it is
+	 * solved directly and there are at least as many selected points as
+	 * attributes (apart from the tiny pull of the ridge term towards the
+	 * start). In the dual the directions that the points do not constrain are
+	 * left where they started, and if the data cannot be factorised the
+	 * pursuit falls back to gradient descent.
+	 */
+	public boolean isIndependentOfStart(Matrix data, boolean[] inTrainingSet) {
+		LeastSquaresSolver s = getSolver(data, inTrainingSet);
+		return s != null && !s.isDual();
+	}
+
+	/**
+	 * Create a new projection by removing a single attribute (row), which is
+	 * still solved directly
+	 */
+	public LinearProjection removeAttribute(int i) {
+		return new LeastSquaresProjection(super.removeAttribute(i));
+	}
+
+	/**
+	 * The cached normal equations for a particular data set and selection of
+	 * points: ie the Gram matrix X'X of the selected points and the Cholesky
+	 * factorisation of (X'X + lambda I). Or, if there are more attributes than
+	 * selected points, the kernel matrix XX' and the factorisation of (XX' +
+	 * lambda I).
+	 */
+	static class LeastSquaresSolver {
+
+		/** The data and selection that the factorisation was found for */
+		private final Matrix data;
+		private final boolean[] selected;
+		private final int rows, cols;
+
+		/**
+		 * The selected points if the problem is solved in the dual, or null if
+		 * it is solved directly
+		 */
+		private final int[] points;
+
+		/** X'X, or XX' in the dual, for the selected points */
+		private final double[][] gram;
+
+		private final double lambda;
+
+		private final CholeskyDecomposition cholesky;
+
+		LeastSquaresSolver(Matrix data, boolean[] selected) {
+			this.data = data;
+			this.selected = (selected == null ? null : selected.clone());
+			this.rows = data.getRowDimension();
+			this.cols = data.getColumnDimension();
+
+			int numSelected = 0, p, i;
+			for (p = 0; p < rows; p++)
+				if (selected == null || selected[p])
+					numSelected++;
+			if (cols > numSelected) {
+				points = new int[numSelected];
+				numSelected = 0;
+				for (p = 0; p < rows; p++)
+					if (selected == null || selected[p])
+						points[numSelected++] = p;
+				gram = MatrixUtils.kernel(data, points);
+			} else {
+				points = null;
+				gram = MatrixUtils.gram(data, selected);
+			}
+
+			// the trace is the same for X'X and XX', so lambda doesn't depend
+			// on which way round the problem is solved
+			double trace = 0;
+			for (i = 0; i < gram.length; i++)
+				trace += gram[i][i];
+
+			// and factorise X'X + lambda I
+			lambda = (trace > 0 ? RIDGE * trace / cols : RIDGE);
+			double[][] regularised = new double[gram.length][];
+			for (i = 0; i < gram.length; i++) {
+				regularised[i] = gram[i].clone();
+				regularised[i][i] += lambda;
+			}
+			cholesky = new CholeskyDecomposition(new Matrix(regularised));
+		}
+
+		/** Was the data successfully factorised? */
+		boolean isValid() {
+			return cholesky.isSPD();
+		}
+
+		/** Is the problem solved in the dual, through the kernel matrix? */
+		boolean isDual() {
+			return points != null;
+		}
+
+		/** Is this the factorisation of the given data and selection? */
+		boolean isFor(Matrix data, boolean[] selected) {
+			return this.data == data && rows == data.getRowDimension() && cols == data.getColumnDimension()
+					&& Arrays.equals(this.selected, selected);
+		}
+
+		/**
+		 * Find the projection W that minimises |XW-T|^2 + lambda|W-W0|^2,
+		 * where w0 is the current projection, and put the resulting squared
+		 * error |XW-T|^2 into squaredError[0]
+		 */
+		double[][] solve(Matrix target, double[][] w0, double[] squaredError) {
+			int k = target.getColumnDimension();
+			int i, j;
+			if (points == null) {
+				// solve (X'X + lambda I) W = X'T + lambda W0
+				double[][] xt = timesTranspose(target);
+				double[][] rhs = new double[cols][];
+				for (i = 0; i < cols; i++) {
+					rhs[i] = xt[i].clone();
+					for (j = 0; j < k; j++)
+						rhs[i][j] += lambda * w0[i][j];
+				}
+				double[][] w = cholesky.solve(new Matrix(rhs)).getArray();
+				squaredError[0] = primalError(w, xt, squaredNorm(target));
+				return w;
+			}
+
+			// otherwise find the residual R = T - XW0 for the selected points
+			// and solve (XX' + lambda I) a = R, so W = W0 + X'a
+			double[][] aData = data.getArray(), aTarget = target.getArray();
+			double[][] residual = new double[points.length][k];
+			double[] row;
+			double v;
+			int p, c;
+			for (p = 0; p < points.length; p++) {
+				row = aData[points[p]];
+				for (j = 0; j < k; j++) {
+					v = aTarget[points[p]][j];
+					for (c = 0; c < cols; c++)
+						v -= row[c] * w0[c][j];
+					residual[p][j] = v;
+				}
+			}
+			double[][] a = cholesky.solve(new Matrix(residual)).getArray();
+			double[][] w = new double[cols][];
+			for (c = 0; c < cols; c++)
+				w[c] = w0[c].clone();
+			addTransposeTimes(a, w);
+
+			// and since XW - T = Ka - R the error can be found from the kernel
+			double error = 0;
+			for (p = 0; p < points.length; p++)
+				for (j = 0; j < k; j++) {
+					v = -residual[p][j];
+					for (i = 0; i < points.length; i++)
+						v += gram[p][i] * a[i][j];
+					error += v * v;
+				}
+			squaredError[0] = error;
+			return w;
+		}
+
+		/**
+		 * Find the change in projection that results from a change in the
+		 * target, ie solve (X'X + lambda I) dW = X'dT for dW
+		 */
+		double[][] solveChange(Matrix dTarget) {
+			if (points == null)
+				return cholesky.solve(new Matrix(timesTranspose(dTarget))).getArray();
+
+			// in the dual, dW = X'a where (XX' + lambda I) a = dT
+			int k = dTarget.getColumnDimension();
+			double[][] aTarget = dTarget.getArray();
+			double[][] dt = new double[points.length][];
+			for (int p = 0; p < points.length; p++)
+				dt[p] = aTarget[points[p]].clone();
+			double[][] dw = new double[cols][k];
+			addTransposeTimes(cholesky.solve(new Matrix(dt)).getArray(), dw);
+			return dw;
+		}
+
+		/** Add X'a to w, where X is the selected points (in the dual) */
+		private void addTransposeTimes(double[][] a, double[][] w) {
+			double[][] aData = data.getArray();
+			int k = (a.length > 0 ? a[0].length : 0);
+			double[] row, aRow;
+			int p, c, j;
+			for (p = 0; p < points.length; p++) {
+				row = aData[points[p]];
+				aRow = a[p];
+				for (c = 0; c < cols; c++)
+					for (j = 0; j < k; j++)
+						w[c][j] += row[c] * aRow[j];
+			}
+		}
+
+		/** Find X'Y for the selected points. */
+		double[][] timesTranspose(Matrix y) {
+			double[][] aData = data.getArray(), aY = y.getArray();
+			int k = y.getColumnDimension();
+			double[][] xy = new double[cols][k];
+			double[] row, yRow, xyRow;
+			double v;
+			int p, i, j;
+			for (p = 0; p < rows; p++) {
+				if (selected == null || selected[p]) {
+					row = aData[p];
+					yRow = aY[p];
+					for (i = 0; i < cols; i++) {
+						v = row[i];
+						if (v != 0) {
+							xyRow = xy[i];
+							for (j = 0; j < k; j++)
+								xyRow[j] += v * yRow[j];
+						}
+					}
+				}
+			}
+			return xy;
+		}
+
+		/**
+		 * The squared error |XW-T|^2 for the selected points, found from the
+		 * normal equations rather than by reprojecting the data: ie tr(W'X'XW)
+		 * - 2tr(W'X'T) + |T|^2
+		 */
+		private double primalError(double[][] w, double[][] xt, double normTarget) {
+			double error = normTarget;
+			double[] gw = new double[cols];
+			int i, j, c;
+			for (c = 0; c < w[0].length; c++) {
+				for (i = 0; i < cols; i++) {
+					gw[i] = 0;
+					for (j = 0; j < cols; j++)
+						gw[i] += gram[i][j] * w[j][c];
+				}
+				for (i = 0; i < cols; i++)
+					error += w[i][c] * (gw[i] - 2 * xt[i][c]);
+			}
+			return (error > 0 ? error : 0);
+		}
+
+		/** The squared Frobenius norm of the selected rows of the matrix */
+		double squaredNorm(Matrix mx) {
+			double[][] a = mx.getArray();
+			double n = 0;
+			for (int i = 0; i < mx.getRowDimension(); i++)
+				if (selected == null || selected[i])
+					for (int j = 0; j < mx.getColumnDimension(); j++)
+						n += a[i][j] * a[i][j];
+			return n;
+		}
+	}
+
+	/**
+	 * Check the direct solution against gradient descent (ie the pursuit of
+	 * LinearProjection) and against an exact least squares solution, on random
+	 * data with more points than attributes (which is solved in the primal)
+	 * and with more attributes than points (which is solved in the dual), with
+	 * optional arguments: points, attributes
+	 */
+	public static void main(String[] args) {
+		int n = (args.length > 0 ? Integer.parseInt(args[0]) : 2000);
+		int d = (args.length > 1 ? Integer.parseInt(args[1]) : 10);
+		Random r = new Random(0);
+		check("Primal", n, d, r);
+		check("Dual", d, n, r);
+	}
+
+	/**
+	 * Pursue a target (a random projection of the data, plus noise) from a
+	 * random start by each method, and report the error of each and how far
+	 * the direct solution is from the exact one
+	 */
+	private static void check(String name, int n, int d, Random r) {
+		Matrix data = new Matrix(n, d), target, start = new Matrix(d, 2), projection = new Matrix(d, 2);
+		for (int i = 0; i < n; i++)
+			for (int j = 0; j < d; j++)
+				data.set(i, j, r.nextGaussian());
+		for (int j = 0; j < d; j++)
+			for (int c = 0; c < 2; c++) {
+				start.set(j, c, r.nextGaussian());
+				projection.set(j, c, r.nextGaussian());
+			}
+		target = data.times(projection);
+		for (int i = 0; i < n; i++)
+			for (int c = 0; c < 2; c++)
+				target.set(i, c, target.get(i, c) + r.nextGaussian());
+
+		LeastSquaresProjection direct = new LeastSquaresProjection(start);
+		direct.pursueTarget(data, target, null);
+		LinearProjection gradient = new LinearProjection(start);
+		gradient.pursueTarget(data, target, null);
+
+		// the exact solution is the least squares solution if there are more
+		// points than attributes, and otherwise the one nearest to the start
+		Matrix exact;
+		if (n >= d)
+			exact = data.solve(target);
+		else
+			exact = start.plus(data.transpose().times(
+					data.times(data.transpose()).solve(target.minus(data.times(start)))));
+
+		System.out.println(name + " (" + n + " x " + d + "): error " + error(direct, data, target)
+				+ " direct, " + error(gradient, data, target) + " gradient descent, " + error(exact, data, target)
+				+ " exact; relative distance of direct from exact " + direct.minus(exact).normF() / exact.normF());
+	}
+
+	/** The error of the projection: norm_frobenius(XW-T) / norm_frobenius(T) */
+	private static double error(Matrix projection, Matrix data, Matrix target) {
+		return data.times(projection).minus(target).normF() / target.normF();
+	}
+}
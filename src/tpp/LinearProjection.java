@@ -1,295 +1,564 @@
-package tpp;
-
-import java.util.Random;
-
-import weka.core.matrix.Matrix;
-import weka.core.matrix.SingularValueDecomposition;
-
-/**
- * A linear projection. the projection is defined by a matrix and projection
- * pursuit is achieved by application of the perceptron learning rule. In other
- * words we treat the projection as a bunch of linear neurons.
- */
-public class LinearProjection extends Matrix implements Projection {
-
-	/**
-	 * The minimum value allowed when computing PCAs. NB could probably be set
-	 * less than this, but use this value for safety. For more information see
-	 * http://www.netlib.org/na-digest-html/90/v90n18.html#5
-	 */
-	private static final double MIN_VALUE = 1E-100;
-
-	/** The allowed margin of error between the current view and the target. */
-	private static final double TRAINING_ERROR_MARGIN = 1E-5;
-
-	/**
-	 * The default rate for training the neural network. The actual rate used
-	 * may be less than this if the network starts to diverge.
-	 */
-	private static final double DEFAULT_TRAINING_RATE = 0.2d;
-
-	/**
-	 * Stop training the neural network when the error is less than
-	 * TRAINING_ERROR_MARGIN, or the error is not improving by at least this
-	 * much ie a value of 0.01 means the error must be improving by one percent
-	 * per cycle.
-	 */
-	private static final double TRAINING_CONVERGENCE_MARGIN = 0.001;
-
-	private static final double TRAINING_MOMENTUM = 0.5d;
-
-	/** The maximum number of epochs to train for */
-	private static final int TRAINING_EPOCH_LIMIT = 500;
-
-	/** The max rate at which the error can increase before we reduce the training rate */ 
-	private static final double MAXIMUM_DIVERGENCE = 1.05d;
-
-	/** The rate at which we reduce the training rate if the error is increasing */
-	private static final double TRAINING_RATE_DECELERATION = .5d;
-
-	/** The minimum training rate */
-	private static final double MIN_TRAINING_RATE = 1E-10;
-
-	private double[][] previousWeights;
-
-	private double rate = -1d;
-
-	public LinearProjection(int inputDimensions, int outputDimensions) {
-		super(inputDimensions, outputDimensions);
-	}
-
-	/** Construct a LinearProjection from a matrix */
-	public LinearProjection(Matrix m) {
-		super(m.getArray().clone());
-	}
-
-	public Matrix project(Matrix data) {
-		return data.times(this);
-	}
-
-	public double pursueTarget(Matrix data, Matrix target) {
-		return pursueTarget(data, target, null);
-	}
-
-	public double pursueTargetSingleShot(Matrix data, Matrix target,
-			boolean[] inTrainingSet) {
-		train(data, target, inTrainingSet, previousWeights, 4d);
-		double currentError = project(data).minus(target).normF()
-				/ target.normF();
-		// System.out.println(currentError);
-		return currentError;
-	}
-
-	/**
-	 * Try to find a projection that best maps the data to the target.
-	 * 
-	 * @param data
-	 * @param target
-	 * @param inTrainingSet
-	 *            which points have been selected -- we ignore the other ones.
-	 *            (if ==null then we use all the points)
-	 * @return the resulting error (norm_frobenius(error) /
-	 *         norm_frobenius(target))
-	 */
-	public double pursueTarget(Matrix data, Matrix target,
-			boolean[] inTrainingSet) {
-
-		try {
-			Thread.sleep(100);
-		} catch (InterruptedException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		double previousError, currentError = 0;
-		rate = DEFAULT_TRAINING_RATE / data.getRowDimension();
-		double normTarget = normF(target, inTrainingSet);
-		if (normTarget < MIN_VALUE)
-			throw new RuntimeException("norm of target is zero");
-		Matrix currentOutput = project(data);
-		if (previousWeights == null)
-			previousWeights = getValues(new double[getRowDimension()][getColumnDimension()]);
-		previousError = normF(currentOutput.minus(target), inTrainingSet);
-
-		// System.out.println("Initial error: "+previousError);
-
-		int epoch = 0;
-		while (++epoch < TRAINING_EPOCH_LIMIT) {
-
-			// if the error is small enough then quit
-			if (previousError < TRAINING_ERROR_MARGIN)
-				return previousError;
-
-			// else train
-			train(data, target, inTrainingSet, previousWeights, rate);
-
-			// find the current error
-			currentOutput = project(data);
-			currentError = normF(currentOutput.minus(target), inTrainingSet)
-					/ normTarget;
-
-//			 System.out.println("epoch=" + epoch + "\tRate: " + rate +"\tError: " + currentError);
-
-			// if network has converged then quit
-			if (abs(currentError - previousError) / previousError < TRAINING_CONVERGENCE_MARGIN)
-				return currentError;
-
-			// if the net diverged by more than 5%then reduce the rate and reset
-			// values to previous
-			if (currentError > (previousError * MAXIMUM_DIVERGENCE)) {
-				// if we cannot reduce the rate any further then quit
-				if (rate < MIN_TRAINING_RATE)
-					return previousError;
-				rate = rate * TRAINING_RATE_DECELERATION;
-				setValues(previousWeights);
-			} else {
-				previousError = currentError;
-				previousWeights = getValues(previousWeights);
-			}
-
-		}
-
-		return currentError;
-	}
-
-	// Batch train the projection to produce the target when applied to the
-	// selected points in the data
-	public void train(Matrix data, Matrix target, boolean[] selected,
-			double[][] previousWeights, double rate) {
-		int i, j, p;
-
-		// use native arrays rather than Matrix classes, to make access faster
-		double[][] aData = data.getArray(), aTarget = target.getArray(), aOutput = project(
-				data).getArray();
-
-		// the cumulative weight difference for this unit (ie column of the
-		// projection)
-		double[] cumWeightDiff;
-
-		// the error for this unit applied to a single point (ie row in the
-		// data)
-		double error;
-
-		// for each unit (ie column of the projection)
-		for (j = 0; j < getColumnDimension(); j++) {
-
-			// cumulate a weight difference for all points
-			cumWeightDiff = new double[getRowDimension()];
-			for (p = 0; p < data.getRowDimension(); p++) {
-
-				if (selected == null || selected[p]) {
-
-					// first find the error for this point
-					error = aTarget[p][j] - aOutput[p][j];
-
-					// then use this to calculate a weight difference which is
-					// added to the cumulative total
-					for (i = 0; i < getRowDimension(); i++)
-						cumWeightDiff[i] += error * rate * aData[p][i];
-				}
-			}
-
-			// then add the cumulative weight difference to the weights
-			if (previousWeights != null)
-				for (i = 0; i < getRowDimension(); i++)
-					set(i, j, A[i][j] + cumWeightDiff[i] + TRAINING_MOMENTUM
-							* (A[i][j] - previousWeights[i][j]));
-			else
-				for (i = 0; i < getRowDimension(); i++)
-					set(i, j, A[i][j] + cumWeightDiff[i]);
-
-		}
-	}
-
-	/** Calculate the Frobenius norm of the selected points of the matrix */
-	private double normF(Matrix mx, boolean[] selected) {
-		double n = 0;
-		for (int i = 0; i < mx.getRowDimension(); i++)
-			if (selected == null || selected[i])
-				for (int j = 0; j < mx.getColumnDimension(); j++)
-					n += (mx.get(i, j) * mx.get(i, j));
-		return n;
-	}
-
-	void setValues(double[][] values) {
-		A = values;
-	}
-
-	/**
-	 * Get the current values of the projection, and put them in the supplied
-	 * array
-	 */
-	private double[][] getValues(double[][] values) {
-		for (int i = 0; i < values.length; i++)
-			for (int j = 0; j < values[0].length; j++)
-				values[i][j] = get(i, j);
-		return values;
-	}
-
-	/** Set all projection values to a random values in [-1,1] */
-	public void randomize() {
-		Random r = new Random();
-		for (int row = 0; row < getRowDimension(); row++)
-			for (int col = 0; col < getColumnDimension(); col++)
-				set(row, col, r.nextDouble() * 2 - 1);
-	}
-
-	/** Scale the projection so that all values are in the range [-1,1]. */
-	public void normalise() {
-		timesEquals(1 / MatrixUtils.maxAbsValue(this));
-	}
-
-	private double abs(double d) {
-		return (d > 0 ? d : -d);
-	}
-
-	/** Find the principle components of the given data. */
-	public void PCA(Matrix data) {
-
-		// The LINPACK SVD algorithm fails if any of the instances are zero
-		// see http://www.netlib.org/na-digest-html/90/v90n18.html#5
-		// so we remove any zero instances before finding the pca projection;
-		// First, copy all non-zero instances into a temporary matrix
-		Matrix nonZeroData = new Matrix(data.getRowDimension(),
-				data.getColumnDimension());
-		boolean zeroInstance;
-		int zeroInstances = 0;
-		for (int i = 0; i < data.getRowDimension(); i++) {
-			// assume this is a zero instance until we find a non-zero value
-			zeroInstance = true;
-			zeroInstances++;
-			for (int j = 0; j < data.getColumnDimension(); j++)
-				if (abs(data.get(i, j)) > MIN_VALUE) {
-					zeroInstance = false;
-					zeroInstances--;
-					break;
-				}
-			if (!zeroInstance)
-				for (int j = 0; j < data.getColumnDimension(); j++)
-					nonZeroData.set(i - zeroInstances, j, data.get(i, j));
-			else
-				System.out.println(i + " is a zero instance");
-		}
-		nonZeroData = nonZeroData.getMatrix(0, data.getRowDimension()
-				- zeroInstances - 1, 0, data.getColumnDimension() - 1);
-		SingularValueDecomposition svd = new SingularValueDecomposition(
-				nonZeroData);
-		setMatrix(0, getRowDimension() - 1, 0, getColumnDimension() - 1,
-				svd.getV());
-	}
-
-	/** Create a new projection by removing a single attribute (row) */
-	public LinearProjection removeAttribute(int i) {
-		LinearProjection newProjection = new LinearProjection(
-				getRowDimension() - 1, getColumnDimension());
-		int newRow = 0;
-		int col;
-		for (int oldRow = 0; oldRow < getRowDimension(); oldRow++) {
-			if (oldRow != i) {
-				for (col = 0; col < getColumnDimension(); col++)
-					newProjection.set(newRow, col, this.get(oldRow, col));
-				newRow++;
-			}
-		}
-		return newProjection;
-	}
-}
+package tpp;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import weka.core.matrix.EigenvalueDecomposition;
+import weka.core.matrix.Matrix;
+
+/**
+ * A linear projection. the projection is defined by a matrix and projection
+ * pursuit is achieved by application of the perceptron learning rule. In other
+ * words we treat the projection as a bunch of linear neurons.
+ */
+public class LinearProjection extends Matrix implements Projection {
+
+	/**
+	 * The minimum value allowed when computing PCAs. NB could probably be set
+	 * less than this, but use this value for safety. For more information see
+	 * http://www.netlib.org/na-digest-html/90/v90n18.html#5
+	 */
+	private static final double MIN_VALUE = 1E-100;
+
+	/** The allowed margin of error between the current view and the target. */
+	private static final double TRAINING_ERROR_MARGIN = 1E-5;
+
+	/**
+	 * The default rate for training the neural network. The actual rate used
+	 * may be less than this if the network starts to diverge.
+	 */
+	private static final double DEFAULT_TRAINING_RATE = 0.2d;
+
+	/**
+	 * Stop training the neural network when the error is less than
+	 * TRAINING_ERROR_MARGIN, or the error is not improving by at least this
+	 * much ie a value of 0.01 means the error must be improving by one percent
+	 * per cycle.
+	 */
+	private static final double TRAINING_CONVERGENCE_MARGIN = 0.001;
+
+	private static final double TRAINING_MOMENTUM = 0.5d;
+
+	/**
+	 * The number of extra dimensions sampled when finding the principal
+	 * components by random projection
+	 */
+	public static final int DEFAULT_PCA_OVERSAMPLING = 10;
+
+	/**
+	 * The number of power iterations used when finding the principal
+	 * components by random projection
+	 */
+	public static final int DEFAULT_PCA_POWER_ITERATIONS = 1;
+
+	/** The maximum number of epochs to train for */
+	private static final int TRAINING_EPOCH_LIMIT = 500;
+
+	/** The max rate at which the error can increase before we reduce the training rate */ 
+	private static final double MAXIMUM_DIVERGENCE = 1.05d;
+
+	/** The rate at which we reduce the training rate if the error is increasing */
+	private static final double TRAINING_RATE_DECELERATION = .5d;
+
+	/** The minimum training rate */
+	private static final double MIN_TRAINING_RATE = 1E-10;
+
+	/**
+	 * The number of points in each chunk when training. The points are always
+	 * split into chunks of this size, and the results for each chunk combined
+	 * in the same order, so the result of training does not depend on the
+	 * number of threads used.
+	 */
+	private static final int TRAINING_CHUNK_SIZE = 4096;
+
+	/** The number of threads used for training */
+	private static int trainingThreads = Runtime.getRuntime().availableProcessors();
+
+	/** The pool used for training in parallel, shared by all projections */
+	private static TrainingPool pool;
+
+	/** The buffers used when training, or null if there has been no training yet */
+	private transient PursuitWorkspace workspace;
+
+	private double rate = -1d;
+
+	public LinearProjection(int inputDimensions, int outputDimensions) {
+		super(inputDimensions, outputDimensions);
+	}
+
+	/** Construct a LinearProjection from a (copy of a) matrix */
+	public LinearProjection(Matrix m) {
+		super(m.getArrayCopy());
+	}
+
+	/**
+	 * Create an independent copy of this projection, that can be pursued
+	 * separately (eg in another thread)
+	 */
+	public LinearProjection copyProjection() {
+		return new LinearProjection(this);
+	}
+
+	public Matrix project(Matrix data) {
+		return data.times(this);
+	}
+
+	public double pursueTarget(Matrix data, Matrix target) {
+		return pursueTarget(data, target, null);
+	}
+
+	public double pursueTargetSingleShot(Matrix data, Matrix target,
+			boolean[] inTrainingSet) {
+		train(data, target, inTrainingSet, getWorkspace().previousWeights, 4d);
+		double currentError = Math.sqrt(squaredError(data, target, null))
+				/ target.normF();
+		// System.out.println(currentError);
+		return currentError;
+	}
+
+	/**
+	 * Try to find a projection that best maps the data to the target.
+	 * 
+	 * @param data
+	 * @param target
+	 * @param inTrainingSet
+	 *            which points have been selected -- we ignore the other ones.
+	 *            (if ==null then we use all the points)
+	 * @return the resulting error (norm_frobenius(error) /
+	 *         norm_frobenius(target))
+	 */
+	public double pursueTarget(Matrix data, Matrix target,
+			boolean[] inTrainingSet) {
+
+		double previousError, currentError = 0;
+		rate = DEFAULT_TRAINING_RATE / data.getRowDimension();
+		double normTarget = normF(target, inTrainingSet);
+		if (normTarget < MIN_VALUE)
+			throw new RuntimeException("norm of target is zero");
+		PursuitWorkspace workspace = getWorkspace();
+		if (workspace.previousWeights == null)
+			workspace.previousWeights = getValues(new double[getRowDimension()][getColumnDimension()]);
+		double[][] previousWeights = workspace.previousWeights;
+		previousError = squaredError(data, target, inTrainingSet);
+
+		// System.out.println("Initial error: "+previousError);
+
+		int epoch = 0;
+		while (++epoch < TRAINING_EPOCH_LIMIT) {
+
+			// if the error is small enough then quit
+			if (previousError < TRAINING_ERROR_MARGIN)
+				return previousError;
+
+			// else train
+			train(data, target, inTrainingSet, previousWeights, rate);
+
+			// find the current error
+			currentError = squaredError(data, target, inTrainingSet) / normTarget;
+
+//			 System.out.println("epoch=" + epoch + "\tRate: " + rate +"\tError: " + currentError);
+
+			// if network has converged then quit
+			if (abs(currentError - previousError) / previousError < TRAINING_CONVERGENCE_MARGIN)
+				return currentError;
+
+			// if the net diverged by more than 5%then reduce the rate and reset
+			// values to previous
+			if (currentError > (previousError * MAXIMUM_DIVERGENCE)) {
+				// if we cannot reduce the rate any further then quit
+				if (rate < MIN_TRAINING_RATE)
+					return previousError;
+				rate = rate * TRAINING_RATE_DECELERATION;
+				getValues(previousWeights, A);
+			} else {
+				previousError = currentError;
+				getValues(previousWeights);
+			}
+
+		}
+
+		return currentError;
+	}
+
+	/**
+	 * Take a few steps towards the target, estimating the gradient at each
+	 * step from a mini-batch of the selected points rather than from all of
+	 * them. The step size is relative to the squared norm of the points in the
+	 * batch, so it does not depend on the scale of the data, and decays over
+	 * successive steps (however often the target changes), so the projection
+	 * converges as the target continues to be pursued. A step that increases
+	 * the error over its batch is undone, and the step size reduced. If no
+	 * selected points can be sampled then we fall back to a full pursuit.
+	 * 
+	 * @param inTrainingSet
+	 *            which points have been selected -- we ignore the other ones.
+	 *            (if ==null then we use all the points)
+	 * @return the error over the last mini-batch (norm_frobenius(error) /
+	 *         norm_frobenius(target))
+	 */
+	public double pursueTargetStochastic(Matrix data, Matrix target,
+			boolean[] inTrainingSet, MiniBatchSchedule schedule) {
+		PursuitWorkspace workspace = getWorkspace();
+		if (workspace.listSelected(inTrainingSet, data.getRowDimension()) == 0)
+			return pursueTarget(data, target, inTrainingSet);
+		int inputs = getRowDimension(), offset = inputs * getColumnDimension(), i, j, step;
+		double[] result;
+		double scale, error = 0, squaredTarget = 0;
+		for (step = 0; step < schedule.getSteps(); step++) {
+			result = workspace.accumulateBatch(A, data, target, schedule.getBatchSize());
+			error = result[offset];
+			squaredTarget = result[offset + 1];
+			if (result[offset + 2] < MIN_VALUE)
+				continue;
+			scale = workspace.stochasticRateScale * schedule.getRate(workspace.stochasticSteps++)
+					/ result[offset + 2];
+			for (j = 0; j < getColumnDimension(); j++)
+				for (i = 0; i < inputs; i++)
+					A[i][j] += scale * result[j * inputs + i];
+
+			// if the step diverged then undo it and reduce the step size
+			double stepError = workspace.batchSquaredError(A, data, target);
+			if (stepError > error * MAXIMUM_DIVERGENCE) {
+				for (j = 0; j < getColumnDimension(); j++)
+					for (i = 0; i < inputs; i++)
+						A[i][j] -= scale * result[j * inputs + i];
+				workspace.stochasticRateScale *= TRAINING_RATE_DECELERATION;
+			} else
+				error = stepError;
+		}
+		if (squaredTarget < MIN_VALUE)
+			return 0;
+		return Math.sqrt(error / squaredTarget);
+	}
+
+	/**
+	 * Restart the step size schedule for stochastic pursuit, eg because it
+	 * has been changed
+	 */
+	public void restartStochasticSchedule() {
+		if (workspace != null) {
+			workspace.stochasticSteps = 0;
+			workspace.stochasticRateScale = 1;
+		}
+	}
+
+	/**
+	 * Set the number of threads used when training. If this is one then
+	 * training is done in the calling thread. Training that is already using
+	 * the old pool is allowed to finish.
+	 */
+	public static synchronized void setTrainingThreads(int threads) {
+		if (threads < 1)
+			threads = 1;
+		if (threads != trainingThreads && pool != null) {
+			pool.retire();
+			pool = null;
+		}
+		trainingThreads = threads;
+	}
+
+	/** The number of threads used when training */
+	public static int getTrainingThreads() {
+		return trainingThreads;
+	}
+
+	/**
+	 * The pool to use for training, or null if training in a single thread.
+	 * The pool must be released when the training is done.
+	 */
+	private static synchronized TrainingPool acquirePool() {
+		if (trainingThreads < 2)
+			return null;
+		if (pool == null)
+			pool = new TrainingPool(trainingThreads);
+		return pool.acquire();
+	}
+
+	/**
+	 * A pool used for training, which is shut down once it has been replaced
+	 * (see setTrainingThreads) and no training is using it
+	 */
+	private static class TrainingPool extends ForkJoinPool {
+
+		private int users;
+
+		private boolean retired;
+
+		TrainingPool(int threads) {
+			super(threads);
+		}
+
+		synchronized TrainingPool acquire() {
+			users++;
+			return this;
+		}
+
+		synchronized void release() {
+			if (--users == 0 && retired)
+				shutdown();
+		}
+
+		synchronized void retire() {
+			retired = true;
+			if (users == 0)
+				shutdown();
+		}
+	}
+
+	// Batch train the projection to produce the target when applied to the
+	// selected points in the data
+	public void train(Matrix data, Matrix target, boolean[] selected,
+			double[][] previousWeights, double rate) {
+		int i, j;
+
+		// the cumulative weight difference for each unit (ie column of the
+		// projection), summed over all the chunks of points
+		double[] gradient;
+		TrainingPool pool = acquirePool();
+		try {
+			gradient = getWorkspace().accumulate(A, data, target, selected, true, pool);
+		} finally {
+			if (pool != null)
+				pool.release();
+		}
+		int inputs = getRowDimension();
+
+		for (j = 0; j < getColumnDimension(); j++) {
+			// then add the cumulative weight difference to the weights
+			if (previousWeights != null)
+				for (i = 0; i < inputs; i++)
+					A[i][j] = A[i][j] + rate * gradient[j * inputs + i] + TRAINING_MOMENTUM
+							* (A[i][j] - previousWeights[i][j]);
+			else
+				for (i = 0; i < inputs; i++)
+					A[i][j] = A[i][j] + rate * gradient[j * inputs + i];
+		}
+	}
+
+	/**
+	 * Get the buffers used for training, creating them if this is the first
+	 * time or if the dimensions of the projection have changed
+	 */
+	private PursuitWorkspace getWorkspace() {
+		if (workspace == null || !workspace.isFor(getRowDimension(), getColumnDimension()))
+			workspace = new PursuitWorkspace(getRowDimension(), getColumnDimension(), TRAINING_CHUNK_SIZE);
+		return workspace;
+	}
+
+	/**
+	 * Calculate the squared error between the projection of the selected
+	 * points and the target
+	 */
+	private double squaredError(Matrix data, Matrix target, boolean[] selected) {
+		double[] result;
+		TrainingPool pool = acquirePool();
+		try {
+			result = getWorkspace().accumulate(A, data, target, selected, false, pool);
+		} finally {
+			if (pool != null)
+				pool.release();
+		}
+		return result[result.length - 1];
+	}
+
+	/** Calculate the Frobenius norm of the selected points of the matrix */
+	private double normF(Matrix mx, boolean[] selected) {
+		double n = 0;
+		for (int i = 0; i < mx.getRowDimension(); i++)
+			if (selected == null || selected[i])
+				for (int j = 0; j < mx.getColumnDimension(); j++)
+					n += (mx.get(i, j) * mx.get(i, j));
+		return n;
+	}
+
+	void setValues(double[][] values) {
+		A = values;
+	}
+
+	/**
+	 * Get the current values of the projection, and put them in the supplied
+	 * array
+	 */
+	private double[][] getValues(double[][] values) {
+		return getValues(A, values);
+	}
+
+	/** Copy the values from one array to another of the same size */
+	private static double[][] getValues(double[][] from, double[][] to) {
+		for (int i = 0; i < to.length; i++)
+			System.arraycopy(from[i], 0, to[i], 0, to[i].length);
+		return to;
+	}
+
+	/** Set all projection values to a random values in [-1,1] */
+	public void randomize() {
+		randomize(new Random());
+	}
+
+	/**
+	 * Set all projection values to a random values in [-1,1], using the given
+	 * random number generator
+	 */
+	public void randomize(Random r) {
+		for (int row = 0; row < getRowDimension(); row++)
+			for (int col = 0; col < getColumnDimension(); col++)
+				set(row, col, r.nextDouble() * 2 - 1);
+	}
+
+	/** Scale the projection so that all values are in the range [-1,1]. */
+	public void normalise() {
+		timesEquals(1 / MatrixUtils.maxAbsValue(this));
+	}
+
+	private double abs(double d) {
+		return (d > 0 ? d : -d);
+	}
+
+	/**
+	 * Find the principle components of the given data. Rather than finding the
+	 * SVD of the data itself, we find the eigenvectors of X'X, which is built
+	 * in a single pass over the data and is only d x d. If there are more
+	 * dimensions than points then we use the n x n matrix XX' instead, and
+	 * find the components from its eigenvectors. Either way the data is never
+	 * copied.
+	 */
+	public void PCA(Matrix data) {
+		int dims = data.getColumnDimension(), k = getColumnDimension();
+		if (dims <= data.getRowDimension()) {
+			PCAFromGram(MatrixUtils.gram(data, null));
+			return;
+		}
+
+		// Zero instances would just add zero rows and columns to XX' so we
+		// leave them out (nb the LINPACK SVD used to fail if any of the
+		// instances were zero, see
+		// http://www.netlib.org/na-digest-html/90/v90n18.html#5)
+		int[] rows = MatrixUtils.nonZeroRows(data, MIN_VALUE);
+		EigenvalueDecomposition eig = new EigenvalueDecomposition(new Matrix(MatrixUtils.kernel(data, rows)));
+		double[] values = eig.getRealEigenvalues();
+		int[] order = MatrixUtils.rank(values.clone());
+		Matrix vectors = eig.getV();
+
+		// the principal components are X'u/sigma, for each eigenvector u of XX'
+		double[][] aData = data.getArray();
+		double[] component = new double[dims];
+		double sigma, u;
+		int e, p, i;
+		for (int col = 0; col < k; col++) {
+			for (i = 0; i < dims; i++)
+				component[i] = 0;
+			if (col < rows.length) {
+				e = order[col];
+				sigma = Math.sqrt(values[e] > 0 ? values[e] : 0);
+				if (sigma > MIN_VALUE)
+					for (p = 0; p < rows.length; p++) {
+						u = vectors.get(p, e) / sigma;
+						for (i = 0; i < dims; i++)
+							component[i] += aData[rows[p]][i] * u;
+					}
+			}
+			for (i = 0; i < dims; i++)
+				set(i, col, component[i]);
+		}
+	}
+
+	/**
+	 * Set the projection to the principal components of data whose Gram matrix
+	 * (X'X) is given, ie its eigenvectors with the largest eigenvalues. This
+	 * lets the components be refined as data arrives, by adding the Gram
+	 * matrix of each new batch to the total.
+	 */
+	public void PCAFromGram(double[][] gram) {
+		int dims = gram.length, k = getColumnDimension();
+		EigenvalueDecomposition eig = new EigenvalueDecomposition(new Matrix(gram));
+		int[] order = MatrixUtils.rank(eig.getRealEigenvalues().clone());
+		Matrix vectors = eig.getV();
+		for (int col = 0; col < k; col++)
+			for (int row = 0; row < dims; row++)
+				set(row, col, vectors.get(row, order[col]));
+	}
+
+	/**
+	 * Find the principal components of the given data using a randomised
+	 * range finder (Halko, Martinsson and Tropp 2011) rather than a full SVD.
+	 * The data is projected onto a few more random directions than we need,
+	 * which, after a few power iterations, captures the top components. The
+	 * problem is then small enough to solve directly. This only needs a few
+	 * passes over the data, and never copies it.
+	 * 
+	 * @param oversampling
+	 *            the number of extra random directions
+	 * @param powerIterations
+	 *            the number of power iterations, which improve the accuracy
+	 *            when the singular values decay slowly
+	 */
+	public void randomizedPCA(Matrix data, int oversampling, int powerIterations) {
+		int dims = data.getColumnDimension(), k = getColumnDimension();
+		int samples = Math.min(k + oversampling, dims);
+
+		// find an orthonormal basis for the range of the data projected onto
+		// random directions
+		Random r = new Random();
+		Matrix omega = new Matrix(dims, samples);
+		for (int row = 0; row < dims; row++)
+			for (int col = 0; col < samples; col++)
+				omega.set(row, col, r.nextGaussian());
+		Matrix q = data.times(omega);
+		MatrixUtils.orthonormaliseColumns(q);
+		for (int i = 0; i < powerIterations; i++) {
+			Matrix z = MatrixUtils.transposeTimes(data, q);
+			MatrixUtils.orthonormaliseColumns(z);
+			q = data.times(z);
+			MatrixUtils.orthonormaliseColumns(q);
+		}
+
+		// project the data onto this basis, B=Q'X, and find the SVD of B via
+		// the eigenvectors of BB' (which is only samples x samples)
+		Matrix bt = MatrixUtils.transposeTimes(data, q);
+		EigenvalueDecomposition eig = new EigenvalueDecomposition(MatrixUtils.transposeTimes(bt, bt));
+		double[] values = eig.getRealEigenvalues();
+		Matrix vectors = eig.getV();
+
+		// the right singular vectors of B, in order of decreasing singular
+		// value, are the principal components
+		int[] order = MatrixUtils.rank(values.clone());
+		double sigma;
+		int e;
+		for (int col = 0; col < k; col++) {
+			e = order[col];
+			sigma = Math.sqrt(values[e] > 0 ? values[e] : 0);
+			for (int row = 0; row < dims; row++) {
+				double u = 0;
+				if (sigma > MIN_VALUE)
+					for (int s = 0; s < samples; s++)
+						u += bt.get(row, s) * vectors.get(s, e);
+				set(row, col, (sigma > MIN_VALUE ? u / sigma : 0));
+			}
+		}
+	}
+
+	/**
+	 * Does every pursuit of a target reach the same projection, wherever it
+	 * starts, for this data and selection of points? (If so then there is no
+	 * point trying more than one start.)
+	 */
+	public boolean isIndependentOfStart(Matrix data, boolean[] inTrainingSet) {
+		return false;
+	}
+
+	/** Create a new projection by removing a single attribute (row) */
+	public LinearProjection removeAttribute(int i) {
+		LinearProjection newProjection = new LinearProjection(
+				getRowDimension() - 1, getColumnDimension());
+		int newRow = 0;
+		int col;
+		for (int oldRow = 0; oldRow < getRowDimension(); oldRow++) {
+			if (oldRow != i) {
+				for (col = 0; col < getColumnDimension(); col++)
+					newProjection.set(newRow, col, this.get(oldRow, col));
+				newRow++;
+			}
+		}
+		return newProjection;
+	}
+}
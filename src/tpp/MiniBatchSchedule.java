@@ -0,0 +1,48 @@
+package tpp;
+
+import java.io.Serializable;
+
+/**
+ * How to pursue a target stochastically: the number of points in each
+ * mini-batch, the number of mini-batch steps to take each time the target is
+ * pursued, and the step size, which decays as rate/(1+decay.t) where t is the
+ * number of steps taken so far. The step size is relative to the squared norm
+ * of the points in the mini-batch, so a rate of less than 1 cannot overshoot.
+ */
+public class MiniBatchSchedule implements Serializable {
+
+	private static final long serialVersionUID = -8524571742614890862L;
+
+	/** A schedule that is suitable for most data sets */
+	public static final MiniBatchSchedule DEFAULT = new MiniBatchSchedule(1024, 8, 0.5d, 0.01d);
+
+	private final int batchSize;
+
+	private final int steps;
+
+	private final double rate;
+
+	private final double decay;
+
+	public MiniBatchSchedule(int batchSize, int steps, double rate, double decay) {
+		this.batchSize = batchSize;
+		this.steps = steps;
+		this.rate = rate;
+		this.decay = decay;
+	}
+
+	/** The number of points in each mini-batch */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/** The number of steps to take each time the target is pursued */
+	public int getSteps() {
+		return steps;
+	}
+
+	/** The step size after the given number of steps */
+	public double getRate(long step) {
+		return rate / (1 + decay * step);
+	}
+}
@@ -0,0 +1,226 @@
+package tpp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import weka.core.matrix.Matrix;
+
+/**
+ * Pursue a target from several different starting projections at once, and
+ * keep the projection that ends up with the lowest error. The first start is
+ * the current projection, the second is the principal components, and the
+ * rest are random. Each start is pursued in its own thread, on its own copy of
+ * the projection, and the data and target are only read. <br>
+ * This is most useful when the pursuit can get stuck: ie gradient pursuit
+ * with a projection constraint. Since the error is measured after the
+ * constraint has been applied, starts that only reach a good fit by breaking
+ * the constraint are not chosen. If every start would reach the same
+ * projection (eg a LeastSquaresProjection of data with fewer attributes than
+ * selected points) then only the current projection is pursued. But with more
+ * attributes than points the least squares pursuit leaves the unconstrained
+ * directions where they started, so the starts do differ.
+ */
+public class MultiStartPursuit {
+
+	/** The default number of starts */
+	public static final int DEFAULT_STARTS = 8;
+
+	private static final int CURRENT_START = 0;
+
+	private static final int PCA_START = 1;
+
+	/** The pool used to run the starts, shared by all pursuits */
+	private static ExecutorService executor;
+
+	private final int numStarts;
+
+	/** The seed used to generate the random starts */
+	private long seed = System.nanoTime();
+
+	/** The final error from each start, or null if not yet pursued */
+	private double[] errors;
+
+	/** The start with the lowest error */
+	private int bestStart = -1;
+
+	private LinearProjection best;
+
+	public MultiStartPursuit(int numStarts) {
+		this.numStarts = Math.max(1, numStarts);
+	}
+
+	/** Set the seed used to generate the random starts */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Pursue the target from each start, and return the projection with the
+	 * lowest error. The current projection is not changed.
+	 *
+	 * @param selected
+	 *            which points are used for the pursuit (if null then all of
+	 *            them)
+	 * @param constraint
+	 *            the constraint applied to each projection after pursuit, or
+	 *            null if there is none
+	 */
+	public LinearProjection pursue(final Matrix data, final Matrix target, final boolean[] selected,
+			LinearProjection current, final ProjectionConstraint constraint) throws TPPException {
+		int starts = (current.isIndependentOfStart(data, selected) ? 1 : numStarts);
+		List<Future<LinearProjection>> futures = new ArrayList<Future<LinearProjection>>();
+		for (int s = 0; s < starts; s++) {
+			final LinearProjection start = current.copyProjection();
+			final int startNumber = s;
+			futures.add(getExecutor().submit(new Callable<LinearProjection>() {
+				public LinearProjection call() {
+					initialise(start, startNumber, data);
+					start.pursueTarget(data, target, selected);
+					if (constraint != null)
+						return (LinearProjection) constraint.findNearestValid(start);
+					return start;
+				}
+			}));
+		}
+
+		// collect the results in order, so that ties go to the earliest start
+		errors = new double[starts];
+		best = null;
+		bestStart = -1;
+		double normTarget = squaredNorm(target, selected);
+		try {
+			for (int s = 0; s < starts; s++) {
+				LinearProjection result = futures.get(s).get();
+				errors[s] = Math.sqrt(squaredError(data, target, selected, result) / normTarget);
+				if (best == null || errors[s] < errors[bestStart]) {
+					best = result;
+					bestStart = s;
+				}
+			}
+		} catch (InterruptedException e) {
+			for (Future<LinearProjection> f : futures)
+				f.cancel(true);
+			throw new TPPException("Multi-start pursuit interrupted");
+		} catch (ExecutionException e) {
+			e.getCause().printStackTrace();
+			throw new TPPException("Multi-start pursuit failed: " + e.getCause().getMessage());
+		}
+		return best;
+	}
+
+	/** Set the projection to the given start */
+	private void initialise(LinearProjection start, int startNumber, Matrix data) {
+		if (startNumber == CURRENT_START)
+			return;
+		if (startNumber == PCA_START)
+			TPPModel.findPCA(start, data);
+		else
+			start.randomize(new Random(seed + startNumber));
+		start.normalise();
+	}
+
+	/** The squared error |XW-T|^2 over the selected points */
+	private static double squaredError(Matrix data, Matrix target, boolean[] selected, Matrix projection) {
+		double[][] aData = data.getArray(), aTarget = target.getArray(), w = projection.getArray();
+		int k = projection.getColumnDimension(), cols = data.getColumnDimension();
+		double error = 0, v;
+		double[] row;
+		for (int p = 0; p < data.getRowDimension(); p++)
+			if (selected == null || selected[p]) {
+				row = aData[p];
+				for (int j = 0; j < k; j++) {
+					v = -aTarget[p][j];
+					for (int i = 0; i < cols; i++)
+						v += row[i] * w[i][j];
+					error += v * v;
+				}
+			}
+		return error;
+	}
+
+	/** The squared Frobenius norm of the selected rows of the matrix */
+	private static double squaredNorm(Matrix mx, boolean[] selected) {
+		double[][] a = mx.getArray();
+		double n = 0;
+		for (int p = 0; p < mx.getRowDimension(); p++)
+			if (selected == null || selected[p])
+				for (int j = 0; j < mx.getColumnDimension(); j++)
+					n += a[p][j] * a[p][j];
+		return n;
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null)
+			executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "Multi-start pursuit");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		return executor;
+	}
+
+	/** The number of starts asked for */
+	public int getNumStarts() {
+		return numStarts;
+	}
+
+	/**
+	 * The error from each start that was pursued
+	 * (norm_frobenius(error)/norm_frobenius(target))
+	 */
+	public double[] getErrors() {
+		return errors.clone();
+	}
+
+	/** The start that had the lowest error: 0 is the current projection, 1 is PCA */
+	public int getBestStart() {
+		return bestStart;
+	}
+
+	/** The projection with the lowest error */
+	public LinearProjection getBest() {
+		return best;
+	}
+
+	public double getMinError() {
+		return errors[bestStart];
+	}
+
+	public double getMaxError() {
+		double max = errors[0];
+		for (double e : errors)
+			max = Math.max(max, e);
+		return max;
+	}
+
+	public double getMeanError() {
+		double sum = 0;
+		for (double e : errors)
+			sum += e;
+		return sum / errors.length;
+	}
+
+	/** The standard deviation of the errors */
+	public double getErrorDeviation() {
+		double mean = getMeanError(), sum = 0;
+		for (double e : errors)
+			sum += (e - mean) * (e - mean);
+		return Math.sqrt(sum / errors.length);
+	}
+
+	public String toString() {
+		if (errors == null)
+			return "Multi-start pursuit: " + numStarts + " starts";
+		return "Multi-start pursuit: " + errors.length + " of " + numStarts + " starts, best " + bestStart + ", error min=" + getMinError()
+				+ " max=" + getMaxError() + " mean=" + getMeanError() + " sd=" + getErrorDeviation();
+	}
+}
@@ -0,0 +1,255 @@
+package tpp;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
+
+import weka.core.matrix.Matrix;
+
+/**
+ * Repeatedly applies a perturbation to a model, in a background thread. The
+ * steps are paced to a target rate, and the pursuit stops by itself once the
+ * view stops changing. The model's projection events are held back during each
+ * step and then delivered together on the event dispatch thread, with at most
+ * one delivery waiting at any time, so the display is not swamped with
+ * repaints. (Other events, eg changes to the data, and changes made by other
+ * threads, are not held back.)
+ */
+public class PerturbationScheduler implements Runnable {
+
+	/** The default number of steps per second */
+	public static final double DEFAULT_STEP_RATE = 30;
+
+	/**
+	 * The default relative change in the view, per step, below which the view
+	 * is considered to have stopped changing
+	 */
+	public static final double DEFAULT_CONVERGENCE_THRESHOLD = 1E-4;
+
+	/**
+	 * The number of consecutive steps for which the view must stop changing
+	 * before the pursuit stops
+	 */
+	private static final int CONVERGED_STEPS = 5;
+
+	private final TPPModel model;
+
+	private final PerturbationPursuit perturbation;
+
+	private double stepRate = DEFAULT_STEP_RATE;
+
+	private double convergenceThreshold = DEFAULT_CONVERGENCE_THRESHOLD;
+
+	private volatile boolean cancelled;
+
+	private Thread thread;
+
+	/** The events that are waiting to be delivered to the listeners */
+	private final BitSet pendingEvents = new BitSet();
+
+	/** Whether a delivery of the pending events has been scheduled */
+	private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+
+	/** The view at the start of the step */
+	private double[][] previousView;
+
+	// timing statistics, in nanoseconds
+	private int steps;
+	private long totalStepTime, minStepTime = Long.MAX_VALUE, maxStepTime;
+	private double lastViewChange;
+
+	public PerturbationScheduler(TPPModel model, PerturbationPursuit perturbation) {
+		this.model = model;
+		this.perturbation = perturbation;
+	}
+
+	/** Set the target number of steps per second */
+	public void setStepRate(double stepsPerSecond) {
+		this.stepRate = stepsPerSecond;
+	}
+
+	public double getStepRate() {
+		return stepRate;
+	}
+
+	/**
+	 * Set the relative change in the view, per step, below which the pursuit
+	 * stops. If zero then the pursuit continues until it is stopped.
+	 */
+	public void setConvergenceThreshold(double threshold) {
+		this.convergenceThreshold = threshold;
+	}
+
+	public double getConvergenceThreshold() {
+		return convergenceThreshold;
+	}
+
+	/** Start the pursuit in a new background thread */
+	public synchronized void start() {
+		if (isRunning())
+			return;
+		cancelled = false;
+		thread = new Thread(this, "Perturbation pursuit");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stop the pursuit. The current step is allowed to finish, and this waits
+	 * until it has, so that a new pursuit of the same model can be started
+	 * straight away.
+	 */
+	public void stop() {
+		Thread old;
+		synchronized (this) {
+			cancelled = true;
+			old = thread;
+		}
+		if (old == null || old == Thread.currentThread())
+			return;
+		old.interrupt();
+		try {
+			old.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Is the pursuit running? */
+	public synchronized boolean isRunning() {
+		return thread != null && thread.isAlive();
+	}
+
+	public void run() {
+		long period = (stepRate > 0 ? (long) (1E9 / stepRate) : 0);
+		int convergedSteps = 0;
+		long start, elapsed;
+		while (!cancelled) {
+			start = System.nanoTime();
+			rememberView();
+			model.suspendEvents(TPPModelEvent.PROJECTION_CHANGED);
+			try {
+				perturbation.pursuePerturbation();
+			} catch (TPPException e) {
+				e.printStackTrace();
+				cancelled = true;
+			} finally {
+				deliver(model.resumeEvents());
+			}
+			elapsed = System.nanoTime() - start;
+			double change = viewChange();
+			recordStep(elapsed, change);
+
+			// stop if the view has stopped changing
+			if (change < convergenceThreshold)
+				convergedSteps++;
+			else
+				convergedSteps = 0;
+			if (convergedSteps >= CONVERGED_STEPS)
+				break;
+
+			// and wait until the next step is due
+			if (period > elapsed)
+				try {
+					Thread.sleep((period - elapsed) / 1000000, (int) ((period - elapsed) % 1000000));
+				} catch (InterruptedException e) {
+					break;
+				}
+		}
+	}
+
+	/** Copy the current view, so we can see how much it changes */
+	private void rememberView() {
+		Matrix view = model.getView();
+		double[][] aView = view.getArray();
+		int n = view.getRowDimension(), dims = view.getColumnDimension();
+		if (previousView == null || previousView.length != n || (n > 0 && previousView[0].length != dims))
+			previousView = new double[n][dims];
+		for (int p = 0; p < n; p++)
+			System.arraycopy(aView[p], 0, previousView[p], 0, dims);
+	}
+
+	/**
+	 * The change in the view since it was remembered, relative to its size:
+	 * ie |V-V0|/|V0|
+	 */
+	private double viewChange() {
+		Matrix view = model.getView();
+		double[][] aView = view.getArray();
+		int n = view.getRowDimension(), dims = view.getColumnDimension();
+		if (n != previousView.length || (n > 0 && previousView[0].length != dims))
+			return Double.MAX_VALUE;
+		double change = 0, size = 0, d;
+		for (int p = 0; p < n; p++)
+			for (int c = 0; c < dims; c++) {
+				d = aView[p][c] - previousView[p][c];
+				change += d * d;
+				size += previousView[p][c] * previousView[p][c];
+			}
+		return (size > 0 ? Math.sqrt(change / size) : Math.sqrt(change));
+	}
+
+	/**
+	 * Add the events to those waiting to be delivered, and make sure that a
+	 * delivery is scheduled on the event dispatch thread
+	 */
+	private void deliver(BitSet events) {
+		if (events.isEmpty())
+			return;
+		synchronized (pendingEvents) {
+			pendingEvents.or(events);
+		}
+		if (deliveryScheduled.compareAndSet(false, true))
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					deliveryScheduled.set(false);
+					BitSet events;
+					synchronized (pendingEvents) {
+						events = (BitSet) pendingEvents.clone();
+						pendingEvents.clear();
+					}
+					for (int type = events.nextSetBit(0); type >= 0; type = events.nextSetBit(type + 1))
+						model.notifyListeners(type);
+				}
+			});
+	}
+
+	private synchronized void recordStep(long time, double change) {
+		steps++;
+		totalStepTime += time;
+		minStepTime = Math.min(minStepTime, time);
+		maxStepTime = Math.max(maxStepTime, time);
+		lastViewChange = change;
+	}
+
+	/** The number of steps taken */
+	public synchronized int getSteps() {
+		return steps;
+	}
+
+	/** The mean time taken by each step, in milliseconds */
+	public synchronized double getMeanStepTime() {
+		return (steps > 0 ? totalStepTime / 1E6 / steps : 0);
+	}
+
+	/** The shortest time taken by a step, in milliseconds */
+	public synchronized double getMinStepTime() {
+		return (steps > 0 ? minStepTime / 1E6 : 0);
+	}
+
+	/** The longest time taken by a step, in milliseconds */
+	public synchronized double getMaxStepTime() {
+		return maxStepTime / 1E6;
+	}
+
+	/** The relative change in the view during the last step */
+	public synchronized double getLastViewChange() {
+		return lastViewChange;
+	}
+
+	public synchronized String toString() {
+		return perturbation + ": " + steps + " steps, " + getMeanStepTime() + "ms mean (" + getMinStepTime() + "-"
+				+ getMaxStepTime() + "ms), last change " + lastViewChange;
+	}
+}
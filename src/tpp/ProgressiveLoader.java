@@ -0,0 +1,162 @@
+package tpp;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import weka.core.Instances;
+import weka.core.matrix.Matrix;
+
+/**
+ * Loads the rest of a binary data file into a model, in batches, in a
+ * background thread, so that a large file can be explored while it is still
+ * being read. The model should already hold the first rows of the file. Each
+ * batch is read in the background and then appended to the model on the event
+ * dispatch thread (which the loader waits for, so it never gets more than one
+ * batch ahead of the display). The principal components are refined as each
+ * batch arrives (see TPPModel.refinePCA), so the view converges on the PCA of
+ * the whole file, until the user changes the projection: from then on the
+ * new points are just projected with the user's projection.
+ */
+public class ProgressiveLoader implements Runnable {
+
+	/** The default number of rows read in each batch */
+	public static final int DEFAULT_BATCH_SIZE = 50000;
+
+	private final TPPModel model;
+
+	private final BinaryDataFormat.Reader reader;
+
+	private final int batchSize;
+
+	/** The number of rows of the file that the model holds */
+	private volatile int numLoaded;
+
+	private volatile boolean cancelled;
+
+	/**
+	 * A copy of the projection the last time the loader set it, or null once
+	 * the user has changed the projection
+	 */
+	private Matrix refined;
+
+	private Thread thread;
+
+	/** Told (on the event dispatch thread) when each batch has been appended */
+	private ChangeListener listener;
+
+	/**
+	 * @param numLoaded
+	 *            the number of rows at the start of the file that the model
+	 *            already holds
+	 */
+	public ProgressiveLoader(TPPModel model, BinaryDataFormat.Reader reader, int numLoaded, int batchSize) {
+		this.model = model;
+		this.reader = reader;
+		this.numLoaded = numLoaded;
+		this.batchSize = Math.max(1, batchSize);
+		this.refined = model.getProjection().copy();
+	}
+
+	/** Set the listener that is told when each batch has been appended */
+	public void setListener(ChangeListener listener) {
+		this.listener = listener;
+	}
+
+	/** Start loading in a new background thread */
+	public synchronized void start() {
+		if (isRunning())
+			return;
+		cancelled = false;
+		thread = new Thread(this, "Progressive loader");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stop loading. The rows already appended stay in the model, and the file
+	 * is closed.
+	 */
+	public synchronized void stop() {
+		cancelled = true;
+		if (thread != null)
+			thread.interrupt();
+	}
+
+	/** Is the loader running? */
+	public synchronized boolean isRunning() {
+		return thread != null && thread.isAlive();
+	}
+
+	public void run() {
+		try {
+			while (!cancelled && numLoaded < reader.getNumRows()) {
+				final Instances batch = reader.read(numLoaded, numLoaded + batchSize);
+				SwingUtilities.invokeAndWait(new Runnable() {
+					public void run() {
+						if (cancelled)
+							return;
+						model.appendInstances(batch);
+						numLoaded += batch.numInstances();
+						// refine the principal components after each batch if
+						// that's cheap enough, otherwise just once at the end,
+						// but leave the projection alone once the user has
+						// changed it
+						if (isRefining()) {
+							if (model.getNumDataDimensions() <= TPPModel.MAX_REFINED_PCA_DIMENSIONS)
+								model.refinePCA();
+							else if (isFinished())
+								model.PCA();
+							refined = model.getProjection().copy();
+						}
+						if (listener != null)
+							listener.stateChanged(new ChangeEvent(ProgressiveLoader.this));
+					}
+				});
+			}
+		} catch (InterruptedException e) {
+			// stopped
+		} catch (InvocationTargetException e) {
+			e.getCause().printStackTrace();
+		} finally {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Is the loader still refining the projection, ie has the user not
+	 * changed it since the loader last set it?
+	 */
+	public boolean isRefining() {
+		if (refined != null && !Arrays.deepEquals(refined.getArray(), model.getProjection().getArray()))
+			refined = null;
+		return refined != null;
+	}
+
+	/** The number of rows of the file that the model holds */
+	public int getNumLoaded() {
+		return numLoaded;
+	}
+
+	/** The number of rows in the file */
+	public int getNumRows() {
+		return reader.getNumRows();
+	}
+
+	/** Has the whole file been loaded? */
+	public boolean isFinished() {
+		return numLoaded >= reader.getNumRows();
+	}
+
+	public String toString() {
+		return "Loaded " + numLoaded + " of " + reader.getNumRows() + " rows";
+	}
+}
@@ -0,0 +1,398 @@
+package tpp;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import weka.core.matrix.Matrix;
+
+/**
+ * The buffers used when a LinearProjection pursues a target: ie the gradient
+ * and error for each chunk of points, their total, and the previous weights.
+ * These are allocated once and reused for every epoch and every pursuit, so
+ * that training does not create any garbage. <br>
+ * The output and residual for each point are only needed while its
+ * contribution to the gradient is being found, so they are never stored.
+ */
+class PursuitWorkspace {
+
+	/** The dimensions of the projection that this workspace is for */
+	final int inputs, outputs;
+
+	/** The number of points in each chunk */
+	private final int chunkSize;
+
+	/**
+	 * The weights of the projection at the end of the previous epoch, or null
+	 * if there has been no pursuit yet
+	 */
+	double[][] previousWeights;
+
+	/**
+	 * The sum of the results for all chunks: the gradient (for each unit, for
+	 * each input) followed by the squared error
+	 */
+	private final double[] total;
+
+	/** The points in the current mini-batch, for stochastic pursuit */
+	private int[] batch = new int[0];
+
+	/** The number of points in the current mini-batch */
+	private int batchCount;
+
+	/**
+	 * The indices of the selected points, for sampling mini-batches, or null
+	 * if all the points are selected
+	 */
+	private int[] selectedPoints;
+
+	/** The number of selected points */
+	private int numSelected;
+
+	/** The buffer used to list the selected points */
+	private int[] selectedBuffer = new int[0];
+
+	/**
+	 * The number of stochastic steps taken since the schedule was last
+	 * restarted
+	 */
+	long stochasticSteps;
+
+	/**
+	 * The factor by which the step size of the schedule is reduced, because
+	 * steps have increased the error
+	 */
+	double stochasticRateScale = 1;
+
+	private final Random random = new Random();
+
+	/** The chunks of points, which are reused between epochs */
+	private Chunk[] chunks = new Chunk[0];
+
+	/** Runs all the chunks when training in parallel */
+	private final RecursiveAction allChunks = new RecursiveAction() {
+		protected void compute() {
+			ForkJoinTask.invokeAll(active);
+		}
+	};
+
+	/** The chunks in use for the current pass */
+	private Chunk[] active;
+
+	/** The gradient, errors and size of the current mini-batch */
+	private double[] batchResult;
+
+	PursuitWorkspace(int inputs, int outputs, int chunkSize) {
+		this.inputs = inputs;
+		this.outputs = outputs;
+		this.chunkSize = chunkSize;
+		total = new double[inputs * outputs + 1];
+	}
+
+	/** Is this a workspace for a projection of the given dimensions? */
+	boolean isFor(int inputs, int outputs) {
+		return this.inputs == inputs && this.outputs == outputs;
+	}
+
+	/**
+	 * Go through the selected points in chunks, and sum the results for each
+	 * chunk, in order, so the total does not depend on whether the chunks were
+	 * run in parallel. If withGradient, the result is the gradient (for each
+	 * unit, for each input) followed by the squared error. Otherwise only the
+	 * last element, the squared error, is valid. The returned array is reused
+	 * by the next call.
+	 *
+	 * @param pool
+	 *            the pool to run the chunks in, or null to run them in this
+	 *            thread
+	 */
+	double[] accumulate(double[][] weights, Matrix data, Matrix target, boolean[] selected, boolean withGradient,
+			ForkJoinPool pool) {
+		int rows = data.getRowDimension();
+		int numChunks = (rows + chunkSize - 1) / chunkSize;
+		if (chunks.length != numChunks) {
+			chunks = new Chunk[numChunks];
+			for (int c = 0; c < numChunks; c++)
+				chunks[c] = new Chunk(inputs, outputs);
+		}
+		for (int c = 0; c < numChunks; c++)
+			chunks[c].set(weights, data, target, selected, c * chunkSize, Math.min(rows, (c + 1) * chunkSize),
+					withGradient);
+
+		if (pool == null || numChunks < 2)
+			for (Chunk chunk : chunks)
+				chunk.compute();
+		else {
+			active = chunks;
+			allChunks.reinitialize();
+			pool.invoke(allChunks);
+		}
+
+		int length = (withGradient ? total.length : 1);
+		int offset = total.length - length;
+		int i;
+		for (i = offset; i < total.length; i++)
+			total[i] = 0;
+		for (Chunk chunk : chunks)
+			for (i = offset; i < total.length; i++)
+				total[i] += chunk.result[i];
+		return total;
+	}
+
+	/**
+	 * List the selected points (or all the points, if selected is null), so
+	 * that mini-batches can be sampled from them by accumulateBatch. Returns
+	 * the number of selected points.
+	 */
+	int listSelected(boolean[] selected, int rows) {
+		if (selected == null) {
+			selectedPoints = null;
+			numSelected = rows;
+		} else {
+			if (selectedBuffer.length < rows)
+				selectedBuffer = new int[rows];
+			selectedPoints = selectedBuffer;
+			numSelected = 0;
+			for (int p = 0; p < rows; p++)
+				if (selected[p])
+					selectedPoints[numSelected++] = p;
+		}
+		return numSelected;
+	}
+
+	/**
+	 * Find the gradient and squared error of the projection over a mini-batch
+	 * of the points listed by listSelected, sampled with one point from each
+	 * of batchSize equal strata of them (so the batch covers the whole
+	 * selection however sparse it is). The result is the gradient (for each
+	 * unit, for each input), the squared error, the squared norm of the
+	 * target, the squared norm of the inputs and then the number of points in
+	 * the batch. The returned array is reused by the next call.
+	 */
+	double[] accumulateBatch(double[][] weights, Matrix data, Matrix target, int batchSize) {
+		if (batchResult == null)
+			batchResult = new double[inputs * outputs + 4];
+
+		// sample the batch
+		batchCount = Math.min(batchSize, numSelected);
+		if (batch.length < batchCount)
+			batch = new int[batchCount];
+		int from, to, p;
+		for (int s = 0; s < batchCount; s++) {
+			from = (int) ((long) s * numSelected / batchCount);
+			to = (int) ((long) (s + 1) * numSelected / batchCount);
+			p = from + random.nextInt(to - from);
+			batch[s] = (selectedPoints == null ? p : selectedPoints[p]);
+		}
+
+		// and find the gradient over it
+		double[][] aData = data.getArray(), aTarget = target.getArray();
+		double[] result = batchResult;
+		for (int r = 0; r < result.length; r++)
+			result[r] = 0;
+		double[] row;
+		double error, output, squaredError = 0, squaredTarget = 0, squaredInput = 0;
+		int i, j, b, offset;
+		for (b = 0; b < batchCount; b++) {
+			p = batch[b];
+			row = aData[p];
+			for (i = 0; i < inputs; i++)
+				squaredInput += row[i] * row[i];
+			for (j = 0; j < outputs; j++) {
+				output = 0;
+				for (i = 0; i < inputs; i++)
+					output += row[i] * weights[i][j];
+				error = aTarget[p][j] - output;
+				squaredError += error * error;
+				squaredTarget += aTarget[p][j] * aTarget[p][j];
+				offset = j * inputs;
+				for (i = 0; i < inputs; i++)
+					result[offset + i] += error * row[i];
+			}
+		}
+		offset = inputs * outputs;
+		result[offset] = squaredError;
+		result[offset + 1] = squaredTarget;
+		result[offset + 2] = squaredInput;
+		result[offset + 3] = batchCount;
+		return result;
+	}
+
+	/**
+	 * The squared error of the projection over the mini-batch that was last
+	 * sampled by accumulateBatch
+	 */
+	double batchSquaredError(double[][] weights, Matrix data, Matrix target) {
+		double[][] aData = data.getArray(), aTarget = target.getArray();
+		double[] row;
+		double error, output, squaredError = 0;
+		int i, j, p;
+		for (int b = 0; b < batchCount; b++) {
+			p = batch[b];
+			row = aData[p];
+			for (j = 0; j < outputs; j++) {
+				output = 0;
+				for (i = 0; i < inputs; i++)
+					output += row[i] * weights[i][j];
+				error = aTarget[p][j] - output;
+				squaredError += error * error;
+			}
+		}
+		return squaredError;
+	}
+
+	/**
+	 * Find the gradient and squared error of the projection over a chunk of
+	 * consecutive points
+	 */
+	private static class Chunk extends RecursiveAction {
+
+		private static final long serialVersionUID = -4268286355627462581L;
+
+		private final int inputs, outputs;
+		private final double[] result;
+
+		private double[][] weights;
+		private Matrix data, target;
+		private boolean[] selected;
+		private int start, end;
+		private boolean withGradient;
+
+		Chunk(int inputs, int outputs) {
+			this.inputs = inputs;
+			this.outputs = outputs;
+			result = new double[inputs * outputs + 1];
+		}
+
+		void set(double[][] weights, Matrix data, Matrix target, boolean[] selected, int start, int end,
+				boolean withGradient) {
+			this.weights = weights;
+			this.data = data;
+			this.target = target;
+			this.selected = selected;
+			this.start = start;
+			this.end = end;
+			this.withGradient = withGradient;
+			reinitialize();
+		}
+
+		protected void compute() {
+			// use native arrays rather than Matrix classes, to make access
+			// faster
+			double[][] aData = data.getArray(), aTarget = target.getArray(), weights = this.weights;
+			double[] result = this.result;
+			int length = (withGradient ? result.length : 1);
+			for (int r = result.length - length; r < result.length; r++)
+				result[r] = 0;
+			double[] row;
+			double error, output, squaredError = 0;
+			int i, j, p, offset;
+			for (p = start; p < end; p++) {
+				if (selected == null || selected[p]) {
+					row = aData[p];
+					for (j = 0; j < outputs; j++) {
+
+						// first find the error for this point
+						output = 0;
+						for (i = 0; i < inputs; i++)
+							output += row[i] * weights[i][j];
+						error = aTarget[p][j] - output;
+						squaredError += error * error;
+
+						// then use this to calculate a weight difference which
+						// is added to the cumulative total
+						if (withGradient) {
+							offset = j * inputs;
+							for (i = 0; i < inputs; i++)
+								result[offset + i] += error * row[i];
+						}
+					}
+				}
+			}
+			result[result.length - 1] = squaredError;
+		}
+	}
+
+	/**
+	 * Benchmark the memory allocated and time taken by each kind of pursuit
+	 * that uses the workspace (a single epoch, a full pursuit to convergence
+	 * from a random projection, and a mini-batch pursuit) on random data, with
+	 * optional arguments: rows, columns, runs. The bytes allocated are those
+	 * of all threads. (Run with a large young generation, eg -Xmn1g, so that
+	 * the runs do not trigger a garbage collection.)
+	 */
+	public static void main(String[] args) {
+		int rows = (args.length > 0 ? Integer.parseInt(args[0]) : 200000);
+		int cols = (args.length > 1 ? Integer.parseInt(args[1]) : 20);
+		int runs = (args.length > 2 ? Integer.parseInt(args[2]) : 20);
+		Random r = new Random(0);
+		final Matrix data = new Matrix(rows, cols);
+		final Matrix target = new Matrix(rows, 2);
+		for (int p = 0; p < rows; p++) {
+			for (int c = 0; c < cols; c++)
+				data.set(p, c, r.nextGaussian());
+			target.set(p, 0, r.nextGaussian());
+			target.set(p, 1, r.nextGaussian());
+		}
+		final LinearProjection projection = new LinearProjection(cols, 2);
+		projection.randomize();
+		System.out.println(rows + " x " + cols + ", " + LinearProjection.getTrainingThreads() + " threads");
+		benchmark("Single epoch", runs, new Runnable() {
+			public void run() {
+				projection.pursueTargetSingleShot(data, target, null);
+			}
+		});
+		benchmark("Full pursuit", runs, new Runnable() {
+			public void run() {
+				projection.randomize();
+				projection.pursueTarget(data, target, null);
+			}
+		});
+		benchmark("Mini-batch pursuit", runs, new Runnable() {
+			public void run() {
+				projection.pursueTargetStochastic(data, target, null, MiniBatchSchedule.DEFAULT);
+			}
+		});
+	}
+
+	/**
+	 * Run the task (once to warm up, so that the workspace and pool are
+	 * created, then the given number of times) and report the bytes allocated
+	 * and time taken per run. The bytes allocated are estimated from the
+	 * growth of the heap, so are only exact if there was no garbage
+	 * collection during the runs.
+	 */
+	private static void benchmark(String name, int runs, Runnable task) {
+		task.run();
+		System.gc();
+		long collections = collections();
+		long before = usedMemory();
+		long time = System.nanoTime();
+		for (int run = 0; run < runs; run++)
+			task.run();
+		time = System.nanoTime() - time;
+		long allocated = usedMemory() - before;
+		collections = collections() - collections;
+		System.out.println(name + ": " + (collections > 0 ? "at least " : "") + Math.max(0, allocated / runs)
+				+ " bytes and " + (time / 1E6 / runs) + "ms per run" + (collections > 0 ? " (" + collections
+				+ " garbage collections)" : ""));
+	}
+
+	/** The number of bytes of the heap in use */
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/** The total number of garbage collections so far */
+	private static long collections() {
+		long total = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+			if (bean.getCollectionCount() > 0)
+				total += bean.getCollectionCount();
+		return total;
+	}
+}
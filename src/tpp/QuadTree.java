@@ -0,0 +1,326 @@
+package tpp;
+
+/**
+ * A quadtree over a set of points in a 2D view, for approximating sums over
+ * all points by the Barnes-Hut method: ie when a cell of the tree is far
+ * enough away from a point, all the points in the cell are treated as a single
+ * point at their centre of mass. A cell is far enough away when its width
+ * divided by its distance is less than the opening angle theta, so a theta of
+ * zero gives the exact sum. <br>
+ * Each point may also carry a charge (eg the value of some attribute), which
+ * is totalled over each cell. <br>
+ * The tree is stored in flat arrays rather than as objects, and each leaf
+ * holds a range of the (reordered) point indices.
+ */
+public class QuadTree {
+
+	/** The maximum number of points in a leaf */
+	private static final int LEAF_SIZE = 8;
+
+	/**
+	 * The maximum depth of the tree (deeper cells would only hold coincident
+	 * points)
+	 */
+	private static final int MAX_DEPTH = 40;
+
+	private static final int X = 0;
+
+	private static final int Y = 1;
+
+	/** The coordinates of the points */
+	private final double[] x, y;
+
+	/** The charge on each point, or null if the points are uncharged */
+	private final double[] charge;
+
+	/** The point indices, ordered so that each cell holds a contiguous range */
+	private final int[] index;
+
+	/** The number of cells in the tree */
+	private int numCells;
+
+	/** The range of indices of the points in each cell */
+	private int[] start, end;
+
+	/** The first child of each cell, or -1 if it is a leaf */
+	private int[] firstChild;
+
+	/** The number of children of each cell */
+	private int[] numChildren;
+
+	/** The width of each cell */
+	private double[] width;
+
+	/** The centre of mass of each cell */
+	private double[] massX, massY;
+
+	/** The total charge in each cell, or null if the points are uncharged */
+	private double[] cellCharge;
+
+	/** A stack of cells, reused by every traversal */
+	private int[] stack;
+
+	/** Build a quadtree over the first two columns of the points. */
+	public QuadTree(double[][] points) {
+		this(points, null);
+	}
+
+	/**
+	 * Build a quadtree over the first two columns of the points, each of
+	 * which carries the given charge.
+	 */
+	public QuadTree(double[][] points, double[] charges) {
+		this(points, points.length, charges);
+	}
+
+	/**
+	 * Build a quadtree over the first two columns of the first n points (eg
+	 * the rows of a view that is stored with spare capacity), each of which
+	 * carries the given charge.
+	 */
+	public QuadTree(double[][] points, int n, double[] charges) {
+		charge = charges;
+		x = new double[n];
+		y = new double[n];
+		index = new int[n];
+		for (int p = 0; p < n; p++) {
+			x[p] = points[p][X];
+			y[p] = points[p][Y];
+			index[p] = p;
+		}
+		int capacity = Math.max(16, 2 * n / LEAF_SIZE);
+		start = new int[capacity];
+		end = new int[capacity];
+		firstChild = new int[capacity];
+		numChildren = new int[capacity];
+		width = new double[capacity];
+		massX = new double[capacity];
+		massY = new double[capacity];
+		if (charge != null)
+			cellCharge = new double[capacity];
+
+		// find the bounding square of all the points
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		for (int p = 0; p < n; p++) {
+			minX = Math.min(minX, x[p]);
+			maxX = Math.max(maxX, x[p]);
+			minY = Math.min(minY, y[p]);
+			maxY = Math.max(maxY, y[p]);
+		}
+		double size = Math.max(maxX - minX, maxY - minY);
+		if (n > 0)
+			build(newCell(), 0, n, minX, minY, size, 0);
+		stack = new int[4 * MAX_DEPTH + 4];
+	}
+
+	/** The number of points in the tree */
+	public int size() {
+		return index.length;
+	}
+
+	/**
+	 * Fill in a cell for the points in the given range of the index, within
+	 * the square with the given corner and width, and recursively create its
+	 * children. The children of a cell are stored consecutively.
+	 */
+	private void build(int cell, int from, int to, double cornerX, double cornerY, double size, int depth) {
+		start[cell] = from;
+		end[cell] = to;
+		width[cell] = size;
+		firstChild[cell] = -1;
+		numChildren[cell] = 0;
+		double sumX = 0, sumY = 0;
+		for (int i = from; i < to; i++) {
+			sumX += x[index[i]];
+			sumY += y[index[i]];
+		}
+		massX[cell] = sumX / (to - from);
+		massY[cell] = sumY / (to - from);
+		if (charge != null) {
+			double sumCharge = 0;
+			for (int i = from; i < to; i++)
+				sumCharge += charge[index[i]];
+			cellCharge[cell] = sumCharge;
+		}
+		if (to - from <= LEAF_SIZE || depth >= MAX_DEPTH || size <= 0)
+			return;
+
+		// partition the points into quadrants: first by x then by y
+		double half = size / 2, midX = cornerX + half, midY = cornerY + half;
+		int splitX = partition(from, to, midX, true);
+		int splitLeft = partition(from, splitX, midY, false);
+		int splitRight = partition(splitX, to, midY, false);
+		int[] bounds = new int[] { from, splitLeft, splitX, splitRight, to };
+		double[] cornersX = new double[] { cornerX, cornerX, midX, midX };
+		double[] cornersY = new double[] { cornerY, midY, cornerY, midY };
+
+		// allocate the (non-empty) children, then build them
+		int first = numCells, child;
+		for (int q = 0; q < 4; q++)
+			if (bounds[q + 1] > bounds[q])
+				newCell();
+		firstChild[cell] = first;
+		numChildren[cell] = numCells - first;
+		child = first;
+		for (int q = 0; q < 4; q++)
+			if (bounds[q + 1] > bounds[q])
+				build(child++, bounds[q], bounds[q + 1], cornersX[q], cornersY[q], half, depth + 1);
+	}
+
+	/**
+	 * Reorder the given range of the index so that the points with coordinate
+	 * less than the split come first. Returns the index of the first point
+	 * that is not less than the split.
+	 */
+	private int partition(int from, int to, double split, boolean byX) {
+		double[] coords = (byX ? x : y);
+		int i = from, j = to - 1, tmp;
+		while (i <= j) {
+			if (coords[index[i]] < split)
+				i++;
+			else {
+				tmp = index[i];
+				index[i] = index[j];
+				index[j] = tmp;
+				j--;
+			}
+		}
+		return i;
+	}
+
+	/** Allocate a new cell, growing the arrays if necessary */
+	private int newCell() {
+		if (numCells == start.length) {
+			int capacity = 2 * start.length;
+			start = grow(start, capacity);
+			end = grow(end, capacity);
+			firstChild = grow(firstChild, capacity);
+			numChildren = grow(numChildren, capacity);
+			width = grow(width, capacity);
+			massX = grow(massX, capacity);
+			massY = grow(massY, capacity);
+			if (cellCharge != null)
+				cellCharge = grow(cellCharge, capacity);
+		}
+		return numCells++;
+	}
+
+	private static int[] grow(int[] a, int capacity) {
+		int[] b = new int[capacity];
+		System.arraycopy(a, 0, b, 0, a.length);
+		return b;
+	}
+
+	private static double[] grow(double[] a, int capacity) {
+		double[] b = new double[capacity];
+		System.arraycopy(a, 0, b, 0, a.length);
+		return b;
+	}
+
+	/**
+	 * Find the sums over all points j of the distance |p_j-p| and of
+	 * (p_j-p)|p_j-p|, from the given position p. The results are put in
+	 * sums[0], and sums[1] and sums[2] (the x and y components).
+	 *
+	 * @param theta
+	 *            the opening angle
+	 */
+	public void distanceSums(double px, double py, double theta, double[] sums) {
+		double sumD = 0, sumX = 0, sumY = 0;
+		double dx, dy, d, mass;
+		int top = 0, cell, i, j;
+		if (numCells > 0)
+			stack[top++] = 0;
+		while (top > 0) {
+			cell = stack[--top];
+			dx = massX[cell] - px;
+			dy = massY[cell] - py;
+			d = Math.sqrt(dx * dx + dy * dy);
+			if (firstChild[cell] >= 0 && width[cell] >= theta * d) {
+				// too close, so open the cell
+				for (i = 0; i < numChildren[cell]; i++)
+					stack[top++] = firstChild[cell] + i;
+			} else if (firstChild[cell] < 0 && width[cell] >= theta * d) {
+				// a nearby leaf, so find the exact sum
+				for (i = start[cell]; i < end[cell]; i++) {
+					j = index[i];
+					dx = x[j] - px;
+					dy = y[j] - py;
+					d = Math.sqrt(dx * dx + dy * dy);
+					sumD += d;
+					sumX += dx * d;
+					sumY += dy * d;
+				}
+			} else {
+				// far enough away to treat as a single point
+				mass = end[cell] - start[cell];
+				sumD += mass * d;
+				sumX += mass * dx * d;
+				sumY += mass * dy * d;
+			}
+		}
+		sums[0] = sumD;
+		sums[1] = sumX;
+		sums[2] = sumY;
+	}
+
+	/**
+	 * Find the sums over all points j of the unit vectors (p-p_j)/|p-p_j|
+	 * pointing from each point to the given position p, and of these unit
+	 * vectors multiplied by the charge on each point. The results are put in
+	 * sums[0] and sums[1] (the x and y components of the first sum), and
+	 * sums[2] and sums[3]. Points at p itself are ignored.
+	 *
+	 * @param theta
+	 *            the opening angle
+	 */
+	public void unitVectorSums(double px, double py, double theta, double[] sums) {
+		double sumX = 0, sumY = 0, chargeX = 0, chargeY = 0;
+		double dx, dy, d, mass, q;
+		int top = 0, cell, i, j;
+		if (numCells > 0)
+			stack[top++] = 0;
+		while (top > 0) {
+			cell = stack[--top];
+			dx = px - massX[cell];
+			dy = py - massY[cell];
+			d = Math.sqrt(dx * dx + dy * dy);
+			if (firstChild[cell] >= 0 && width[cell] >= theta * d) {
+				// too close, so open the cell
+				for (i = 0; i < numChildren[cell]; i++)
+					stack[top++] = firstChild[cell] + i;
+			} else if ((firstChild[cell] < 0 && width[cell] >= theta * d) || d == 0) {
+				// a nearby leaf, so find the exact sum
+				for (i = start[cell]; i < end[cell]; i++) {
+					j = index[i];
+					dx = px - x[j];
+					dy = py - y[j];
+					d = Math.sqrt(dx * dx + dy * dy);
+					if (d > 0) {
+						dx /= d;
+						dy /= d;
+						sumX += dx;
+						sumY += dy;
+						q = (charge == null ? 0 : charge[j]);
+						chargeX += q * dx;
+						chargeY += q * dy;
+					}
+				}
+			} else {
+				// far enough away to treat as a single point
+				mass = end[cell] - start[cell];
+				q = (charge == null ? 0 : cellCharge[cell]);
+				dx /= d;
+				dy /= d;
+				sumX += mass * dx;
+				sumY += mass * dy;
+				chargeX += q * dx;
+				chargeY += q * dy;
+			}
+		}
+		sums[0] = sumX;
+		sums[1] = sumY;
+		sums[2] = chargeX;
+		sums[3] = chargeY;
+	}
+}
@@ -1,222 +1,266 @@
-package tpp;
-
-import weka.core.Attribute;
-import weka.core.matrix.Matrix;
-
-/**
- * A TargetPerturbation that will perturb the target so that the distribution of
- * points better reflects the value of the separation attribute defined on the
- * TPPModel. If the separation attribute is nominal then this produces a
- * distribution of points that maximises the separation between classes
- */
-public class SeparatePoints implements PerturbationPursuit {
-
-	private static final int X = 0;
-
-	private static final int Y = 1;
-
-	/** The attribute that is used for classification */
-	private Attribute separationAttribute;
-
-	protected TPPModel model;
-
-	public SeparatePoints(TPPModel model) {
-		this.model = model;
-	};
-
-	/**
-	 * Find a view that better separates the points
-	 */
-	public void pursuePerturbation() throws TPPException {
-		separationAttribute = model.getSeparationAttribute();
-		if (separationAttribute == null)
-			unsupervisedAttractionRepulsion();
-			else {
-				if (separationAttribute.isNominal())
-					separateByClassification();
-				else {
-					if (separationAttribute.isNumeric())
-						separateByNumeric();
-				}
-		}
-
-	}
-
-	/**
-	 * Perform unsupervised feature selection of the data using an
-	 * attraction-repulsion model
-	 * 
-	 * @throws TPPException
-	 */
-	private void unsupervisedAttractionRepulsion() throws TPPException {
-
-		if (model.getNumViewDimensions() != 2)
-			throw new TPPException("this method is only implented for 2-dimensional output spaces");
-
-		int n = model.getNumDataPoints();
-		double[][] aView = model.getView().getArray();
-		double[][] movement = new double[model.getNumDataPoints()][2];
-		double d;
-
-		// find the mean distance between points
-		double total = 0;
-		for (int i = 0; i < n; i++)
-			for (int j = 0; j < i; j++)
-				total += Math.sqrt(Math.pow(aView[i][X] - aView[j][X], 2) + Math.pow(aView[i][Y] - aView[j][Y], 2));
-
-		double mean = total / (0.5 * n * (n - 1));
-		double force;
-
-		// attract/repulse each point from each other
-		for (int i = 0; i < n; i++) {
-			for (int j = 0; j < n; j++) {
-				if (i != j) {
-					d = Math.sqrt(Math.pow(aView[i][X] - aView[j][X], 2) + Math.pow(aView[i][Y] - aView[j][Y], 2));
-					force = (mean - d) / mean;
-					movement[i][X] += (aView[j][X] - aView[i][X]) * force;
-					movement[i][Y] += (aView[j][Y] - aView[i][Y]) * force;
-				}
-			}
-		}
-		model.setTarget(model.getView().plus(new Matrix(movement)));
-		model.pursueTarget();
-	}
-	
-	
-	private void separateByNumeric() throws TPPException {
-
-		if (model.getNumViewDimensions() != 2)
-			throw new TPPException("this method is only implented for 2-dimensional output spaces");
-
-		Matrix perturbation = new Matrix(model.getNumDataPoints(), 2);
-
-		double dValue, dValueMean;
-		int n = model.getNumDataPoints();
-		System.out.println("Variance of separation attribute = " + model.instances.variance(separationAttribute));
-
-		/**
-		 * fairly arbitrary number for reducing the size of teh perturbation.
-		 * Adjust at will.
-		 */
-		double velocity = model.instances.variance(separationAttribute);
-
-		double dX, dY, dXY;
-		double dXNorm, dYNorm;
-		double[] dTarget = new double[2];
-
-		// For each point (x_i)
-		for (int i = 0; i < n; i++) {
-
-			// Find the mean difference in value between this point and all
-			// others (mean|f_i-f_j|)
-			dValue = 0;
-			for (int j = 0; j < n; j++)
-				dValue += abs(model.instances.instance(i).value(separationAttribute)
-						- model.instances.instance(j).value(separationAttribute));
-			dValueMean = dValue / n;
-
-			// For every other point (x_j)
-			dTarget[X] = 0;
-			dTarget[Y] = 0;
-			for (int j = 0; j < n; j++) {
-				if (i != j) {
-					// find the unit vector pointing away from that other point
-					// (x_i-x_j)/|x_i-x_j|
-					dX = model.getView().get(i, X) - model.getView().get(j, X);
-					dY = model.getView().get(i, Y) - model.getView().get(j, Y);
-					dXY = Math.sqrt((dX * dX) + (dY * dY));
-					dXNorm = dX / dXY;
-					dYNorm = dY / dXY;
-
-					// and move the point away or towards it, depending on the
-					// difference in value: the bigger the difference in value,
-					// the greater the movement away form the other objects
-					dValue = model.instances.instance(i).value(separationAttribute)
-							- model.instances.instance(j).value(separationAttribute);
-					dTarget[X] += dXNorm * (dValue - dValueMean);
-					dTarget[Y] += dYNorm * (dValue - dValueMean);
-				}
-			}
-
-			// And normalise the movement to get the perturbation of the target
-			perturbation.set(i, X, dTarget[X] / velocity);
-			perturbation.set(i, Y, dTarget[Y] / velocity);
-
-		}
-
-		model.getTarget().plusEquals(perturbation);
-		model.pursueTarget();
-
-	}
-
-	private void separateByClassification() throws TPPException {
-
-		Matrix perturbation = new Matrix(model.getNumDataPoints(), model.getNumViewDimensions());
-
-		// 1. Find the centroids of the classes:
-		// TODO we don't need to calculate the centroids in the view each time.
-		// just calculate the centroids in the data and then project
-		double[][] centroids = new double[separationAttribute.numValues()][model.getNumViewDimensions()];
-		// first total up the positions for each class
-		double[] numPoints = new double[separationAttribute.numValues()];
-		int c, p, od;
-		final int numOutputDimensions = model.getNumViewDimensions();
-		final int numDataPoints = model.getNumDataPoints();
-		for (p = 0; p < numDataPoints; p++) {
-			c = (int) model.getInstances().instance(p).value(separationAttribute);
-			for (od = 0; od < numOutputDimensions; od++)
-				centroids[c][od] += model.getView().get(p, od);
-			numPoints[c]++;
-		}
-		// then divide by the number of points in each class (if this class
-		// is not empty)
-		for (c = 0; c < separationAttribute.numValues(); c++) {
-			if (numPoints[c] > 0) {
-				for (od = 0; od < numOutputDimensions; od++)
-					centroids[c][od] /= numPoints[c];
-			}
-		}
-
-		// 2. Move centroids away from other classes (with velocity
-		// inversely proportional to distance)
-		double distance;
-		// first find aggregate movements
-		double[][] dCentroid = new double[separationAttribute.numValues()][model.getNumViewDimensions()];
-		for (c = 0; c < separationAttribute.numValues(); c++) {
-			if (numPoints[c] > 0) {
-				for (int c1 = 0; c1 < separationAttribute.numValues(); c1++) {
-					// can't move away from self (or empty classes)
-					if ((c != c1) && (numPoints[c1] > 0)) {
-						distance = 0;
-						for (od = 0; od < numOutputDimensions; od++)
-							distance += Math.pow(centroids[c][od] - centroids[c1][od], 2);
-						for (od = 0; od < numOutputDimensions; od++)
-							dCentroid[c][od] += (centroids[c][od] - centroids[c1][od]) / distance;
-					}
-				}
-			}
-		}
-		// then add aggregate movements to centroids
-		for (c = 0; c < separationAttribute.numValues(); c++) {
-			if (numPoints[c] > 0) {
-				for (od = 0; od < numOutputDimensions; od++)
-					centroids[c][od] += dCentroid[c][od];
-			}
-		}
-
-		// 3. Move points towards their newly separated centroids
-		for (p = 0; p < numDataPoints; p++) {
-			c = (int) model.getInstances().instance(p).value(separationAttribute);
-			for (od = 0; od < numOutputDimensions; od++)
-				perturbation.set(p, od, (centroids[c][od] - model.getView().get(p, od)));
-		}
-
-		model.setTarget(model.getView().plus(perturbation));
-		model.pursueTarget();
-
-	}
-
-	private double abs(double d) {
-		return (d < 0 ? -d : d);
-	}
-}
+package tpp;
+
+import java.util.Arrays;
+
+import weka.core.Attribute;
+import weka.core.matrix.Matrix;
+
+/**
+ * A TargetPerturbation that will perturb the target so that the distribution of
+ * points better reflects the value of the separation attribute defined on the
+ * TPPModel. If the separation attribute is nominal then this produces a
+ * distribution of points that maximises the separation between classes
+ */
+public class SeparatePoints implements PerturbationPursuit {
+
+	private static final int X = 0;
+
+	private static final int Y = 1;
+
+	/**
+	 * The default opening angle used when approximating the forces between
+	 * points
+	 */
+	public static final double DEFAULT_THETA = 0.5;
+
+	/** The opening angle used when approximating the forces between points */
+	private double theta = DEFAULT_THETA;
+
+	/** The attribute that is used for classification */
+	private Attribute separationAttribute;
+
+	protected TPPModel model;
+
+	public SeparatePoints(TPPModel model) {
+		this.model = model;
+	};
+
+	/**
+	 * Find a view that better separates the points
+	 */
+	public void pursuePerturbation() throws TPPException {
+		separationAttribute = model.getSeparationAttribute();
+		if (separationAttribute == null)
+			unsupervisedAttractionRepulsion();
+			else {
+				if (separationAttribute.isNominal())
+					separateByClassification();
+				else {
+					if (separationAttribute.isNumeric())
+						separateByNumeric();
+				}
+		}
+
+	}
+
+	/**
+	 * Perform unsupervised feature selection of the data using an
+	 * attraction-repulsion model. Each point i moves by sum_j
+	 * (x_j-x_i)(mean-d_ij)/mean, where d_ij is the distance between the points
+	 * and mean is the mean distance. The first part of this sum is found
+	 * exactly, from the centroid, and the rest (and the mean distance) are
+	 * approximated using a quadtree.
+	 * 
+	 * @throws TPPException
+	 */
+	private void unsupervisedAttractionRepulsion() throws TPPException {
+
+		if (model.getNumViewDimensions() != 2)
+			throw new TPPException("this method is only implented for 2-dimensional output spaces");
+
+		int n = model.getNumDataPoints();
+		double[][] aView = model.getView().getArray();
+		double[][] movement = new double[n][2];
+		QuadTree tree = new QuadTree(aView, n, null);
+		double[] sums = new double[3];
+
+		// find the total distance between points, the sum of
+		// (x_j-x_i)d_ij for each point, and the centroid
+		double total = 0, sumX = 0, sumY = 0;
+		for (int i = 0; i < n; i++) {
+			tree.distanceSums(aView[i][X], aView[i][Y], theta, sums);
+			total += sums[0];
+			movement[i][X] = sums[1];
+			movement[i][Y] = sums[2];
+			sumX += aView[i][X];
+			sumY += aView[i][Y];
+		}
+
+		// (nb the total counts each pair of points twice)
+		double mean = total / (n * (double) (n - 1));
+
+		// attract/repulse each point from each other
+		for (int i = 0; i < n; i++) {
+			movement[i][X] = (sumX - n * aView[i][X]) - movement[i][X] / mean;
+			movement[i][Y] = (sumY - n * aView[i][Y]) - movement[i][Y] / mean;
+		}
+		model.setTarget(model.getView().plus(new Matrix(movement)));
+		model.pursueTarget();
+	}
+
+	/**
+	 * The opening angle used when approximating the forces between points: 0
+	 * is exact, and larger values are faster but less accurate
+	 */
+	public double getTheta() {
+		return theta;
+	}
+
+	/**
+	 * Set the opening angle used when approximating the forces between points:
+	 * 0 is exact, and larger values are faster but less accurate
+	 */
+	public void setTheta(double theta) {
+		this.theta = theta;
+	}
+	
+	/**
+	 * Move each point i by sum_j u_ij(f_i-f_j-m_i)/v, where u_ij is the unit
+	 * vector pointing from point j to point i, f is the value of the
+	 * separation attribute, m_i is the mean of |f_i-f_j| and v is the variance
+	 * of f. So points move away from other points that have very different
+	 * values. <br>
+	 * The sum can be written as (f_i-m_i)sum_j(u_ij) - sum_j(f_j.u_ij), and
+	 * both sums are approximated using a quadtree in which each point is
+	 * charged with its value. The mean differences are found from the sorted
+	 * values.
+	 */
+	private void separateByNumeric() throws TPPException {
+
+		if (model.getNumViewDimensions() != 2)
+			throw new TPPException("this method is only implented for 2-dimensional output spaces");
+
+		int n = model.getNumDataPoints();
+		double[] values = Arrays.copyOf(model.getAttributeColumn(separationAttribute), n);
+		double[][] aView = model.getView().getArray();
+		double[][] perturbation = new double[n][2];
+
+		/**
+		 * fairly arbitrary number for reducing the size of teh perturbation.
+		 * Adjust at will.
+		 */
+		double velocity = variance(values);
+
+		// Sort the values and find the cumulative totals, so that we can find
+		// the mean difference in value between each point and all others
+		// (mean|f_i-f_j|)
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		double[] cumulative = new double[n + 1];
+		for (int i = 0; i < n; i++)
+			cumulative[i + 1] = cumulative[i] + sorted[i];
+
+		QuadTree tree = new QuadTree(aView, n, values);
+		double[] sums = new double[4];
+		double f, dValueMean;
+		int below;
+
+		// For each point (x_i)
+		for (int i = 0; i < n; i++) {
+			f = values[i];
+			below = lowerBound(sorted, f);
+			dValueMean = (f * below - cumulative[below] + (cumulative[n] - cumulative[below]) - f * (n - below)) / n;
+
+			// find the unit vectors pointing away from every other point
+			// (x_i-x_j)/|x_i-x_j| and move the point away or towards them,
+			// depending on the difference in value: the bigger the difference
+			// in value, the greater the movement away form the other objects
+			tree.unitVectorSums(aView[i][X], aView[i][Y], theta, sums);
+
+			// And normalise the movement to get the perturbation of the target
+			perturbation[i][X] = ((f - dValueMean) * sums[0] - sums[2]) / velocity;
+			perturbation[i][Y] = ((f - dValueMean) * sums[1] - sums[3]) / velocity;
+		}
+
+		model.setTarget(model.getTarget().plus(new Matrix(perturbation)));
+		model.pursueTarget();
+
+	}
+
+	/** The index of the first value in the sorted array that is not less than v */
+	private static int lowerBound(double[] sorted, double v) {
+		int low = 0, high = sorted.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sorted[mid] < v)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/** The (sample) variance of the values */
+	private static double variance(double[] values) {
+		double sum = 0, sumSquares = 0;
+		for (double v : values) {
+			sum += v;
+			sumSquares += v * v;
+		}
+		int n = values.length;
+		return (n > 1 ? (sumSquares - sum * sum / n) / (n - 1) : 0);
+	}
+
+	private void separateByClassification() throws TPPException {
+
+		Matrix perturbation = new Matrix(model.getNumDataPoints(), model.getNumViewDimensions());
+
+		// 1. Find the centroids of the classes in the view, by projecting
+		// their centroids in the data
+		ClassCentroids classes;
+		try {
+			classes = model.getClassCentroids(separationAttribute);
+		} catch (Exception e) {
+			throw new TPPException(e.getMessage());
+		}
+		double[][] centroids = classes.project(model.getProjection());
+		int c, p, od;
+		final int numOutputDimensions = model.getNumViewDimensions();
+		int[] numPoints = new int[classes.getNumClasses()];
+		for (c = 0; c < numPoints.length; c++)
+			numPoints[c] = classes.getNumPoints(c);
+
+		// 2. Move centroids away from other classes (with velocity
+		// inversely proportional to distance)
+		double distance;
+		// first find aggregate movements
+		double[][] dCentroid = new double[separationAttribute.numValues()][model.getNumViewDimensions()];
+		for (c = 0; c < separationAttribute.numValues(); c++) {
+			if (numPoints[c] > 0) {
+				for (int c1 = 0; c1 < separationAttribute.numValues(); c1++) {
+					// can't move away from self (or empty classes)
+					if ((c != c1) && (numPoints[c1] > 0)) {
+						distance = 0;
+						for (od = 0; od < numOutputDimensions; od++)
+							distance += Math.pow(centroids[c][od] - centroids[c1][od], 2);
+						for (od = 0; od < numOutputDimensions; od++)
+							dCentroid[c][od] += (centroids[c][od] - centroids[c1][od]) / distance;
+					}
+				}
+			}
+		}
+		// then add aggregate movements to centroids
+		for (c = 0; c < separationAttribute.numValues(); c++) {
+			if (numPoints[c] > 0) {
+				for (od = 0; od < numOutputDimensions; od++)
+					centroids[c][od] += dCentroid[c][od];
+			}
+		}
+
+		// 3. Move points towards their newly separated centroids
+		double[][] aView = model.getView().getArray(), aPerturbation = perturbation.getArray();
+		int[] members;
+		for (c = 0; c < numPoints.length; c++) {
+			members = classes.getMembers(c);
+			for (int m = 0; m < members.length; m++) {
+				p = members[m];
+				for (od = 0; od < numOutputDimensions; od++)
+					aPerturbation[p][od] = centroids[c][od] - aView[p][od];
+			}
+		}
+
+		model.setTarget(model.getView().plus(perturbation));
+		model.pursueTarget();
+
+	}
+}
@@ -1,228 +1,422 @@
-package tpp;
-
-import java.util.Comparator;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.TreeSet;
-
-import weka.core.Attribute;
-import weka.core.Instance;
-import weka.core.Instances;
-
-/**
- * Represents a set of series in the data. A series is defined by two
- * attributes: the id attribute which identifies members of the series (which
- * may be nominal or string); and the index attribute which orders them (which
- * may be real or nominal or date). The id attribute may be null, in which case
- * it is assumed that the data comprises a single series ordered by the index
- * attribute.
- */
-public class Series {
-
-	private Attribute indexAttribute;
-
-	private Attribute idAttribute;
-
-	private Instances instances;
-
-	private HashMap<String, TreeSet<Instance>> allSeries;
-
-	/**
-	 * The series themselves. Each entry in the hashmap is a set of instances,
-	 * ordered by the index attribute. The hashmap is keyed by the values of the
-	 * id attribute. If there is no id attribute then there will be a single set
-	 * of instances in the hashmap which contains all instances in
-	 * indexAttribute order, and keyed by "";
-	 */
-	public HashMap<String, TreeSet<Instance>> getAllSeries() {
-		return allSeries;
-	}
-
-	/**
-	 * Create a series given just the names of the two attributes.
-	 * 
-	 * @throws TPPException
-	 *             if indexAttribute cannot be recognised
-	 */
-	public Series(Instances ins, String indexAttributeName, String idAttributeName) throws TPPException {
-		this.instances = ins;
-		this.indexAttribute = ins.attribute(indexAttributeName);
-		this.idAttribute = ins.attribute(idAttributeName);
-		if (indexAttribute == null)
-			throw new TPPException("Unidentified index attribute");
-		init();
-	}
-
-	public Series(Instances ins, Attribute indexAttribute, Attribute idAttribute) {
-		this.indexAttribute = indexAttribute;
-		this.idAttribute = idAttribute;
-		this.instances = ins;
-		init();
-	}
-
-	private void init() {
-
-		InstanceComparator comp = new InstanceComparator(indexAttribute);
-
-		// Construct one TreeSet of instances per value of the idAttribute
-		// Store the sets in a hash map, keyed by the value of the idAttribute
-		// Each set is sorted by the index attribute
-		allSeries = new HashMap<String, TreeSet<Instance>>();
-		if (idAttribute != null) {
-			Enumeration values = idAttribute.enumerateValues();
-			while (values.hasMoreElements())
-				allSeries.put((String) values.nextElement(), new TreeSet<Instance>(comp));
-		} else {
-			allSeries.put("", new TreeSet<Instance>(comp));
-		}
-
-		// Assign each instance to the appropriate set
-		for (int i = 0; i < instances.numInstances(); i++) {
-			if (idAttribute != null)
-				allSeries.get(instances.instance(i).stringValue(idAttribute)).add(instances.instance(i));
-			else
-				allSeries.get("").add(instances.instance(i));
-		}
-	}
-
-	public Attribute getIdAttribute() {
-		return idAttribute;
-	}
-
-	public Attribute getIndexAttribute() {
-		return indexAttribute;
-	}
-
-	public String toString() {
-
-		StringBuffer s = new StringBuffer("Instances in Series: ");
-		Iterator<String> ikeys = allSeries.keySet().iterator();
-		Iterator<Instance> iins;
-		String key;
-		while (ikeys.hasNext()) {
-			key = ikeys.next();
-			s.append("\nID=").append(key);
-			iins = allSeries.get(key).iterator();
-			while (iins.hasNext())
-				s.append("\t").append(indexOfInstance(iins.next()));
-		}
-		return s.toString();
-
-	}
-
-	/**
-	 * Find the instance before this one in whichever series it is a member of.
-	 * Returns null if it is the first member of its series
-	 */
-	public Instance previous(Instance in) {
-
-		// find the set that contains this instance
-		String key = (idAttribute == null ? "" : in.stringValue(idAttribute));
-		TreeSet<Instance> set = allSeries.get(key);
-
-		// iterate through until the next instance is this one
-		Iterator<Instance> it = set.iterator();
-		Instance prev = null;
-		Instance current = null;
-		while (it.hasNext()) {
-			current = it.next();
-			if (current.equals(in))
-				return prev;
-			prev = current;
-
-		}
-		return null;
-	}
-
-	/**
-	 * Find the instance after this one in whichever series it is a member of.
-	 * Returns null if it is the last member of its series
-	 */
-	public Instance next(Instance in) {
-
-		// find the set that contains this instance
-		String key = (idAttribute == null ? "" : in.stringValue(idAttribute));
-		TreeSet<Instance> set = allSeries.get(key);
-
-		// iterate through until we find this one
-		Iterator<Instance> it = set.iterator();
-		Instance current = null;
-		while (it.hasNext()) {
-			current = it.next();
-			if (current.equals(in))
-				// and return the next (or null)
-				return (it.hasNext() ? it.next() : null);
-		}
-		return null;
-
-	}
-
-	/**
-	 * Find the index of the previous instance, given the index of an instance.
-	 * Returns -1 if the instance was first in the series.
-	 * 
-	 * @throws TPPException
-	 */
-	public int previous(int i) {
-		Instance previous = previous(instances.instance(i));
-		return (previous != null ? indexOfInstance(previous) : -1);
-	}
-
-	/**
-	 * Find the index of the next instance, given the index of an instance.
-	 * Returns -1 if the instance was last in the series.
-	 * 
-	 * @throws TPPException
-	 */
-	public int next(int i) {
-		Instance next = next(instances.instance(i));
-		return (next != null ? indexOfInstance(next) : -1);
-	}
-
-	/**
-	 * Returns the index of the particular instance within the original
-	 * instances that went into this series. returns -1 if the instance cannot
-	 * be found.
-	 */
-	private int indexOfInstance(Instance in) {
-		for (int i = 0; i < instances.numInstances(); i++)
-			if (instances.instance(i).equals(in))
-				return i;
-		return -1;
-	}
-
-	/** Compare two instances by the value of the attribute. */
-	private class InstanceComparator implements Comparator {
-
-		private static final int O1_LESS_THAN_O2 = -1;
-
-		private static final int O1_GREATER_THAN_O2 = +1;
-
-		private static final int O1_EQUALS_O2 = 0;
-
-		private Attribute at;
-
-		public InstanceComparator(Attribute at) {
-			this.at = at;
-		}
-
-		public int compare(Object o1, Object o2) {
-
-			if (((Instance) o1).value(at) == ((Instance) o2).value(at))
-				return O1_EQUALS_O2;
-
-			// if the attribute is numeric or a date, compare numeric values
-			// directly
-			if (at.isNumeric() || at.isDate())
-				return (((Instance) o1).value(at) < ((Instance) o2).value(at) ? O1_LESS_THAN_O2 : O1_GREATER_THAN_O2);
-
-			// if the attribute is nominal or string, compare string values
-			// ignoring case
-			else
-				return (((Instance) o1).stringValue(at).compareToIgnoreCase(((Instance) o2).stringValue(at)));
-		}
-
-	}
-
-}
\ No newline at end of file
+package tpp;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.TreeSet;
+
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Represents a set of series in the data. A series is defined by two
+ * attributes: the id attribute which identifies members of the series (which
+ * may be nominal or string); and the index attribute which orders them (which
+ * may be real or nominal or date). The id attribute may be null, in which case
+ * it is assumed that the data comprises a single series ordered by the index
+ * attribute. <br>
+ * The series are found once, when they are created, and stored as arrays of
+ * instance indices, together with the index of the previous and next member of
+ * each instance's series, so that walking along a series takes constant time
+ * per step.
+ */
+public class Series {
+
+	private Attribute indexAttribute;
+
+	private Attribute idAttribute;
+
+	private Instances instances;
+
+	/**
+	 * The indices of the members of each series, ordered by the index
+	 * attribute. If there is an id attribute then there is one series for
+	 * each of its values, otherwise there is a single series containing all
+	 * instances. (The arrays may be longer than the series, so that appended
+	 * members can be added in place.)
+	 */
+	private int[][] allSeries;
+
+	/** The number of members of each series */
+	private int[] sizes;
+
+	/**
+	 * Copies of the series that are exactly as long as them, as returned by
+	 * getSeries, or null if they need to be copied again
+	 */
+	private int[][] exactSeries;
+
+	/** The id of each series, or "" if there is no id attribute */
+	private String[] ids;
+
+	/**
+	 * The index of the previous and next member of the series for each
+	 * instance, or -1 if it is the first (or last) member or is not in any
+	 * series. (These may be longer than the number of instances, so that
+	 * appended instances can be added without copying them each time.)
+	 */
+	private int[] previous, next;
+
+	/** The number of instances that are in the series */
+	private int numInstances;
+
+	/**
+	 * The index of each instance, keyed by the instance itself (not its
+	 * values), or null if it hasn't been needed yet
+	 */
+	private IdentityHashMap<Instance, Integer> instanceIndex;
+
+	/**
+	 * Create a series given just the names of the two attributes.
+	 *
+	 * @throws TPPException
+	 *             if indexAttribute cannot be recognised
+	 */
+	public Series(Instances ins, String indexAttributeName, String idAttributeName) throws TPPException {
+		this.instances = ins;
+		this.indexAttribute = ins.attribute(indexAttributeName);
+		this.idAttribute = ins.attribute(idAttributeName);
+		if (indexAttribute == null)
+			throw new TPPException("Unidentified index attribute");
+		init();
+	}
+
+	public Series(Instances ins, Attribute indexAttribute, Attribute idAttribute) {
+		this.indexAttribute = indexAttribute;
+		this.idAttribute = idAttribute;
+		this.instances = ins;
+		init();
+	}
+
+	private void init() {
+		int n = instances.numInstances();
+		int numSeries, s, i;
+
+		// Find which series each instance is in: either the (index of the)
+		// value of the id attribute or, if there is no id attribute, the only
+		// series. Instances with missing ids are left out.
+		int[] seriesOf = new int[n];
+		if (idAttribute != null) {
+			numSeries = idAttribute.numValues();
+			ids = new String[numSeries];
+			for (s = 0; s < numSeries; s++)
+				ids[s] = idAttribute.value(s);
+			for (i = 0; i < n; i++)
+				seriesOf[i] = (instances.instance(i).isMissing(idAttribute) ? -1 : (int) instances.instance(i).value(
+						idAttribute));
+		} else {
+			numSeries = 1;
+			ids = new String[] { "" };
+		}
+
+		// Collect the members of each series
+		int[] size = new int[numSeries];
+		for (i = 0; i < n; i++)
+			if (seriesOf[i] >= 0)
+				size[seriesOf[i]]++;
+		Integer[][] members = new Integer[numSeries][];
+		for (s = 0; s < numSeries; s++)
+			members[s] = new Integer[size[s]];
+		Arrays.fill(size, 0);
+		for (i = 0; i < n; i++)
+			if (seriesOf[i] >= 0)
+				members[seriesOf[i]][size[seriesOf[i]]++] = Integer.valueOf(i);
+
+		// Sort each series by the index attribute, and link each member to
+		// its neighbours. (The sort is stable, so members with the same index
+		// are kept in the order they appear in the data.)
+		InstanceComparator comp = new InstanceComparator(indexAttribute);
+		allSeries = new int[numSeries][];
+		sizes = new int[numSeries];
+		exactSeries = new int[numSeries][];
+		previous = new int[n];
+		next = new int[n];
+		Arrays.fill(previous, -1);
+		Arrays.fill(next, -1);
+		int[] series;
+		for (s = 0; s < numSeries; s++) {
+			Arrays.sort(members[s], comp);
+			series = new int[members[s].length];
+			for (i = 0; i < series.length; i++)
+				series[i] = members[s][i].intValue();
+			for (i = 1; i < series.length; i++) {
+				previous[series[i]] = series[i - 1];
+				next[series[i - 1]] = series[i];
+			}
+			allSeries[s] = series;
+			sizes[s] = series.length;
+		}
+		numInstances = n;
+	}
+
+	/**
+	 * Add any instances that have been appended to the data since the series
+	 * were found. New members that come after the end of their series (eg
+	 * because the index is a time stamp) are just linked on to the end,
+	 * without sorting or relinking the existing members (and in place, if
+	 * the series' array has room); other series are merged with their new
+	 * members and relinked.
+	 */
+	void extend() {
+		int n = instances.numInstances(), from = numInstances, i, s;
+		if (n <= from)
+			return;
+		if (n > previous.length) {
+			int capacity = Math.max(n, 2 * previous.length);
+			previous = Arrays.copyOf(previous, capacity);
+			next = Arrays.copyOf(next, capacity);
+		}
+		Arrays.fill(previous, from, n, -1);
+		Arrays.fill(next, from, n, -1);
+
+		// find the series of each new instance (string ids may have new
+		// values, which start new series)
+		int[] seriesOf = new int[n - from];
+		int numSeries = allSeries.length;
+		for (i = from; i < n; i++) {
+			if (idAttribute == null)
+				s = 0;
+			else
+				s = (instances.instance(i).isMissing(idAttribute) ? -1 : (int) instances.instance(i).value(
+						idAttribute));
+			seriesOf[i - from] = s;
+			numSeries = Math.max(numSeries, s + 1);
+		}
+		if (numSeries > allSeries.length) {
+			int old = allSeries.length;
+			allSeries = Arrays.copyOf(allSeries, numSeries);
+			sizes = Arrays.copyOf(sizes, numSeries);
+			exactSeries = Arrays.copyOf(exactSeries, numSeries);
+			ids = Arrays.copyOf(ids, numSeries);
+			for (s = old; s < numSeries; s++) {
+				allSeries[s] = new int[0];
+				ids[s] = idAttribute.value(s);
+			}
+		}
+
+		// collect the new members of each series, in order
+		int[] size = new int[numSeries];
+		for (i = 0; i < seriesOf.length; i++)
+			if (seriesOf[i] >= 0)
+				size[seriesOf[i]]++;
+		Integer[][] members = new Integer[numSeries][];
+		for (s = 0; s < numSeries; s++)
+			if (size[s] > 0)
+				members[s] = new Integer[size[s]];
+		Arrays.fill(size, 0);
+		for (i = 0; i < seriesOf.length; i++)
+			if (seriesOf[i] >= 0)
+				members[seriesOf[i]][size[seriesOf[i]]++] = Integer.valueOf(from + i);
+
+		InstanceComparator comp = new InstanceComparator(indexAttribute);
+		int[] series, merged;
+		int last, a, b, m, length;
+		for (s = 0; s < numSeries; s++) {
+			if (members[s] == null)
+				continue;
+			Arrays.sort(members[s], comp);
+			series = allSeries[s];
+			length = sizes[s];
+			if (length == 0 || comp.compare(series[length - 1], members[s][0]) <= 0) {
+				// the new members all come after the old ones
+				if (series.length < length + members[s].length)
+					series = Arrays.copyOf(series, Math.max(length + members[s].length, 2 * series.length));
+				last = (length > 0 ? series[length - 1] : -1);
+				for (i = 0; i < members[s].length; i++) {
+					m = members[s][i].intValue();
+					series[length + i] = m;
+					if (last >= 0) {
+						previous[m] = last;
+						next[last] = m;
+					}
+					last = m;
+				}
+			} else {
+				// merge them in, keeping the old members first when equal
+				merged = new int[length + members[s].length];
+				a = b = 0;
+				for (i = 0; i < merged.length; i++)
+					if (b >= members[s].length || (a < length && comp.compare(series[a], members[s][b]) <= 0))
+						merged[i] = series[a++];
+					else
+						merged[i] = members[s][b++].intValue();
+				previous[merged[0]] = -1;
+				next[merged[merged.length - 1]] = -1;
+				for (i = 1; i < merged.length; i++) {
+					previous[merged[i]] = merged[i - 1];
+					next[merged[i - 1]] = merged[i];
+				}
+				series = merged;
+			}
+			allSeries[s] = series;
+			sizes[s] = length + members[s].length;
+			exactSeries[s] = null;
+		}
+		if (instanceIndex != null)
+			for (i = from; i < n; i++)
+				instanceIndex.put(instances.instance(i), Integer.valueOf(i));
+		numInstances = n;
+	}
+
+	public Attribute getIdAttribute() {
+		return idAttribute;
+	}
+
+	public Attribute getIndexAttribute() {
+		return indexAttribute;
+	}
+
+	/** The number of series (some of which may be empty) */
+	public int getNumSeries() {
+		return allSeries.length;
+	}
+
+	/**
+	 * The indices of the members of the given series, ordered by the index
+	 * attribute. Should not be modified.
+	 */
+	public int[] getSeries(int s) {
+		if (exactSeries[s] == null)
+			exactSeries[s] = (allSeries[s].length == sizes[s] ? allSeries[s] : Arrays.copyOf(allSeries[s], sizes[s]));
+		return exactSeries[s];
+	}
+
+	/**
+	 * The series, keyed by their ids, each as a set of its members ordered by
+	 * the index attribute. Empty series are left out. The sets are made each
+	 * time this is called, so getSeries is quicker for walking the series.
+	 */
+	public HashMap<String, TreeSet<Instance>> getAllSeries() {
+		HashMap<String, TreeSet<Instance>> all = new HashMap<String, TreeSet<Instance>>();
+		for (int s = 0; s < allSeries.length; s++) {
+			int[] members = getSeries(s);
+			if (members.length == 0)
+				continue;
+			// order the members by where they are in the series
+			final IdentityHashMap<Instance, Integer> position = new IdentityHashMap<Instance, Integer>(
+					members.length);
+			for (int i = 0; i < members.length; i++)
+				position.put(instances.instance(members[i]), Integer.valueOf(i));
+			TreeSet<Instance> set = new TreeSet<Instance>(new Comparator<Instance>() {
+				public int compare(Instance o1, Instance o2) {
+					return position.get(o1).compareTo(position.get(o2));
+				}
+			});
+			set.addAll(position.keySet());
+			all.put(ids[s], set);
+		}
+		return all;
+	}
+
+	/** The id of the given series, or "" if there is no id attribute */
+	public String getId(int s) {
+		return ids[s];
+	}
+
+	public String toString() {
+
+		StringBuffer s = new StringBuffer("Instances in Series: ");
+		for (int series = 0; series < allSeries.length; series++) {
+			s.append("\nID=").append(ids[series]);
+			for (int i = 0; i < sizes[series]; i++)
+				s.append("\t").append(allSeries[series][i]);
+		}
+		return s.toString();
+
+	}
+
+	/**
+	 * Find the instance before this one in whichever series it is a member of.
+	 * Returns null if it is the first member of its series
+	 */
+	public Instance previous(Instance in) {
+		int i = indexOfInstance(in);
+		return (i >= 0 && previous[i] >= 0 ? instances.instance(previous[i]) : null);
+	}
+
+	/**
+	 * Find the instance after this one in whichever series it is a member of.
+	 * Returns null if it is the last member of its series
+	 */
+	public Instance next(Instance in) {
+		int i = indexOfInstance(in);
+		return (i >= 0 && next[i] >= 0 ? instances.instance(next[i]) : null);
+	}
+
+	/**
+	 * Find the index of the previous instance, given the index of an instance.
+	 * Returns -1 if the instance was first in the series.
+	 */
+	public int previous(int i) {
+		return previous[i];
+	}
+
+	/**
+	 * Find the index of the next instance, given the index of an instance.
+	 * Returns -1 if the instance was last in the series.
+	 */
+	public int next(int i) {
+		return next[i];
+	}
+
+	/**
+	 * Returns the index of the particular instance within the original
+	 * instances that went into this series. returns -1 if the instance cannot
+	 * be found. Instances are looked up by identity, in a map that is built
+	 * the first time it is needed, so this takes constant time.
+	 */
+	private int indexOfInstance(Instance in) {
+		if (instanceIndex == null) {
+			instanceIndex = new IdentityHashMap<Instance, Integer>(numInstances);
+			for (int i = 0; i < numInstances; i++)
+				instanceIndex.put(instances.instance(i), Integer.valueOf(i));
+		}
+		Integer i = instanceIndex.get(in);
+		return (i == null ? -1 : i.intValue());
+	}
+
+	/**
+	 * Compare two instances, given by their indices, by the value of the
+	 * attribute.
+	 */
+	private class InstanceComparator implements Comparator<Integer> {
+
+		private static final int O1_LESS_THAN_O2 = -1;
+
+		private static final int O1_GREATER_THAN_O2 = +1;
+
+		private static final int O1_EQUALS_O2 = 0;
+
+		private Attribute at;
+
+		public InstanceComparator(Attribute at) {
+			this.at = at;
+		}
+
+		public int compare(Integer i1, Integer i2) {
+			Instance o1 = instances.instance(i1.intValue());
+			Instance o2 = instances.instance(i2.intValue());
+
+			if (o1.value(at) == o2.value(at))
+				return O1_EQUALS_O2;
+
+			// missing values go at the end, so that the order is consistent
+			if (o1.isMissing(at) || o2.isMissing(at))
+				return (o1.isMissing(at) ? (o2.isMissing(at) ? O1_EQUALS_O2 : O1_GREATER_THAN_O2) : O1_LESS_THAN_O2);
+
+			// if the attribute is numeric or a date, compare numeric values
+			// directly
+			if (at.isNumeric() || at.isDate())
+				return (o1.value(at) < o2.value(at) ? O1_LESS_THAN_O2 : O1_GREATER_THAN_O2);
+
+			// if the attribute is nominal or string, compare string values
+			// ignoring case
+			else
+				return (o1.stringValue(at).compareToIgnoreCase(o2.stringValue(at)));
+		}
+
+	}
+
+}
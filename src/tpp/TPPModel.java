@@ -1,1065 +1,1960 @@
-package tpp;
-
-import java.io.Serializable;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Random;
-import java.util.TreeSet;
-import java.util.Vector;
-
-import weka.classifiers.Classifier;
-import weka.clusterers.EM;
-import weka.core.Attribute;
-import weka.core.Instance;
-import weka.core.FastVector;
-import weka.core.Instances;
-import weka.core.matrix.Matrix;
-import weka.filters.Filter;
-import weka.filters.supervised.attribute.AddClassification;
-import weka.filters.unsupervised.attribute.Remove;
-import weka.filters.unsupervised.attribute.ReplaceMissingValues;
-
-/**
- * A class that represents the TPP model: ie the original data, the current
- * target and view, and the associated methods for manipulating these. This
- * abstract base class does everything except initialise the projection.
- * 
- */
-public class TPPModel implements Serializable, Cloneable {
-
-	/**
-	 * The minimum value allowed when computing PCAs. NB could probably be set
-	 * less than this, but use this value for safety. For more information see
-	 * http://www.netlib.org/na-digest-html/90/v90n18.html#5
-	 */
-	private static final double MIN_VALUE = 1E-100;
-
-	private static final double TRAIN = 0d;
-
-	private static final double TEST = 1d;
-
-	/**
-	 * The value of the class attribute that indicates that the class of this
-	 * instance is unknown.
-	 */
-	public static final String CLASS_UNKNOWN = "UNKNOWN";
-
-	/** The current view of the data */
-	protected Matrix view;
-
-	/** The current target view of the data */
-	protected Matrix target;
-
-	/** The underlying data. */
-	protected Instances instances;
-
-	/** The numeric, normalised, filtered data */
-	protected Matrix data;
-
-	/** The projection from the higher dimensional data to the view. */
-	protected LinearProjection projection;
-
-	protected Matrix distances;
-
-	/** The attribute that indicates which instances are in the test set, if any */
-	private Attribute test;
-
-	private ProjectionConstraint constraint;
-
-	/** Whichever attribute used to separate points by */
-	protected Attribute separationAttribute;
-
-	/** A hierarchical clustering of the instances */
-	private HierarchicalCluster hierarchicalClustering;
-
-	/**
-	 * A boolean array that indicates which points have been selected
-	 */
-	protected boolean[] selectedPoints;
-
-	/** The number of view dimensions */
-	protected int numViewDimensions = -1;
-
-	/**
-	 * The centroids of the classes, keyed by the attribute that defines the
-	 * classes that those centroids were defined over
-	 */
-	private HashMap<Attribute, Matrix> allCentroids;
-
-	private Graph graph;
-
-	private Vector<TPPModelEventListener> listeners;
-
-	/** The numeric (excluding date) attributes */
-	private Vector<Attribute> numericAttributes;
-
-	private Attribute descriptionAttribute;
-
-	/** Get the number of output dimensions */
-	public int getNumViewDimensions() {
-		return numViewDimensions;
-	}
-
-	/**
-	 * Initialise a projection projecting onto an n-dimensional space
-	 * 
-	 * @throws Exception
-	 *             if number of dimensions is not set
-	 */
-	protected void initialiseProjection() throws Exception {
-		if (numViewDimensions <= 0)
-			throw new Exception("number of output dimensions not set");
-		projection = new LinearProjection(data.getColumnDimension(), numViewDimensions);
-	}
-
-	/** Construct a new TPP model with the given output dimension */
-	public TPPModel(int n) {
-		this.numViewDimensions = n;
-	}
-
-	/*
-	 * Set the data for this model. The projection will default to PCA (if there
-	 * are sufficient resources to compute this) or a random projection
-	 */
-	public void setInstances(Instances in) throws Exception {
-		initialise(in);
-		fireModelChanged(TPPModelEvent.DATA_SET_CHANGED);
-	}
-
-	/**
-	 * 
-	 * @throws Exception
-	 */
-	protected void initialise(Instances ins) throws Exception {
-
-		// Replace missing values
-		ReplaceMissingValues replace = new ReplaceMissingValues();
-		replace.setInputFormat(ins);
-		instances = Filter.useFilter(ins, replace);
-
-		// Chose to start off by classifying and selecting points according to
-		// the first nominal
-		// attribute
-		Vector<Attribute> nom = getNominalAttributes();
-		if (nom.size() > 0) {
-			instances.setClass(nom.get(0));
-			setSeparationAttribute(instances.classAttribute());
-		}
-
-		// See if there is a string attribute we could use for describing the
-		// points
-		descriptionAttribute = null;
-		int a = -1;
-		while (descriptionAttribute == null && a<instances.numAttributes()-1)
-			if (instances.attribute(++a).isString())
-				descriptionAttribute = instances.attribute(a);
-		extractNumericData();
-		normalizeDataBipolarHomogenous();
-
-		// Initially all points are unselected
-		selectedPoints = new boolean[instances.numInstances()];
-
-		// Create a new projection and view
-		initialiseProjection();
-		project();
-
-		// if its a huge data set don't bother trying to find PCA
-		if (getNumDataDimensions() * getNumDataPoints() < 1E6)
-			PCA();
-		else {
-			System.out.println("Data too large to calculate PCA. Defaulting to a random projection.");
-			randomProjection();
-		}
-
-		// initialise centroids
-		allCentroids = new HashMap<Attribute, Matrix>();
-
-	}
-
-	/**
-	 * Scale the numeric data from the filtered instances to [-1,1] (ie the
-	 * maximum absolute value of each attribute will become 1). Attributes are
-	 * assumed to be homogenous ie all attributes are divided by the same
-	 * scaling factor
-	 */
-	protected void normalizeDataBipolarHomogenous() {
-		data.timesEquals(1 / MatrixUtils.maxAbsValue(data));
-	}
-
-	/**
-	 * Normalize the numeric data from the filtered instances to the range [0,1]
-	 * (ie the minimum data value will be reset to 0 and maximum to 1.
-	 * 
-	 * @throws Exception
-	 */
-	public void normalizeDataUnit() throws Exception {
-		Filter normalize = new weka.filters.unsupervised.attribute.Normalize();
-		normalize.setInputFormat(instances);
-		instances = Filter.useFilter(instances, normalize);
-		extractNumericData();
-		PCA();
-		project();
-		fireModelChanged(TPPModelEvent.DATA_VALUE_CHANGED);
-	}
-
-	/**
-	 * Extract the data from the numeric attributes of the given instances
-	 * 
-	 * @throws TPPException
-	 */
-	protected void extractNumericData() throws TPPException {
-
-		// Extract a matrix of numeric data from the instances
-		// First find the numeric data attributes
-		numericAttributes = new Vector<Attribute>();
-		for (int i = 0; i < instances.numAttributes(); i++)
-			if (instances.attribute(i).isNumeric() && !instances.attribute(i).isDate())
-				numericAttributes.add(instances.attribute(i));
-		if (numericAttributes.size() < 2)
-			throw new TPPException("Insufficient numeric attributes");
-		// create a new matrix
-		data = new Matrix(instances.numInstances(), numericAttributes.size());
-		// and copy all the numeric data into the matrix
-		for (int c = 0; c < numericAttributes.size(); c++)
-			for (int r = 0; r < instances.numInstances(); r++)
-				data.set(r, c, instances.instance(r).value(numericAttributes.get(c)));
-	}
-
-	/**
-	 * Extract the date attributes of the given instances
-	 * 
-	 * @throws TPPException
-	 */
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see tpp.TPPModelInterface#getAttributeByName(java.lang.String)
-	 */
-	public Attribute getAttributeByName(String name) {
-		for (int a = 0; a < instances.numAttributes(); a++)
-			if (instances.attribute(a).name().equals(name))
-				return instances.attribute(a);
-		return null;
-	}
-
-	/** Convert a nominal attribute into N x binary numeric attributes */
-	public void nominalToBinary(Attribute nominal) throws Exception {
-
-		if (nominal != null && nominal.isNominal()) {
-			Attribute binary;
-			Enumeration values;
-			String value, name;
-			name = nominal.name();
-			values = nominal.enumerateValues();
-
-			// System.out.println("Converting attribute " + nominal.name() + "
-			// from nominal to binary");
-
-			// create a new binary attribute for each value for this
-			// attribute
-			while (values.hasMoreElements()) {
-				value = (String) values.nextElement();
-				binary = new Attribute(name + "_" + value);
-				System.out.println("Creating attribute " + binary.name());
-				addAttribute(binary, null);
-
-				// for each instance, set the value of the attribute
-				double d;
-				for (int i = 0; i < instances.numInstances(); i++) {
-					d = instances.instance(i).stringValue(nominal).equals(value) ? 1.0d : 0.0d;
-					instances.instance(i).setValue(binary, d);
-				}
-			}
-
-			// and remove the original nominal attribute
-			removeAttribute(nominal);
-
-			// Reinitialise on the new numeric data
-			initialise(instances);
-		}
-		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
-	}
-
-	/** Return a description of a set of instances, based on any string attributes. */
-	public String getDescriptionOfInstances(int[] is) {
-		String description = "";
-		if (descriptionAttribute == null) {
-			for (int i : is)
-				description += ", point #" + (i + 1);
-		} else {
-			for (int i : is)
-				description += ", " + instances.instance(i).stringValue(descriptionAttribute);
-		}
-		return description.substring(2);
-	}
-
-	public String getDescriptionOfInstance(int i) {
-		String description = "";
-		if (descriptionAttribute == null) {
-				description = "point #" + (i + 1);
-		} else {
-				description = instances.instance(i).stringValue(descriptionAttribute);
-		}
-		return description;
-	}
-
-	public String getDescriptionOfAttributes(int[] as) {
-		String description = "";
-		for (int a : as)
-			description += ", " + numericAttributes.get(a).name();
-		return description.substring(2);
-	}
-
-	private Series series;
-
-	/** Get the series defined within the data */
-	public Series getSeries() {
-		return series;
-	}
-
-	public void removeSeries() {
-		series = null;
-		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
-	}
-
-	/**
-	 * Create a series in the instances using the given index and id attributes
-	 * (specified by name). Any existing series are removed.
-	 * 
-	 * @throws Exception
-	 */
-	public void createSeries(Attribute indexAttribute, Attribute idAttribute) {
-		removeSeries();
-		if (indexAttribute != null) {
-			series = new Series(instances, indexAttribute, idAttribute);
-		}
-		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
-	}
-
-	/**
-	 * Create a test set comprising 1/k'th of the instances. If there are no
-	 * series then the test set is chosen at random. If there are series defined
-	 * the the test set is the last 1/kth of each series Any existing test set
-	 * is replaced.
-	 * 
-	 * @param k
-	 * @return the attribute that defines the test set
-	 * @throws Exception
-	 */
-	public Attribute createTestSet(int k) {
-
-		removeTestSet();
-
-		// Create nominal attribute
-		FastVector values = new FastVector(2);
-		values.addElement("train");
-		values.addElement("test");
-		test = new Attribute("Test Set", values);
-		test = addAttribute(test, null);
-
-		if (series == null) {
-			// there are no series so pick test set at random
-			// for each instance, set the value of the attribute
-			Random r = new Random(System.currentTimeMillis());
-			for (int i = 0; i < instances.numInstances(); i++)
-				instances.instance(i).setValue(test, r.nextDouble() > 1d / k ? TRAIN : TEST);
-
-		} else {
-			// there are series, so the test set are the final points in the
-			// series
-
-			// First set each instance to be in the testing set
-			for (int p = 0; p < instances.numInstances(); p++)
-				instances.instance(p).setValue(test, TEST);
-
-			// then, for each series
-			TreeSet<Instance> nextSeries;
-			Iterator<Instance> itNextSeries;
-			Iterator<TreeSet<Instance>> allSeries = series.getAllSeries().values().iterator();
-			int numPointsInSeries, numPointsInTrainingSet;
-			while (allSeries.hasNext()) {
-
-				// find out how many points in the series and the number in the
-				// training set
-				nextSeries = allSeries.next();
-				numPointsInSeries = nextSeries.size();
-				numPointsInTrainingSet = (int) Math.round((double) numPointsInSeries * (double) (k - 1) / (double) k);
-
-				// and set the training set
-				itNextSeries = nextSeries.iterator();
-				for (int p = 0; p < numPointsInTrainingSet; p++)
-					itNextSeries.next().setValue(test, TRAIN);
-			}
-		}
-		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
-		return test;
-	}
-
-	/** Return the attribute that defines the test/prediction set. */
-	public Attribute getTestAttribute() {
-		return test;
-	}
-
-	public void removeTestSet() {
-		if (test != null)
-			removeAttribute(test);
-		test = null;
-		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
-	}
-
-	/**
-	 * Return a boolean array indicating whether each instance is a member of
-	 * the training (true) or test (false) set. Returns null if no test set is
-	 * defined.
-	 */
-	public boolean[] getPointsInTrainingSet() {
-		if (test == null)
-			return null;
-		boolean[] isTrain = new boolean[instances.numInstances()];
-		for (int p = 0; p < instances.numInstances(); p++)
-			isTrain[p] = instances.instance(p).value(test) == TRAIN;
-		return isTrain;
-	}
-
-	/**
-	 * Is a specific point in the testing set or is the classification of it
-	 * unknown. Returns false if there is no testing set.
-	 */
-	public boolean isPointInTestingSet(int p) {
-		if (instances.classIndex() >= 0
-				&& instances.instance(p).stringValue(instances.classAttribute()) == CLASS_UNKNOWN)
-			return true;
-		if (test == null)
-			return false;
-		else
-			return instances.instance(p).value(test) == TEST;
-	}
-
-	/**
-	 * Get the index of the attribute within the instances (starting at 0;
-	 * returns -1 if not found.
-	 */
-	public int indexOf(Attribute att) {
-		for (int a = 0; a < instances.numAttributes(); a++)
-			if (instances.attribute(a).equals(att))
-				return a;
-		return -1;
-	}
-
-	/**
-	 * returns -1 if not found. Get the index of the instance within the
-	 * instances (starting at 0;
-	 */
-	public int indexOf(Instance in) {
-		for (int i = 0; i < instances.numInstances(); i++)
-			if (instances.instance(i).equals(in))
-				return i;
-		return -1;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see tpp.TPPModelInterface#normalizeProjection()
-	 */
-	public void normalizeProjection() {
-		projection.normalise();
-		project();
-		target = view;
-		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see tpp.TPPModelInterface#randomProjection()
-	 */
-	public void randomProjection() {
-		projection.randomize();
-		normalizeProjection();
-		project();
-		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see tpp.TPPModelInterface#PCA()
-	 */
-	public void PCA() {
-		projection.PCA(data);
-		normalizeProjection();
-		project();
-		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
-	}
-
-	protected double abs(double d) {
-		return (d > 0 ? d : -d);
-	}
-
-	/** Get the underlying instances */
-	public Instances getInstances() {
-		return instances;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see tpp.TPPModelInterface#getNormalisedDistances()
-	 */
-	public Matrix getNormalisedDistances() {
-		return distances;
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see tpp.TPPModelInterface#getTarget()
-	 */
-	public Matrix getTarget() {
-		return target;
-	}
-
-	/** The current projection */
-	public Matrix getProjection() {
-		return projection;
-	}
-
-	/** The view of the data */
-	public Matrix getView() {
-		return view;
-	}
-
-	public String getViewAsString() {
-		String s = "";
-		Attribute classAttribute = instances.classAttribute();
-		for (int r = 0; r < view.getRowDimension(); r++) {
-			if (getStringAttributes().size() > 0)
-				s += instances.instance(r).stringValue(getStringAttributes().get(0)) + "\t";
-			if (classAttribute != null)
-				s += instances.instance(r).stringValue(classAttribute) + "\t";
-			for (int c = 0; c < view.getColumnDimension(); c++)
-				s += view.get(r, c) + "\t";
-			s += "\n";
-		}
-		return s;
-	}
-
-	/** The normalised numeric data */
-	public Matrix getData() {
-		return data;
-	}
-
-	/** The number of points */
-	public int getNumDataPoints() {
-		return data.getRowDimension();
-	}
-
-	/**
-	 * The number of dimensions in the numeric data
-	 * 
-	 * @return
-	 */
-	public int getNumDataDimensions() {
-		return data.getColumnDimension();
-	}
-
-	/** Get the string attributes. Returns an empty vector if there are none. */
-	public Vector<Attribute> getStringAttributes() {
-		Vector<Attribute> ats = new Vector<Attribute>();
-		for (int i = 0; i < instances.numAttributes(); i++)
-			if (instances.attribute(i).isString()) {
-				ats.add(instances.attribute(i));
-			}
-		return ats;
-	}
-
-	public Vector<Attribute> getNominalAttributes() {
-		Vector<Attribute> ats = new Vector<Attribute>();
-		for (int i = 0; i < instances.numAttributes(); i++)
-			if (instances.attribute(i).isNominal())
-				ats.add(instances.attribute(i));
-		return ats;
-	}
-
-	public Vector<Attribute> getNumericAttributes() {
-		return numericAttributes;
-	}
-
-	public Vector<Attribute> getDateAttributes() {
-		Vector<Attribute> ats = new Vector<Attribute>();
-		for (int i = 0; i < instances.numAttributes(); i++)
-			if (instances.attribute(i).isDate())
-				ats.add(instances.attribute(i));
-		return ats;
-
-	}
-
-	/** Set the target that the projection is pursuing */
-	public void setTarget(Matrix matrix) {
-		target = matrix;
-	}
-
-	/** Project the data to produce a new view. */
-	public void project() {
-		view = data.times(projection);
-		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
-	}
-
-	/**
-	 * Pursue a projection that will map the target onto the projection until
-	 * convergence.
-	 * 
-	 * @throws TPPException
-	 */
-	public void pursueTarget() throws TPPException {
-		double error = projection.pursueTarget(data, target, getPointsInTrainingSet());
-		// System.out.println("pursuit error = "+error);
-		if (getProjectionConstraint() != null)
-			projection = (LinearProjection) getProjectionConstraint().findNearestValid(projection);
-		view = projection.project(data);
-		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
-	}
-
-	/**
-	 * Pursue a projection that will map the target onto the projection, but
-	 * just take a single step. Constraints are ignored
-	 * 
-	 * @throws TPPException
-	 */
-	public void pursueTargetSingleShot() throws TPPException {
-		double error = projection.pursueTargetSingleShot(data, target, getPointsInTrainingSet());
-		view = projection.project(data);
-		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
-	}
-
-	/**
-	 * Return the constraint that any projection must meet. returns null if no
-	 * constraint has been defined.
-	 */
-	public ProjectionConstraint getProjectionConstraint() {
-		return constraint;
-	}
-
-	/**
-	 * Set a constraint on what constitutes a valid projection. If the
-	 * projection is non null, then the nearest valid projection is found to the
-	 * current one
-	 */
-	public void setProjectionConstraint(ProjectionConstraint constraint) {
-		this.constraint = constraint;
-		if (this.constraint != null)
-			constraint.findNearestValid(projection);
-		project();
-		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
-	}
-
-	/**
-	 * Create a new attribute that clusters the original data. KMeans is used by
-	 * default. returns the new attribute
-	 */
-	public Attribute cluster(int numClusters) {
-		try {
-			Instances numericInstances;
-
-			// ignore any non-numeric attributes before clustering
-			Remove removeClassification = new Remove();
-			String indices = "";
-			if (getNominalAttributes().size() > 0) {
-				for (int a = 0; a < instances.numAttributes(); a++)
-					if (!instances.attribute(a).isNumeric())
-						indices = indices + (a + 1) + ",";
-				indices = indices.substring(0, indices.length() - 1);
-			}
-			removeClassification.setAttributeIndices(indices);
-			removeClassification.setInputFormat(instances);
-			numericInstances = Filter.useFilter(instances, removeClassification);
-
-			// build a clusterer
-			EM clusterer = new EM();
-			clusterer.setNumClusters(numClusters);
-			clusterer.buildClusterer(numericInstances);
-
-			// if we let the clusterer decide how many clusters to create, then find out how many it created.
-			if (numClusters==-1) {
-				numClusters = clusterer.numberOfClusters();
-			}
-
-			// use the clustering of the unclassified instances to add an
-			// attribute to the filtered instances
-			// It would be nice to use the AddCluster filter to do this, but we
-			// are going to use the clustering of one set of instances to
-			// classify another
-
-			// first check there is no attribute with this name
-			String atName = "Cluster " + numClusters;
-			while (instances.attribute(atName) != null)
-				atName += "'";
-
-			FastVector values = new FastVector(numClusters);
-			for (int v = 0; v < numClusters; v++)
-				values.addElement("cluster " + (v + 1) + "/" + numClusters);
-			Attribute clustering = addAttribute(new Attribute(atName, values), null);
-
-			int c;
-			for (int i = 0; i < instances.numInstances(); i++) {
-				c = clusterer.clusterInstance(numericInstances.instance(i));
-				instances.instance(i).setValue(clustering, (String) values.elementAt(c));
-			}
-
-			// make this clustering the current classification
-			instances.setClass(clustering);
-			fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
-
-			return clustering;
-
-		} catch (Exception e) {
-			System.out.println(e);
-			e.printStackTrace(System.out);
-			return null;
-		}
-	}
-
-	public String toString(int point) {
-		if (getStringAttributes().size() > 0)
-			return instances.instance(point).stringValue(getStringAttributes().get(0));
-		else
-			return "Instance number " + (point + 1) + " of " + getNumDataPoints();
-	}
-
-	/**
-	 * Set the input from the selected attributes to zero -- ie remove them
-	 * temporarily from teh projection
-	 */
-	public void zeroProjectionAttributes(int[] ats) {
-		if (ats != null)
-			for (int r = 0; r < ats.length; r++)
-				for (int c = 0; c < projection.getColumnDimension(); c++)
-					projection.set(ats[r], c, 0);
-		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
-
-	}
-
-	/**
-	 * The attribute used to separate points
-	 */
-	public void setSeparationAttribute(Attribute at) {
-		separationAttribute = at;
-	}
-
-	public Attribute getSeparationAttribute() {
-		return separationAttribute;
-	}
-
-	public void createHierarchicalClustering() {
-		HierarchicalAgglomerativeClustering hac = new HierarchicalAgglomerativeClustering();
-		this.hierarchicalClustering = hac.singleLinkage(this);
-	}
-
-	public HierarchicalCluster getHierarchicalCluster() {
-		return hierarchicalClustering;
-	}
-
-	public boolean isPointSelected(int p) {
-		return selectedPoints[p];
-	}
-
-	/** Are any points selected? */
-	public boolean arePointsSelected() {
-		for (int p = 0; p < getNumDataPoints(); p++)
-			if (isPointSelected(p))
-				return true;
-		return false;
-	}
-
-	public void unselectPoints() {
-		for (int p = 0; p < getNumDataPoints(); p++)
-			selectedPoints[p] = false;
-		fireModelChanged(TPPModelEvent.POINT_SELECTION_CHANGED);
-	}
-
-	public void selectPoint(int p) {
-		selectedPoints[p] = true;
-		fireModelChanged(TPPModelEvent.POINT_SELECTION_CHANGED);
-	}
-
-	public void selectPoints(int[] p) {
-		for (int i : p)
-			selectPoint(i);
-	}
-
-	/** How many points are currently selected */
-	public int numPointsSelected() {
-		int total = 0;
-		for (int p = 0; p < getNumDataPoints(); p++)
-			if (isPointSelected(p))
-				total++;
-		return total;
-	}
-
-	/**
-	 * Perform 10-fold cross validation for the given attribute. Returns the
-	 * attributes containing the new classification and the error
-	 * 
-	 * @param cls
-	 */
-	public Attribute[] createCrossValidation(Attribute at, Classifier cls) {
-
-		int folds = 10;
-		long seed = System.currentTimeMillis();
-		Instances train, test;
-
-		try {
-			instances.setClass(at);
-
-			// perform cross-validation and add predictions
-			Instances predictedData = null;
-			for (int n = 0; n < folds; n++) {
-				train = instances.trainCV(folds, n);
-				test = instances.testCV(folds, n);
-
-				// add predictions
-				AddClassification filter = new AddClassification();
-				filter.setClassifier(cls);
-				filter.setOutputClassification(true);
-				filter.setOutputDistribution(false);
-				filter.setOutputErrorFlag(true);
-				filter.setInputFormat(train);
-				Filter.useFilter(train, filter);
-				Instances predictions = Filter.useFilter(test, filter);
-				if (predictedData == null)
-					predictedData = new Instances(predictions, 0);
-				for (int j = 0; j < predictions.numInstances(); j++)
-					predictedData.add(predictions.instance(j));
-			}
-
-			instances = predictedData;
-
-			// change the names of the classification and error attributes
-			Attribute errorAttribute = instances.attribute(instances.numAttributes() - 1);
-			Attribute classificationAttribute = instances.attribute(instances.numAttributes() - 2);
-			errorAttribute = renameAttribute(errorAttribute, cls.getClass().getSimpleName() + " error");
-			classificationAttribute = renameAttribute(classificationAttribute, cls.getClass().getSimpleName()
-					+ " classification");
-			// instances.setClass(classificationAttribute);
-
-			fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
-			return new Attribute[] { instances.attribute(instances.numAttributes() - 1),
-					instances.attribute(instances.numAttributes() - 2) };
-
-		} catch (Exception e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		return null;
-
-	}
-
-	/**
-	 * add an attribute to the instances, setting the new values to those given
-	 * (or to 'missing', if values=null)
-	 * 
-	 * @param at
-	 * @param values
-	 *            the values to set the new attribute to, or null
-	 * @return
-	 */
-	private Attribute addAttribute(Attribute at, double[] values) {
-
-		// add it to the instances -- this creates a shallow
-		// copy of the attribute so we have to retrieve the copy
-		instances.insertAttributeAt(at, instances.numAttributes());
-		at = instances.attribute(instances.numAttributes() - 1);
-
-		if (values != null)
-			for (int i = 0; i < values.length; i++)
-				instances.instance(i).setValue(at, values[i]);
-
-		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
-		return at;
-	}
-
-	/** Remove an attribute, returning the values */
-	public double[] removeAttribute(Attribute at) {
-		double[] values = new double[instances.numInstances()];
-		for (int i = 0; i < values.length; i++)
-			values[i] = instances.instance(i).value(at);
-		Remove remove = new Remove();
-		remove.setAttributeIndices("" + (indexOf(at) + 1));
-		try {
-			remove.setInputFormat(instances);
-			instances = Filter.useFilter(instances, remove);
-		} catch (Exception e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
-		return values;
-	}
-
-	private Attribute renameAttribute(Attribute at, String newName) {
-		Attribute copy = at.copy(newName);
-		double[] values = removeAttribute(at);
-		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
-		return addAttribute(copy, values);
-
-	}
-
-	/**
-	 * Select a single numeric attribute
-	 * 
-	 * @throws Exception
-	 */
-	public void selectSingleAttribute(Attribute at) throws Exception {
-		if (getNumViewDimensions() != 1)
-			throw new Exception("Method only applies to 1D projections");
-		projection = new LinearProjection(data.getColumnDimension(), 1);
-		projection.set(getNumericAttributes().indexOf(at), 0, 1);
-		project();
-		target = view;
-		fireModelChanged(TPPModelEvent.AXIS_SELECTION_CHANGED);
-	}
-
-	/**
-	 * Create uniform projection in which each attribute has unit weight.
-	 * 
-	 * @throws Exception
-	 */
-	public void uniformProjection() throws Exception {
-		if (getNumViewDimensions() != 1)
-			throw new Exception("Method only applies to 1D projections");
-		projection = new LinearProjection(data.getColumnDimension(), 1);
-		for (int i = 0; i < projection.getRowDimension(); i++)
-			projection.set(i, 0, 1);
-		project();
-		target = view;
-		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
-	}
-
-	/**
-	 * Get the centroids of the data points for the classes defined by the given
-	 * attribute
-	 * 
-	 * @throws Exception
-	 */
-	public Matrix getCentroids(Attribute classification) throws Exception {
-
-		if (!classification.isNominal())
-			throw new Exception("Can only find centroids over nominal attributes");
-
-		if (allCentroids.get(classification) == null) {
-			// first total up the positions for each class
-			double[][] centroids = new double[classification.numValues()][getNumViewDimensions()];
-			double[] numPoints = new double[classification.numValues()];
-			int c, p, od;
-			for (p = 0; p < getNumDataPoints(); p++) {
-				c = (int) getInstances().instance(p).value(classification);
-				for (od = 0; od < getNumViewDimensions(); od++)
-					centroids[c][od] += getData().get(p, od);
-				numPoints[c]++;
-			}
-			// then divide by the number of points in each class (if this class
-			// is not empty)
-			for (c = 0; c < classification.numValues(); c++) {
-				if (numPoints[c] > 0) {
-					for (od = 0; od < getNumViewDimensions(); od++)
-						centroids[c][od] /= numPoints[c];
-				}
-			}
-			allCentroids.put(classification, new Matrix(centroids));
-
-		}
-		return allCentroids.get(classification);
-	}
-
-	public void setProjectionValues(double[][] values) {
-		((LinearProjection) this.projection).setValues(values);
-		view = projection.project(data);
-		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
-
-	}
-
-	/**
-	 * Create an array of descriptions of each point, based on any string
-	 * attributes
-	 */
-	public String[] getPointDescriptions() {
-		String[] descriptions = new String[getNumDataPoints()];
-		Vector<Attribute> sats = getStringAttributes();
-		// if there are string attributes then add them together to get a
-		// description of the point
-		if (sats != null && sats.size() > 0) {
-			for (int p = 0; p < getNumDataPoints(); p++) {
-				descriptions[p] = "";
-				for (int s = 0; s < sats.size(); s++) {
-					try {
-						descriptions[p] += instances.instance(p).stringValue(sats.get(s)) + " ";
-					} catch (Exception e) {
-						descriptions[p] += "? ";
-					}
-				}
-				if (descriptions[p].length() > 40)
-					descriptions[p] = descriptions[p].substring(0, 40);
-			}
-		} else {
-			for (int p = 0; p < getNumDataPoints(); p++)
-				descriptions[p] = "point " + p;
-		}
-		return descriptions;
-	}
-
-	public void loadGraph(Graph graph) {
-		removeGraph();
-		this.graph = graph;
-
-	}
-
-	public void removeGraph() {
-		graph = null;
-	}
-
-	public Graph getGraph() {
-		return graph;
-	}
-
-	public Enumeration<Attribute> getAttributes() {
-		return instances.enumerateAttributes();
-
-	}
-
-	private Vector<TPPModelEventListener> getListeners() {
-		if (listeners == null)
-			listeners = new Vector<TPPModelEventListener>();
-		return listeners;
-	}
-
-	public void addListener(TPPModelEventListener l) {
-		getListeners().add(l);
-		// tell every new listener that it has a new model
-		l.modelChanged(new TPPModelEvent(this, TPPModelEvent.DATA_SET_CHANGED));
-	}
-
-	protected void fireModelChanged(int type) {
-		TPPModelEvent e = new TPPModelEvent(this, type);
-		// System.out.println(e);
-		Iterator<TPPModelEventListener> it = getListeners().iterator();
-		while (it.hasNext())
-			it.next().modelChanged(e);
-	}
-
-	public TPPModel clone() {
-		TPPModel clone = new TPPModel(numViewDimensions);
-		Instances cloneInstances = new Instances(instances);
-		try {
-			clone.setInstances(cloneInstances);
-		} catch (Exception e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		clone.projection = new LinearProjection(projection);
-		clone.project();
-		return clone;
-	}
-}
+package tpp;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import weka.classifiers.Classifier;
+import weka.clusterers.EM;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.FastVector;
+import weka.core.Instances;
+import weka.core.Utils;
+import weka.core.matrix.Matrix;
+import weka.filters.Filter;
+import weka.filters.supervised.attribute.AddClassification;
+import weka.filters.unsupervised.attribute.Remove;
+import weka.filters.unsupervised.attribute.ReplaceMissingValues;
+
+/**
+ * A class that represents the TPP model: ie the original data, the current
+ * target and view, and the associated methods for manipulating these. This
+ * abstract base class does everything except initialise the projection.
+ * 
+ */
+public class TPPModel implements Serializable, Cloneable {
+
+	/**
+	 * The minimum value allowed when computing PCAs. NB could probably be set
+	 * less than this, but use this value for safety. For more information see
+	 * http://www.netlib.org/na-digest-html/90/v90n18.html#5
+	 */
+	private static final double MIN_VALUE = 1E-100;
+
+	/**
+	 * The maximum cost, points x min(points,dimensions)^2, for which we find
+	 * the exact PCA. Above this we use a randomised estimate.
+	 */
+	private static final double EXACT_PCA_LIMIT = 1E9;
+
+	/**
+	 * The largest number of numeric attributes for which the principal
+	 * components are refined from a running total of the Gram matrix (since
+	 * each batch of b points costs b*d^2 to add to it, and d^3 to find its
+	 * eigenvectors)
+	 */
+	public static final int MAX_REFINED_PCA_DIMENSIONS = 500;
+
+	/**
+	 * How far appended data can grow beyond [-1,1] before all the data is
+	 * normalised again
+	 */
+	private static final double MAX_UNNORMALISED = 2;
+
+	private static final double TRAIN = 0d;
+
+	/** Pursue the target using all the selected points */
+	public static final int FULL_BATCH_PURSUIT = 0;
+
+	/**
+	 * Pursue the target using small random samples of the selected points, for
+	 * very large data sets
+	 */
+	public static final int MINI_BATCH_PURSUIT = 1;
+
+	/**
+	 * Pursue the target from several starting projections in parallel, and
+	 * keep the best (see MultiStartPursuit)
+	 */
+	public static final int MULTI_START_PURSUIT = 2;
+
+	private static final double TEST = 1d;
+
+	/**
+	 * The value of the class attribute that indicates that the class of this
+	 * instance is unknown.
+	 */
+	public static final String CLASS_UNKNOWN = "UNKNOWN";
+
+	/** The current view of the data */
+	protected Matrix view;
+
+	/** The current target view of the data */
+	protected Matrix target;
+
+	/** The underlying data. */
+	protected Instances instances;
+
+	/** The numeric, normalised, filtered data */
+	protected Matrix data;
+
+	/** The projection from the higher dimensional data to the view. */
+	protected LinearProjection projection;
+
+	protected Matrix distances;
+
+	/** The attribute that indicates which instances are in the test set, if any */
+	private Attribute test;
+
+	private ProjectionConstraint constraint;
+
+	/**
+	 * How to pursue the target: FULL_BATCH_PURSUIT, MINI_BATCH_PURSUIT or
+	 * MULTI_START_PURSUIT
+	 */
+	private int pursuitMode = FULL_BATCH_PURSUIT;
+
+	/** The schedule used in MINI_BATCH_PURSUIT mode */
+	private MiniBatchSchedule miniBatchSchedule = MiniBatchSchedule.DEFAULT;
+
+	/** The last multi-start pursuit, which records the spread of its errors */
+	private transient MultiStartPursuit multiStartPursuit;
+
+	/** Whichever attribute used to separate points by */
+	protected Attribute separationAttribute;
+
+	/** A hierarchical clustering of the instances */
+	private HierarchicalCluster hierarchicalClustering;
+
+	/**
+	 * A boolean array that indicates which points have been selected
+	 */
+	protected boolean[] selectedPoints;
+
+	/** The number of view dimensions */
+	protected int numViewDimensions = -1;
+
+	/**
+	 * The centroids of the classes, keyed by the attribute that defines the
+	 * classes that those centroids were defined over
+	 */
+	private HashMap<Attribute, ClassCentroids> allCentroids;
+
+	/**
+	 * The number of times that the data has changed, so that we know when
+	 * cached values need to be recalculated
+	 */
+	private int dataVersion;
+
+	/** The factor that the numeric data was multiplied by to normalise it */
+	private double dataScale = 1;
+
+	/**
+	 * The Gram matrix (X'X) and column sums of the numeric data, kept up to
+	 * date as instances are appended. The Gram matrix is null until the
+	 * principal components are first refined, and the sums until instances
+	 * are first appended (and both are reset whenever the data is extracted
+	 * again).
+	 */
+	private transient double[][] dataGram;
+
+	private transient double[] dataSums;
+
+	/**
+	 * The types of events that are being held back, for each thread that has
+	 * suspended them, or null if no thread has
+	 */
+	private transient HashMap<Thread, BitSet> suspendedTypes;
+
+	/** The types of events that have been held back, for each thread */
+	private transient HashMap<Thread, BitSet> suspendedEvents;
+
+	/** The most recently published snapshot of the view */
+	private transient AtomicReference<ViewSnapshot> viewSnapshot;
+
+	/** The number of snapshots that have been published */
+	private transient AtomicInteger snapshotVersion;
+
+	/**
+	 * The snapshots that have been replaced by later ones but may still be
+	 * being read
+	 */
+	private transient Vector<ViewSnapshot> retiredSnapshots;
+
+	/**
+	 * Arrays that the model no longer uses for its view or target, which can
+	 * be reused as back buffers once no snapshot that is being read refers to
+	 * them
+	 */
+	private transient Vector<double[][]> spareBuffers;
+
+	/** The most spare buffers that are kept */
+	private static final int MAX_SPARE_BUFFERS = 2;
+
+	/**
+	 * The values of the attributes, as primitive arrays. This is cleared
+	 * whenever the data changes.
+	 */
+	private transient ColumnStore columnStore;
+
+	/**
+	 * The index of each instance, keyed by the instance itself (not its
+	 * values), and the instances that it was built for. This is rebuilt
+	 * whenever the instances are replaced or the data changes.
+	 */
+	private transient IdentityHashMap<Instance, Integer> instanceIndex;
+	private transient Instances indexedInstances;
+
+	/**
+	 * The clusterer of the view, kept so that the view can be reclustered
+	 * each time it changes, the radius of its neighbourhoods (as a fraction
+	 * of the size of the view), and the attribute that it last made
+	 */
+	private transient GridDBSCAN viewClusterer;
+	private transient double viewClusterRadius;
+	private transient Attribute viewClustering;
+
+	private Graph graph;
+
+	private Vector<TPPModelEventListener> listeners;
+
+	/** The numeric (excluding date) attributes */
+	private Vector<Attribute> numericAttributes;
+
+	private Attribute descriptionAttribute;
+
+	/** Get the number of output dimensions */
+	public int getNumViewDimensions() {
+		return numViewDimensions;
+	}
+
+	/**
+	 * Initialise a projection projecting onto an n-dimensional space
+	 * 
+	 * @throws Exception
+	 *             if number of dimensions is not set
+	 */
+	protected void initialiseProjection() throws Exception {
+		if (numViewDimensions <= 0)
+			throw new Exception("number of output dimensions not set");
+		projection = new LeastSquaresProjection(data.getColumnDimension(), numViewDimensions);
+	}
+
+	/** Construct a new TPP model with the given output dimension */
+	public TPPModel(int n) {
+		this.numViewDimensions = n;
+	}
+
+	/*
+	 * Set the data for this model. The projection will default to PCA (if there
+	 * are sufficient resources to compute this) or a random projection
+	 */
+	public void setInstances(Instances in) throws Exception {
+		initialise(in);
+		fireModelChanged(TPPModelEvent.DATA_SET_CHANGED);
+	}
+
+	/**
+	 * 
+	 * @throws Exception
+	 */
+	protected void initialise(Instances ins) throws Exception {
+
+		// Replace missing values
+		ReplaceMissingValues replace = new ReplaceMissingValues();
+		replace.setInputFormat(ins);
+		instances = Filter.useFilter(ins, replace);
+
+		// Chose to start off by classifying and selecting points according to
+		// the first nominal
+		// attribute
+		Vector<Attribute> nom = getNominalAttributes();
+		if (nom.size() > 0) {
+			instances.setClass(nom.get(0));
+			setSeparationAttribute(instances.classAttribute());
+		}
+
+		// See if there is a string attribute we could use for describing the
+		// points
+		descriptionAttribute = null;
+		int a = -1;
+		while (descriptionAttribute == null && a<instances.numAttributes()-1)
+			if (instances.attribute(++a).isString())
+				descriptionAttribute = instances.attribute(a);
+		extractNumericData();
+		normalizeDataBipolarHomogenous();
+
+		// Initially all points are unselected
+		selectedPoints = new boolean[instances.numInstances()];
+
+		// Create a new projection and view
+		initialiseProjection();
+		project();
+
+		PCA();
+
+		// initialise centroids
+		allCentroids = new HashMap<Attribute, ClassCentroids>();
+		dataVersion++;
+
+	}
+
+	/**
+	 * Scale the numeric data from the filtered instances to [-1,1] (ie the
+	 * maximum absolute value of each attribute will become 1). Attributes are
+	 * assumed to be homogenous ie all attributes are divided by the same
+	 * scaling factor
+	 */
+	protected void normalizeDataBipolarHomogenous() {
+		dataScale = 1 / MatrixUtils.maxAbsValue(data);
+		data.timesEquals(dataScale);
+	}
+
+	/**
+	 * Normalize the numeric data from the filtered instances to the range [0,1]
+	 * (ie the minimum data value will be reset to 0 and maximum to 1.
+	 * 
+	 * @throws Exception
+	 */
+	public void normalizeDataUnit() throws Exception {
+		Filter normalize = new weka.filters.unsupervised.attribute.Normalize();
+		normalize.setInputFormat(instances);
+		instances = Filter.useFilter(instances, normalize);
+		extractNumericData();
+		PCA();
+		project();
+		fireModelChanged(TPPModelEvent.DATA_VALUE_CHANGED);
+	}
+
+	/**
+	 * Extract the data from the numeric attributes of the given instances
+	 * 
+	 * @throws TPPException
+	 */
+	protected void extractNumericData() throws TPPException {
+
+		// Extract a matrix of numeric data from the instances
+		// First find the numeric data attributes
+		numericAttributes = new Vector<Attribute>();
+		for (int i = 0; i < instances.numAttributes(); i++)
+			if (instances.attribute(i).isNumeric() && !instances.attribute(i).isDate())
+				numericAttributes.add(instances.attribute(i));
+		if (numericAttributes.size() < 2)
+			throw new TPPException("Insufficient numeric attributes");
+		// and copy all the numeric data into a new matrix, through a new
+		// column store in case the values have changed
+		synchronized (this) {
+			columnStore = new ColumnStore(instances, dataVersion);
+		}
+		data = new Matrix(getColumnStore().getRows(numericAttributes));
+		dataScale = 1;
+		dataGram = null;
+		dataSums = null;
+	}
+
+	/**
+	 * Add new instances to the end of the data without rebuilding the model,
+	 * eg to watch data arrive live. The values are matched to the model's
+	 * attributes by name: nominal values that the model doesn't have become
+	 * missing, and missing numeric values are replaced by the mean of the data
+	 * so far. The projection is kept, and only the new points are projected;
+	 * their targets are where they are projected to, and they are not
+	 * selected. The series are extended, and any hierarchical clustering is
+	 * dropped. <br>
+	 * The new points are normalised with the same scale as the rest of the
+	 * data, so the data may grow beyond [-1,1]. Once it grows beyond
+	 * [-MAX_UNNORMALISED,MAX_UNNORMALISED] all the data (and the view) is
+	 * rescaled back to [-1,1]. Since each rescaling at least halves the scale,
+	 * this rarely happens, and otherwise the work done is proportional to the
+	 * size of the batch: the rows are added in place to the data, view,
+	 * target and column store, whose arrays double in length whenever they
+	 * run out of room, and the other caches are extended rather than rebuilt.
+	 * (The listeners are then told that the data values have changed, and
+	 * may do more work.)
+	 */
+	public void appendInstances(Instances batch) {
+		int n = getNumDataPoints(), b = batch.numInstances(), dims = numericAttributes.size(), numAttributes = instances
+				.numAttributes(), k = projection.getColumnDimension(), a, r, c, i, v;
+		if (dataSums == null) {
+			dataSums = new double[dims];
+			double[][] aData = data.getArray();
+			for (r = 0; r < n; r++)
+				for (c = 0; c < dims; c++)
+					dataSums[c] += aData[r][c];
+		}
+
+		// find where each of the model's attributes is in the batch
+		Attribute[] sources = new Attribute[numAttributes];
+		for (a = 0; a < numAttributes; a++)
+			sources[a] = batch.attribute(instances.attribute(a).name());
+		int[] numericIndices = new int[dims];
+		for (c = 0; c < dims; c++)
+			numericIndices[c] = numericAttributes.get(c).index();
+
+		// copy the values into the model's attributes
+		double[][] rows = new double[b][dims];
+		double[] values;
+		double maxAbs = 0;
+		Instance in;
+		Attribute at;
+		for (r = 0; r < b; r++) {
+			in = batch.instance(r);
+			values = new double[numAttributes];
+			for (a = 0; a < numAttributes; a++) {
+				at = instances.attribute(a);
+				if (sources[a] == null || in.isMissing(sources[a]))
+					values[a] = Utils.missingValue();
+				else if (at.isNominal()) {
+					v = at.indexOfValue(in.stringValue(sources[a]));
+					values[a] = (v < 0 ? Utils.missingValue() : v);
+				} else if (at.isString())
+					values[a] = at.addStringValue(in.stringValue(sources[a]));
+				else
+					values[a] = in.value(sources[a]);
+			}
+			for (c = 0; c < dims; c++) {
+				i = numericIndices[c];
+				if (Double.isNaN(values[i]))
+					values[i] = (n + r > 0 ? dataSums[c] / (n + r) / dataScale : 0);
+				maxAbs = Math.max(maxAbs, Math.abs(values[i]));
+				rows[r][c] = values[i] * dataScale;
+				dataSums[c] += rows[r][c];
+			}
+			if (test != null && Double.isNaN(values[test.index()]))
+				values[test.index()] = TRAIN;
+			instances.add(new DenseInstance(1, values));
+		}
+
+		// rescale all the data if the batch is too far outside its range
+		if (maxAbs * dataScale > MAX_UNNORMALISED)
+			rescaleData(1 / maxAbs / dataScale, rows);
+		if (dataGram != null) {
+			double[][] gram = MatrixUtils.gram(new Matrix(rows), null);
+			for (i = 0; i < dims; i++)
+				for (c = 0; c < dims; c++)
+					dataGram[i][c] += gram[i][c];
+		}
+
+		// project the new points with the current projection
+		double[][] aProjection = projection.getArray(), newView = new double[b][k];
+		int j;
+		for (r = 0; r < b; r++)
+			for (c = 0; c < dims; c++)
+				if (rows[r][c] != 0)
+					for (j = 0; j < k; j++)
+						newView[r][j] += rows[r][c] * aProjection[c][j];
+
+		// and append them to the data, view and target, in place if there is
+		// room (the published view and target are only read up to their
+		// number of rows, so the rows after that can be written)
+		boolean targetIsView = (target == view);
+		double[][] aData = grow(data.getArray(), n, n + b, false), aView = grow(view.getArray(), n, n + b, true);
+		for (r = 0; r < b; r++) {
+			aData[n + r] = rows[r];
+			aView[n + r] = newView[r];
+		}
+		data = new Matrix(aData, n + b, dims);
+		swapView(new Matrix(aView, n + b, k));
+		if (targetIsView || target == null)
+			swapTarget(view);
+		else {
+			double[][] aTarget = grow(target.getArray(), n, n + b, true);
+			for (r = 0; r < b; r++)
+				aTarget[n + r] = newView[r].clone();
+			swapTarget(new Matrix(aTarget, n + b, k));
+		}
+		if (selectedPoints.length < n + b)
+			selectedPoints = Arrays.copyOf(selectedPoints, Math.max(n + b, 2 * selectedPoints.length));
+		hierarchicalClustering = null;
+		if (series != null)
+			series.extend();
+
+		// extend the caches, rather than clearing them (the store is for the
+		// version of the data after the change is fired)
+		synchronized (this) {
+			columnStore = (columnStore == null ? new ColumnStore(instances, dataVersion + 1) : new ColumnStore(
+					columnStore, instances, dataVersion + 1));
+			if (instanceIndex != null && indexedInstances == instances && instanceIndex.size() == n)
+				for (r = n; r < n + b; r++)
+					instanceIndex.put(instances.instance(r), Integer.valueOf(r));
+		}
+		fireModelChanged(TPPModelEvent.DATA_VALUE_CHANGED, false);
+	}
+
+	/**
+	 * An array with room for (at least) the given number of rows, of which the
+	 * first are in use: ie the array itself if it is long enough, and otherwise
+	 * a copy that is twice as long. If copyRows then the rows in use are copied
+	 * too, so that the new array (of the view or target) does not share rows
+	 * with the old one, which may later be reused as a back buffer.
+	 */
+	private static double[][] grow(double[][] rows, int used, int size, boolean copyRows) {
+		if (rows.length >= size)
+			return rows;
+		double[][] grown = new double[Math.max(size, 2 * rows.length)][];
+		for (int r = 0; r < used; r++)
+			grown[r] = (copyRows ? rows[r].clone() : rows[r]);
+		return grown;
+	}
+
+	/**
+	 * Multiply the normalised data, the view and target, and the running
+	 * totals of the data by the factor (and the new rows, which are not yet in
+	 * the data)
+	 */
+	private void rescaleData(double factor, double[][] newRows) {
+		data.timesEquals(factor);
+		// the view and target may be being read, so are scaled into new arrays
+		boolean targetIsView = (target == view);
+		if (target != null && !targetIsView)
+			swapTarget(scaled(target, factor));
+		swapView(scaled(view, factor));
+		if (targetIsView)
+			swapTarget(view);
+		for (double[] row : newRows)
+			for (int c = 0; c < row.length; c++)
+				row[c] *= factor;
+		for (int c = 0; c < dataSums.length; c++)
+			dataSums[c] *= factor;
+		if (dataGram != null)
+			for (double[] row : dataGram)
+				for (int c = 0; c < row.length; c++)
+					row[c] *= factor * factor;
+		dataScale *= factor;
+	}
+
+	/**
+	 * Set the projection to the principal components of the data, found from
+	 * a running total of the Gram matrix (X'X) that is kept up to date as
+	 * instances are appended, so that the components can be refined after
+	 * each batch without another pass over all the data. If there are more
+	 * than MAX_REFINED_PCA_DIMENSIONS numeric attributes then this is the
+	 * same as PCA().
+	 */
+	public void refinePCA() {
+		if (data.getColumnDimension() > MAX_REFINED_PCA_DIMENSIONS) {
+			PCA();
+			return;
+		}
+		if (dataGram == null)
+			dataGram = MatrixUtils.gram(data, null);
+		projection.PCAFromGram(dataGram);
+		normalizeProjection();
+	}
+
+	/**
+	 * Extract the date attributes of the given instances
+	 * 
+	 * @throws TPPException
+	 */
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see tpp.TPPModelInterface#getAttributeByName(java.lang.String)
+	 */
+	public Attribute getAttributeByName(String name) {
+		for (int a = 0; a < instances.numAttributes(); a++)
+			if (instances.attribute(a).name().equals(name))
+				return instances.attribute(a);
+		return null;
+	}
+
+	/** Convert a nominal attribute into N x binary numeric attributes */
+	public void nominalToBinary(Attribute nominal) throws Exception {
+
+		if (nominal != null && nominal.isNominal()) {
+			Attribute binary;
+			Enumeration values;
+			String value, name;
+			name = nominal.name();
+			values = nominal.enumerateValues();
+
+			// System.out.println("Converting attribute " + nominal.name() + "
+			// from nominal to binary");
+
+			// create a new binary attribute for each value for this
+			// attribute
+			while (values.hasMoreElements()) {
+				value = (String) values.nextElement();
+				binary = new Attribute(name + "_" + value);
+				System.out.println("Creating attribute " + binary.name());
+				addAttribute(binary, null);
+
+				// for each instance, set the value of the attribute
+				double d;
+				for (int i = 0; i < instances.numInstances(); i++) {
+					d = instances.instance(i).stringValue(nominal).equals(value) ? 1.0d : 0.0d;
+					instances.instance(i).setValue(binary, d);
+				}
+			}
+
+			// and remove the original nominal attribute
+			removeAttribute(nominal);
+
+			// Reinitialise on the new numeric data
+			initialise(instances);
+		}
+		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
+	}
+
+	/** Return a description of a set of instances, based on any string attributes. */
+	public String getDescriptionOfInstances(int[] is) {
+		String description = "";
+		if (descriptionAttribute == null) {
+			for (int i : is)
+				description += ", point #" + (i + 1);
+		} else {
+			for (int i : is)
+				description += ", " + instances.instance(i).stringValue(descriptionAttribute);
+		}
+		return description.substring(2);
+	}
+
+	public String getDescriptionOfInstance(int i) {
+		String description = "";
+		if (descriptionAttribute == null) {
+				description = "point #" + (i + 1);
+		} else {
+				description = instances.instance(i).stringValue(descriptionAttribute);
+		}
+		return description;
+	}
+
+	public String getDescriptionOfAttributes(int[] as) {
+		String description = "";
+		for (int a : as)
+			description += ", " + numericAttributes.get(a).name();
+		return description.substring(2);
+	}
+
+	private Series series;
+
+	/** Get the series defined within the data */
+	public Series getSeries() {
+		return series;
+	}
+
+	public void removeSeries() {
+		series = null;
+		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
+	}
+
+	/**
+	 * Create a series in the instances using the given index and id attributes
+	 * (specified by name). Any existing series are removed.
+	 * 
+	 * @throws Exception
+	 */
+	public void createSeries(Attribute indexAttribute, Attribute idAttribute) {
+		removeSeries();
+		if (indexAttribute != null) {
+			series = new Series(instances, indexAttribute, idAttribute);
+		}
+		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
+	}
+
+	/**
+	 * Create a test set comprising 1/k'th of the instances. If there are no
+	 * series then the test set is chosen at random. If there are series defined
+	 * the the test set is the last 1/kth of each series Any existing test set
+	 * is replaced.
+	 * 
+	 * @param k
+	 * @return the attribute that defines the test set
+	 * @throws Exception
+	 */
+	public Attribute createTestSet(int k) {
+
+		removeTestSet();
+
+		// Create nominal attribute
+		FastVector values = new FastVector(2);
+		values.addElement("train");
+		values.addElement("test");
+		test = new Attribute("Test Set", values);
+		test = addAttribute(test, null);
+
+		if (series == null) {
+			// there are no series so pick test set at random
+			// for each instance, set the value of the attribute
+			Random r = new Random(System.currentTimeMillis());
+			for (int i = 0; i < instances.numInstances(); i++)
+				instances.instance(i).setValue(test, r.nextDouble() > 1d / k ? TRAIN : TEST);
+
+		} else {
+			// there are series, so the test set are the final points in the
+			// series
+
+			// First set each instance to be in the testing set
+			for (int p = 0; p < instances.numInstances(); p++)
+				instances.instance(p).setValue(test, TEST);
+
+			// then, for each series
+			int[] nextSeries;
+			int numPointsInTrainingSet;
+			for (int s = 0; s < series.getNumSeries(); s++) {
+
+				// find out how many points in the series and the number in the
+				// training set
+				nextSeries = series.getSeries(s);
+				numPointsInTrainingSet = (int) Math.round((double) nextSeries.length * (double) (k - 1) / (double) k);
+
+				// and set the training set
+				for (int p = 0; p < numPointsInTrainingSet; p++)
+					instances.instance(nextSeries[p]).setValue(test, TRAIN);
+			}
+		}
+		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
+		return test;
+	}
+
+	/** Return the attribute that defines the test/prediction set. */
+	public Attribute getTestAttribute() {
+		return test;
+	}
+
+	public void removeTestSet() {
+		if (test != null)
+			removeAttribute(test);
+		test = null;
+		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
+	}
+
+	/**
+	 * Return a boolean array indicating whether each instance is a member of
+	 * the training (true) or test (false) set. Returns null if no test set is
+	 * defined.
+	 */
+	public boolean[] getPointsInTrainingSet() {
+		if (test == null)
+			return null;
+		boolean[] isTrain = new boolean[instances.numInstances()];
+		for (int p = 0; p < instances.numInstances(); p++)
+			isTrain[p] = instances.instance(p).value(test) == TRAIN;
+		return isTrain;
+	}
+
+	/**
+	 * Is a specific point in the testing set or is the classification of it
+	 * unknown. Returns false if there is no testing set.
+	 */
+	public boolean isPointInTestingSet(int p) {
+		if (instances.classIndex() >= 0
+				&& instances.instance(p).stringValue(instances.classAttribute()) == CLASS_UNKNOWN)
+			return true;
+		if (test == null)
+			return false;
+		else
+			return instances.instance(p).value(test) == TEST;
+	}
+
+	/**
+	 * Get the index of the attribute within the instances (starting at 0;
+	 * returns -1 if not found.
+	 */
+	public int indexOf(Attribute att) {
+		for (int a = 0; a < instances.numAttributes(); a++)
+			if (instances.attribute(a).equals(att))
+				return a;
+		return -1;
+	}
+
+	/**
+	 * returns -1 if not found. Get the index of the instance within the
+	 * instances (starting at 0). Instances are looked up by identity, in a
+	 * cached map, so this takes constant time.
+	 */
+	public int indexOf(Instance in) {
+		Integer i = getInstanceIndex().get(in);
+		return (i == null ? -1 : i.intValue());
+	}
+
+	/**
+	 * Get the map from each instance to its index, building it if the
+	 * instances have been replaced or changed since it was last built
+	 */
+	private synchronized IdentityHashMap<Instance, Integer> getInstanceIndex() {
+		if (instanceIndex == null || indexedInstances != instances
+				|| instanceIndex.size() != instances.numInstances()) {
+			IdentityHashMap<Instance, Integer> index = new IdentityHashMap<Instance, Integer>(
+					instances.numInstances());
+			for (int i = 0; i < instances.numInstances(); i++)
+				index.put(instances.instance(i), Integer.valueOf(i));
+			indexedInstances = instances;
+			instanceIndex = index;
+		}
+		return instanceIndex;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see tpp.TPPModelInterface#normalizeProjection()
+	 */
+	public void normalizeProjection() {
+		projection.normalise();
+		project();
+		swapTarget(view);
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see tpp.TPPModelInterface#randomProjection()
+	 */
+	public void randomProjection() {
+		projection.randomize();
+		normalizeProjection();
+		project();
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see tpp.TPPModelInterface#PCA()
+	 */
+	public void PCA() {
+		findPCA(projection, data);
+		normalizeProjection();
+		project();
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+	}
+
+	/**
+	 * Set the projection to the principal components of the data. If its a
+	 * huge data set then the components are estimated by random projection.
+	 */
+	static void findPCA(LinearProjection projection, Matrix data) {
+		double points = data.getRowDimension();
+		double smaller = Math.min(data.getColumnDimension(), points);
+		if (points * smaller * smaller < EXACT_PCA_LIMIT)
+			projection.PCA(data);
+		else
+			projection.randomizedPCA(data, LinearProjection.DEFAULT_PCA_OVERSAMPLING,
+					LinearProjection.DEFAULT_PCA_POWER_ITERATIONS);
+	}
+
+	protected double abs(double d) {
+		return (d > 0 ? d : -d);
+	}
+
+	/** Get the underlying instances */
+	public Instances getInstances() {
+		return instances;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see tpp.TPPModelInterface#getNormalisedDistances()
+	 */
+	public Matrix getNormalisedDistances() {
+		return distances;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see tpp.TPPModelInterface#getTarget()
+	 */
+	public Matrix getTarget() {
+		return target;
+	}
+
+	/** The current projection */
+	public Matrix getProjection() {
+		return projection;
+	}
+
+	/**
+	 * The view of the data. This should not be changed. Its array may be reused
+	 * for a later view, so other threads should read the view through
+	 * acquireViewSnapshot instead.
+	 */
+	public Matrix getView() {
+		return view;
+	}
+
+	public String getViewAsString() {
+		String s = "";
+		Attribute classAttribute = instances.classAttribute();
+		for (int r = 0; r < view.getRowDimension(); r++) {
+			if (getStringAttributes().size() > 0)
+				s += instances.instance(r).stringValue(getStringAttributes().get(0)) + "\t";
+			if (classAttribute != null)
+				s += instances.instance(r).stringValue(classAttribute) + "\t";
+			for (int c = 0; c < view.getColumnDimension(); c++)
+				s += view.get(r, c) + "\t";
+			s += "\n";
+		}
+		return s;
+	}
+
+	/** The normalised numeric data */
+	public Matrix getData() {
+		return data;
+	}
+
+	/** The number of points */
+	public int getNumDataPoints() {
+		return data.getRowDimension();
+	}
+
+	/**
+	 * The number of dimensions in the numeric data
+	 * 
+	 * @return
+	 */
+	public int getNumDataDimensions() {
+		return data.getColumnDimension();
+	}
+
+	/** Get the string attributes. Returns an empty vector if there are none. */
+	public Vector<Attribute> getStringAttributes() {
+		Vector<Attribute> ats = new Vector<Attribute>();
+		for (int i = 0; i < instances.numAttributes(); i++)
+			if (instances.attribute(i).isString()) {
+				ats.add(instances.attribute(i));
+			}
+		return ats;
+	}
+
+	public Vector<Attribute> getNominalAttributes() {
+		Vector<Attribute> ats = new Vector<Attribute>();
+		for (int i = 0; i < instances.numAttributes(); i++)
+			if (instances.attribute(i).isNominal())
+				ats.add(instances.attribute(i));
+		return ats;
+	}
+
+	public Vector<Attribute> getNumericAttributes() {
+		return numericAttributes;
+	}
+
+	public Vector<Attribute> getDateAttributes() {
+		Vector<Attribute> ats = new Vector<Attribute>();
+		for (int i = 0; i < instances.numAttributes(); i++)
+			if (instances.attribute(i).isDate())
+				ats.add(instances.attribute(i));
+		return ats;
+
+	}
+
+	/**
+	 * Set the target that the projection is pursuing. The model takes over
+	 * the matrix, which should not be changed afterwards (see shiftTarget).
+	 */
+	public void setTarget(Matrix matrix) {
+		swapTarget(matrix);
+	}
+
+	/**
+	 * How the target is pursued: either FULL_BATCH_PURSUIT,
+	 * MINI_BATCH_PURSUIT or MULTI_START_PURSUIT
+	 */
+	public int getPursuitMode() {
+		return pursuitMode;
+	}
+
+	/**
+	 * Set how the target is pursued: either FULL_BATCH_PURSUIT (the default),
+	 * MINI_BATCH_PURSUIT, in which case each pursuit just takes a few steps
+	 * using small samples of the selected points, or MULTI_START_PURSUIT, in
+	 * which case each pursuit tries MultiStartPursuit.DEFAULT_STARTS starting
+	 * projections.
+	 */
+	public void setPursuitMode(int pursuitMode) {
+		this.pursuitMode = pursuitMode;
+		multiStartPursuit = null;
+		if (projection != null)
+			projection.restartStochasticSchedule();
+	}
+
+	/** The schedule used in MINI_BATCH_PURSUIT mode */
+	public MiniBatchSchedule getMiniBatchSchedule() {
+		return miniBatchSchedule;
+	}
+
+	/** Set the schedule used in MINI_BATCH_PURSUIT mode */
+	public void setMiniBatchSchedule(MiniBatchSchedule schedule) {
+		this.miniBatchSchedule = schedule;
+		if (projection != null)
+			projection.restartStochasticSchedule();
+	}
+
+	/** Project the data to produce a new view. */
+	public void project() {
+		projectView();
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+	}
+
+	/**
+	 * Pursue a projection that will map the target onto the projection until
+	 * convergence.
+	 * 
+	 * @throws TPPException
+	 */
+	public void pursueTarget() throws TPPException {
+		if (pursuitMode == MULTI_START_PURSUIT) {
+			pursueTargetMultiStart(MultiStartPursuit.DEFAULT_STARTS);
+			return;
+		}
+		double error;
+		if (pursuitMode == MINI_BATCH_PURSUIT)
+			error = projection.pursueTargetStochastic(data, target, getPointsInTrainingSet(), miniBatchSchedule);
+		else
+			error = projection.pursueTarget(data, target, getPointsInTrainingSet());
+		// System.out.println("pursuit error = "+error);
+		if (getProjectionConstraint() != null)
+			projection = (LinearProjection) getProjectionConstraint().findNearestValid(projection);
+		projectView();
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+	}
+
+	/**
+	 * Pursue the target from several starting projections in parallel (the
+	 * current projection, the principal components and random projections)
+	 * and keep the one with the lowest error. Returns the pursuit, which
+	 * records the spread of the errors.
+	 * 
+	 * @throws TPPException
+	 */
+	public MultiStartPursuit pursueTargetMultiStart(int numStarts) throws TPPException {
+		MultiStartPursuit pursuit = new MultiStartPursuit(numStarts);
+		projection = pursuit.pursue(data, target, getPointsInTrainingSet(), projection, getProjectionConstraint());
+		multiStartPursuit = pursuit;
+		projectView();
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+		return pursuit;
+	}
+
+	/**
+	 * The last multi-start pursuit (eg to show the spread of its errors), or
+	 * null if there has not been one since the pursuit mode was set
+	 */
+	public MultiStartPursuit getMultiStartPursuit() {
+		return multiStartPursuit;
+	}
+
+	/**
+	 * Find how the projection would change if it pursued the given change to
+	 * the target, or null if the projection cannot tell us without actually
+	 * pursuing it. Any (linear) projection constraint is applied to the
+	 * response. In MULTI_START_PURSUIT mode the response is only found if
+	 * every start would reach the same projection anyway, so that drags are
+	 * pursued from several starts too.
+	 */
+	Matrix findProjectionResponse(Matrix dTarget) {
+		if (!(projection instanceof LeastSquaresProjection))
+			return null;
+		if (pursuitMode == MULTI_START_PURSUIT && !projection.isIndependentOfStart(data, getPointsInTrainingSet()))
+			return null;
+		LinearProjection response = ((LeastSquaresProjection) projection).findResponse(data, dTarget,
+				getPointsInTrainingSet());
+		if (response != null && getProjectionConstraint() != null)
+			response = (LinearProjection) getProjectionConstraint().findNearestValid(response);
+		return response;
+	}
+
+	/**
+	 * Move the projection and the view by a known change: ie add each column
+	 * of dProjection, and the corresponding column of the change in view
+	 * dView, multiplied by the given scalar.
+	 */
+	void shiftProjection(Matrix dProjection, Matrix dView, double[] scalars) {
+		shift(projection, dProjection, scalars);
+		swapView(shifted(view, dView, scalars));
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+	}
+
+	/**
+	 * Move the target by a known change: ie add each column of dTarget,
+	 * multiplied by the corresponding scalar. The moved target is written into
+	 * a new array, since the old one may be being read.
+	 */
+	void shiftTarget(Matrix dTarget, double[] scalars) {
+		swapTarget(shifted(target, dTarget, scalars));
+	}
+
+	/**
+	 * Add each column of dm, multiplied by the corresponding scalar, to a copy
+	 * of m in a back buffer
+	 */
+	private Matrix shifted(Matrix m, Matrix dm, double[] scalars) {
+		int rows = m.getRowDimension(), cols = m.getColumnDimension(), r, c;
+		double[][] a = m.getArray(), da = dm.getArray(), back = takeBackBuffer(rows, cols);
+		double[] row;
+		for (r = 0; r < rows; r++) {
+			row = back[r];
+			System.arraycopy(a[r], 0, row, 0, cols);
+			for (c = 0; c < scalars.length; c++)
+				row[c] += da[r][c] * scalars[c];
+		}
+		return new Matrix(back, rows, cols);
+	}
+
+	/** Multiply a copy of m, in a back buffer, by the factor */
+	private Matrix scaled(Matrix m, double factor) {
+		int rows = m.getRowDimension(), cols = m.getColumnDimension(), r, c;
+		double[][] a = m.getArray(), back = takeBackBuffer(rows, cols);
+		for (r = 0; r < rows; r++)
+			for (c = 0; c < cols; c++)
+				back[r][c] = a[r][c] * factor;
+		return new Matrix(back, rows, cols);
+	}
+
+	/** Project the data into a back buffer, and make it the view */
+	private void projectView() {
+		swapView(MatrixUtils.times(data, projection,
+				takeBackBuffer(data.getRowDimension(), projection.getColumnDimension())));
+	}
+
+	/**
+	 * Replace the view, so that its old array can be reused once it is no
+	 * longer being read
+	 */
+	private void swapView(Matrix newView) {
+		Matrix old = view;
+		view = newView;
+		if (old != null)
+			discard(old.getArray());
+	}
+
+	/**
+	 * Replace the target, so that its old array can be reused once it is no
+	 * longer being read
+	 */
+	private void swapTarget(Matrix newTarget) {
+		Matrix old = target;
+		target = newTarget;
+		if (old != null)
+			discard(old.getArray());
+	}
+
+	/** Add each column of dm, multiplied by the corresponding scalar, to m */
+	private static void shift(Matrix m, Matrix dm, double[] scalars) {
+		double[][] a = m.getArray(), da = dm.getArray();
+		double[] row, dRow;
+		int r, c;
+		for (r = 0; r < m.getRowDimension(); r++) {
+			row = a[r];
+			dRow = da[r];
+			for (c = 0; c < scalars.length; c++)
+				row[c] += dRow[c] * scalars[c];
+		}
+	}
+
+	/**
+	 * Pursue a projection that will map the target onto the projection, but
+	 * just take a single step. Constraints are ignored
+	 * 
+	 * @throws TPPException
+	 */
+	public void pursueTargetSingleShot() throws TPPException {
+		double error = projection.pursueTargetSingleShot(data, target, getPointsInTrainingSet());
+		projectView();
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+	}
+
+	/**
+	 * Return the constraint that any projection must meet. returns null if no
+	 * constraint has been defined.
+	 */
+	public ProjectionConstraint getProjectionConstraint() {
+		return constraint;
+	}
+
+	/**
+	 * Set a constraint on what constitutes a valid projection. If the
+	 * projection is non null, then the nearest valid projection is found to the
+	 * current one
+	 */
+	public void setProjectionConstraint(ProjectionConstraint constraint) {
+		this.constraint = constraint;
+		if (this.constraint != null)
+			constraint.findNearestValid(projection);
+		project();
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+	}
+
+	/**
+	 * Create a new attribute that clusters the original data. If the number of
+	 * clusters is given then k-means is used, directly on the normalised
+	 * numeric data (with mini-batches if there are a lot of points). If
+	 * numClusters is -1 then EM is used, and left to choose the number of
+	 * clusters by cross validation. The new attribute is made the current
+	 * classification. returns the new attribute
+	 */
+	public Attribute cluster(int numClusters) {
+		int[] clusters = findClusters(numClusters);
+		return (clusters == null ? null : addClusters(numClusters, clusters));
+	}
+
+	/**
+	 * Cluster the original data, as in cluster(), but without changing the
+	 * model: eg so that a large data set can be clustered in a background
+	 * thread, and the result then added with addClusters. returns the cluster
+	 * of each point, numbered from 0, or null if the clustering failed
+	 */
+	public int[] findClusters(int numClusters) {
+		try {
+			if (numClusters > 0) {
+				KMeansClusterer clusterer = new KMeansClusterer(numClusters);
+				if (getNumDataPoints() > KMeansClusterer.MINI_BATCH_THRESHOLD)
+					clusterer.setBatchSize(KMeansClusterer.DEFAULT_BATCH_SIZE);
+				return clusterer.cluster(MatrixUtils.getRows(data));
+			} else {
+				Instances numericInstances;
+
+				// ignore any non-numeric attributes before clustering
+				Remove removeClassification = new Remove();
+				String indices = "";
+				if (getNominalAttributes().size() > 0) {
+					for (int a = 0; a < instances.numAttributes(); a++)
+						if (!instances.attribute(a).isNumeric())
+							indices = indices + (a + 1) + ",";
+					indices = indices.substring(0, indices.length() - 1);
+				}
+				removeClassification.setAttributeIndices(indices);
+				removeClassification.setInputFormat(instances);
+				numericInstances = Filter.useFilter(instances, removeClassification);
+
+				// build a clusterer, and let it decide how many clusters to
+				// create
+				EM clusterer = new EM();
+				clusterer.setNumClusters(numClusters);
+				clusterer.buildClusterer(numericInstances);
+				int[] clusters = new int[instances.numInstances()];
+				for (int i = 0; i < instances.numInstances(); i++)
+					clusters[i] = clusterer.clusterInstance(numericInstances.instance(i));
+				return clusters;
+			}
+		} catch (Exception e) {
+			System.out.println(e);
+			e.printStackTrace(System.out);
+			return null;
+		}
+	}
+
+	/**
+	 * Add a new attribute giving the cluster of each point, as found by
+	 * findClusters(numClusters), and make it the current classification.
+	 * returns the new attribute
+	 */
+	public Attribute addClusters(int numClusters, int[] clusters) {
+		for (int c : clusters)
+			numClusters = Math.max(numClusters, c + 1);
+		return addClusterAttribute(Math.max(1, numClusters), clusters);
+	}
+
+	/**
+	 * Create a new attribute that clusters the points as they appear in the
+	 * current view, using DBSCAN. Points that are not in any cluster are given
+	 * a missing value. The new attribute is made the current classification,
+	 * and for as long as it stays so the view is reclustered whenever the
+	 * projection changes, so that the clusters follow the points. returns the
+	 * new attribute, or null if no clusters were found (ie every point is
+	 * noise), in which case no attribute is added
+	 *
+	 * @param radius
+	 *            the radius of the neighbourhood of each point, as a fraction
+	 *            of the size of the view (ie the larger of its width and height)
+	 * @param minPoints
+	 *            the number of points needed in the neighbourhood of a point
+	 *            for it to be at the core of a cluster
+	 */
+	public Attribute clusterView(double radius, int minPoints) {
+		if (viewClusterer == null || viewClusterer.getMinPoints() != Math.max(1, minPoints))
+			viewClusterer = new GridDBSCAN(radius, minPoints);
+		viewClusterRadius = radius;
+		viewClustering = null;
+		int[] clusters = clusterView();
+		if (clusters == null || viewClusterer.getNumClusters() == 0)
+			return null;
+		viewClustering = addClusterAttribute(viewClusterer.getNumClusters(), clusters);
+		return viewClustering;
+	}
+
+	/**
+	 * Cluster the latest snapshot of the view with the view clusterer.
+	 * Returns the cluster of each point (in an array that is reused by the
+	 * next call), or null if there is no view.
+	 */
+	private int[] clusterView() {
+		ViewSnapshot snapshot = acquireViewSnapshot();
+		if (snapshot == null)
+			return null;
+		try {
+			double[][] aView = snapshot.getViewArray();
+			int n = snapshot.getNumPoints();
+			double min[] = new double[2], max[] = new double[2];
+			for (int d = 0; d < 2; d++) {
+				min[d] = Double.POSITIVE_INFINITY;
+				max[d] = Double.NEGATIVE_INFINITY;
+				for (int i = 0; i < n; i++) {
+					min[d] = Math.min(min[d], aView[i][d]);
+					max[d] = Math.max(max[d], aView[i][d]);
+				}
+			}
+			// if the points all coincide then any radius puts them together
+			double size = Math.max(max[0] - min[0], max[1] - min[1]);
+			viewClusterer.setRadius(viewClusterRadius * (size > 0 ? size : 1));
+			return viewClusterer.cluster(aView, n, 0, 1);
+		} finally {
+			releaseViewSnapshot(snapshot);
+		}
+	}
+
+	/**
+	 * Recluster the latest snapshot of the view, if the classification made by
+	 * clusterView is still the current one, and update its values. Points in
+	 * more clusters than the attribute has values for are given a missing
+	 * value, as is noise. The values are changed in place, in the column store
+	 * too, and only the attribute's cached centroids are dropped, so the other
+	 * caches of the data stay valid and no event is fired: this is called as
+	 * the projection changes, and the listeners are told about that.
+	 */
+	private void updateViewClustering() {
+		Attribute clustering = viewClustering;
+		if (clustering == null || instances == null || instances.classIndex() < 0
+				|| instances.classAttribute() != clustering)
+			return;
+		int[] clusters = clusterView();
+		if (clusters == null)
+			return;
+		int n = Math.min(clusters.length, instances.numInstances()), numValues = clustering.numValues();
+		int a = clustering.index();
+		double value;
+		boolean changed = false;
+		Instance in;
+		synchronized (this) {
+			ColumnStore store = (columnStore != null && columnStore.isStoreOf(instances, dataVersion) ? columnStore
+					: null);
+			for (int i = 0; i < n; i++) {
+				in = instances.instance(i);
+				value = (clusters[i] < 0 || clusters[i] >= numValues ? Utils.missingValue() : clusters[i]);
+				if (in.isMissing(a) ? Utils.isMissingValue(value) : in.value(a) == value)
+					continue;
+				in.setValue(a, value);
+				if (store != null)
+					store.setValue(i, a, value);
+				changed = true;
+			}
+			if (changed)
+				allCentroids.remove(clustering);
+		}
+	}
+
+	/**
+	 * Add a nominal attribute giving the cluster of each instance (or missing
+	 * if the cluster is negative), and make it the current classification.
+	 * returns the new attribute
+	 */
+	private Attribute addClusterAttribute(int numClusters, int[] clusters) {
+
+		// first check there is no attribute with this name
+		String atName = "Cluster " + numClusters;
+		while (instances.attribute(atName) != null)
+			atName += "'";
+
+		FastVector values = new FastVector(numClusters);
+		for (int v = 0; v < numClusters; v++)
+			values.addElement("cluster " + (v + 1) + "/" + numClusters);
+		Attribute clustering = addAttribute(new Attribute(atName, values), null);
+		for (int i = 0; i < clusters.length; i++)
+			if (clusters[i] < 0)
+				instances.instance(i).setMissing(clustering);
+			else
+				instances.instance(i).setValue(clustering, clusters[i]);
+
+		// make this clustering the current classification
+		instances.setClass(clustering);
+		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
+		return clustering;
+	}
+
+	public String toString(int point) {
+		if (getStringAttributes().size() > 0)
+			return instances.instance(point).stringValue(getStringAttributes().get(0));
+		else
+			return "Instance number " + (point + 1) + " of " + getNumDataPoints();
+	}
+
+	/**
+	 * Set the input from the selected attributes to zero -- ie remove them
+	 * temporarily from teh projection
+	 */
+	public void zeroProjectionAttributes(int[] ats) {
+		if (ats != null)
+			for (int r = 0; r < ats.length; r++)
+				for (int c = 0; c < projection.getColumnDimension(); c++)
+					projection.set(ats[r], c, 0);
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+
+	}
+
+	/**
+	 * The attribute used to separate points
+	 */
+	public void setSeparationAttribute(Attribute at) {
+		separationAttribute = at;
+	}
+
+	public Attribute getSeparationAttribute() {
+		return separationAttribute;
+	}
+
+	public void createHierarchicalClustering() {
+		HierarchicalAgglomerativeClustering hac = new HierarchicalAgglomerativeClustering();
+		this.hierarchicalClustering = hac.singleLinkage(this);
+	}
+
+	/**
+	 * Create a hierarchical clustering of the points with the given linkage
+	 * (eg HierarchicalAgglomerativeClustering.WARD_LINKAGE)
+	 * 
+	 * @throws TPPException
+	 *             if there are too many points for the linkage
+	 */
+	public void createHierarchicalClustering(int linkage) throws TPPException {
+		HierarchicalAgglomerativeClustering hac = new HierarchicalAgglomerativeClustering();
+		this.hierarchicalClustering = hac.agglomerativeClustering(this, linkage);
+	}
+
+	public HierarchicalCluster getHierarchicalCluster() {
+		return hierarchicalClustering;
+	}
+
+	public boolean isPointSelected(int p) {
+		return selectedPoints[p];
+	}
+
+	/** Are any points selected? */
+	public boolean arePointsSelected() {
+		for (int p = 0; p < getNumDataPoints(); p++)
+			if (isPointSelected(p))
+				return true;
+		return false;
+	}
+
+	public void unselectPoints() {
+		for (int p = 0; p < getNumDataPoints(); p++)
+			selectedPoints[p] = false;
+		fireModelChanged(TPPModelEvent.POINT_SELECTION_CHANGED);
+	}
+
+	public void selectPoint(int p) {
+		selectedPoints[p] = true;
+		fireModelChanged(TPPModelEvent.POINT_SELECTION_CHANGED);
+	}
+
+	public void selectPoints(int[] p) {
+		for (int i : p)
+			selectPoint(i);
+	}
+
+	/** How many points are currently selected */
+	public int numPointsSelected() {
+		int total = 0;
+		for (int p = 0; p < getNumDataPoints(); p++)
+			if (isPointSelected(p))
+				total++;
+		return total;
+	}
+
+	/**
+	 * Perform 10-fold cross validation for the given attribute. Returns the
+	 * attributes containing the new classification and the error
+	 * 
+	 * @param cls
+	 */
+	public Attribute[] createCrossValidation(Attribute at, Classifier cls) {
+
+		int folds = 10;
+		long seed = System.currentTimeMillis();
+		Instances train, test;
+
+		try {
+			instances.setClass(at);
+
+			// perform cross-validation and add predictions
+			Instances predictedData = null;
+			for (int n = 0; n < folds; n++) {
+				train = instances.trainCV(folds, n);
+				test = instances.testCV(folds, n);
+
+				// add predictions
+				AddClassification filter = new AddClassification();
+				filter.setClassifier(cls);
+				filter.setOutputClassification(true);
+				filter.setOutputDistribution(false);
+				filter.setOutputErrorFlag(true);
+				filter.setInputFormat(train);
+				Filter.useFilter(train, filter);
+				Instances predictions = Filter.useFilter(test, filter);
+				if (predictedData == null)
+					predictedData = new Instances(predictions, 0);
+				for (int j = 0; j < predictions.numInstances(); j++)
+					predictedData.add(predictions.instance(j));
+			}
+
+			instances = predictedData;
+
+			// change the names of the classification and error attributes
+			Attribute errorAttribute = instances.attribute(instances.numAttributes() - 1);
+			Attribute classificationAttribute = instances.attribute(instances.numAttributes() - 2);
+			errorAttribute = renameAttribute(errorAttribute, cls.getClass().getSimpleName() + " error");
+			classificationAttribute = renameAttribute(classificationAttribute, cls.getClass().getSimpleName()
+					+ " classification");
+			// instances.setClass(classificationAttribute);
+
+			fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
+			return new Attribute[] { instances.attribute(instances.numAttributes() - 1),
+					instances.attribute(instances.numAttributes() - 2) };
+
+		} catch (Exception e) {
+			// TODO Auto-generated catch block
+			e.printStackTrace();
+		}
+		return null;
+
+	}
+
+	/**
+	 * add an attribute to the instances, setting the new values to those given
+	 * (or to 'missing', if values=null)
+	 * 
+	 * @param at
+	 * @param values
+	 *            the values to set the new attribute to, or null
+	 * @return
+	 */
+	private Attribute addAttribute(Attribute at, double[] values) {
+
+		// add it to the instances -- this creates a shallow
+		// copy of the attribute so we have to retrieve the copy
+		instances.insertAttributeAt(at, instances.numAttributes());
+		at = instances.attribute(instances.numAttributes() - 1);
+
+		if (values != null)
+			for (int i = 0; i < values.length; i++)
+				instances.instance(i).setValue(at, values[i]);
+
+		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
+		return at;
+	}
+
+	/** Remove an attribute, returning the values */
+	public double[] removeAttribute(Attribute at) {
+		double[] values = new double[instances.numInstances()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = instances.instance(i).value(at);
+		Remove remove = new Remove();
+		remove.setAttributeIndices("" + (indexOf(at) + 1));
+		try {
+			remove.setInputFormat(instances);
+			instances = Filter.useFilter(instances, remove);
+		} catch (Exception e) {
+			// TODO Auto-generated catch block
+			e.printStackTrace();
+		}
+		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
+		return values;
+	}
+
+	private Attribute renameAttribute(Attribute at, String newName) {
+		Attribute copy = at.copy(newName);
+		double[] values = removeAttribute(at);
+		fireModelChanged(TPPModelEvent.DATA_STRUCTURE_CHANGED);
+		return addAttribute(copy, values);
+
+	}
+
+	/**
+	 * Select a single numeric attribute
+	 * 
+	 * @throws Exception
+	 */
+	public void selectSingleAttribute(Attribute at) throws Exception {
+		if (getNumViewDimensions() != 1)
+			throw new Exception("Method only applies to 1D projections");
+		projection = new LeastSquaresProjection(data.getColumnDimension(), 1);
+		projection.set(getNumericAttributes().indexOf(at), 0, 1);
+		project();
+		swapTarget(view);
+		fireModelChanged(TPPModelEvent.AXIS_SELECTION_CHANGED);
+	}
+
+	/**
+	 * Create uniform projection in which each attribute has unit weight.
+	 * 
+	 * @throws Exception
+	 */
+	public void uniformProjection() throws Exception {
+		if (getNumViewDimensions() != 1)
+			throw new Exception("Method only applies to 1D projections");
+		projection = new LeastSquaresProjection(data.getColumnDimension(), 1);
+		for (int i = 0; i < projection.getRowDimension(); i++)
+			projection.set(i, 0, 1);
+		project();
+		swapTarget(view);
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+	}
+
+	/**
+	 * Get the centroids, in the data space, of the data points for the classes
+	 * defined by the given attribute
+	 * 
+	 * @throws Exception
+	 */
+	public Matrix getCentroids(Attribute classification) throws Exception {
+		return getClassCentroids(classification).getCentroids();
+	}
+
+	/**
+	 * Get the centroids, in the data space, and the members of the classes
+	 * defined by the given attribute. These are cached until the data changes.
+	 * 
+	 * @throws Exception
+	 */
+	public synchronized ClassCentroids getClassCentroids(Attribute classification) throws Exception {
+		if (!classification.isNominal())
+			throw new Exception("Can only find centroids over nominal attributes");
+		ClassCentroids centroids = allCentroids.get(classification);
+		if (centroids == null || !centroids.isFor(classification, dataVersion)) {
+			centroids = new ClassCentroids(classification, getAttributeColumn(classification), data, dataVersion);
+			allCentroids.put(classification, centroids);
+		}
+		return centroids;
+	}
+
+	/**
+	 * Get the values of the given attribute for every point, as an array. The
+	 * array is cached (until the data changes) so it should not be modified.
+	 */
+	public double[] getAttributeColumn(Attribute attribute) {
+		return getColumnStore().getColumn(attribute);
+	}
+
+	/**
+	 * The values of all the attributes, stored by column. This is replaced
+	 * (and so should be asked for again) whenever the data changes.
+	 */
+	public synchronized ColumnStore getColumnStore() {
+		if (columnStore == null || !columnStore.isStoreOf(instances, dataVersion))
+			columnStore = new ColumnStore(instances, dataVersion);
+		return columnStore;
+	}
+
+	public void setProjectionValues(double[][] values) {
+		((LinearProjection) this.projection).setValues(values);
+		projectView();
+		fireModelChanged(TPPModelEvent.PROJECTION_CHANGED);
+
+	}
+
+	/**
+	 * Create an array of descriptions of each point, based on any string
+	 * attributes
+	 */
+	public String[] getPointDescriptions() {
+		String[] descriptions = new String[getNumDataPoints()];
+		Vector<Attribute> sats = getStringAttributes();
+		// if there are string attributes then add them together to get a
+		// description of the point
+		if (sats != null && sats.size() > 0) {
+			for (int p = 0; p < getNumDataPoints(); p++) {
+				descriptions[p] = "";
+				for (int s = 0; s < sats.size(); s++) {
+					try {
+						descriptions[p] += instances.instance(p).stringValue(sats.get(s)) + " ";
+					} catch (Exception e) {
+						descriptions[p] += "? ";
+					}
+				}
+				if (descriptions[p].length() > 40)
+					descriptions[p] = descriptions[p].substring(0, 40);
+			}
+		} else {
+			for (int p = 0; p < getNumDataPoints(); p++)
+				descriptions[p] = "point " + p;
+		}
+		return descriptions;
+	}
+
+	public void loadGraph(Graph graph) {
+		removeGraph();
+		this.graph = graph;
+
+	}
+
+	public void removeGraph() {
+		graph = null;
+	}
+
+	public Graph getGraph() {
+		return graph;
+	}
+
+	public Enumeration<Attribute> getAttributes() {
+		return instances.enumerateAttributes();
+
+	}
+
+	private Vector<TPPModelEventListener> getListeners() {
+		if (listeners == null)
+			listeners = new Vector<TPPModelEventListener>();
+		return listeners;
+	}
+
+	public void addListener(TPPModelEventListener l) {
+		getListeners().add(l);
+		// tell every new listener that it has a new model
+		l.modelChanged(new TPPModelEvent(this, TPPModelEvent.DATA_SET_CHANGED));
+	}
+
+	protected void fireModelChanged(int type) {
+		fireModelChanged(type, true);
+	}
+
+	/**
+	 * Tell the listeners that the model has changed. If the data has changed
+	 * then the caches of it are cleared, unless they have already been brought
+	 * up to date (clearCaches is false).
+	 */
+	private void fireModelChanged(int type, boolean clearCaches) {
+		if (type == TPPModelEvent.DATA_SET_CHANGED || type == TPPModelEvent.DATA_STRUCTURE_CHANGED
+				|| type == TPPModelEvent.DATA_VALUE_CHANGED) {
+			if (clearCaches)
+				synchronized (this) {
+					instanceIndex = null;
+					columnStore = null;
+				}
+			dataVersion++;
+		}
+		if (type == TPPModelEvent.PROJECTION_CHANGED || type == TPPModelEvent.DATA_SET_CHANGED
+				|| type == TPPModelEvent.DATA_STRUCTURE_CHANGED || type == TPPModelEvent.DATA_VALUE_CHANGED)
+			publishViewSnapshot();
+		// recluster the new view (in the thread that changed it, eg the
+		// pursuit's) before the listeners are told, so they see the new
+		// clusters when they repaint
+		if (type == TPPModelEvent.PROJECTION_CHANGED)
+			updateViewClustering();
+		synchronized (this) {
+			BitSet types = (suspendedTypes == null ? null : suspendedTypes.get(Thread.currentThread()));
+			if (types != null && types.get(type)) {
+				suspendedEvents.get(Thread.currentThread()).set(type);
+				return;
+			}
+		}
+		notifyListeners(type);
+	}
+
+	/**
+	 * Hold back events of the given type, caused by changes made in the
+	 * current thread, until the same thread calls resumeEvents: eg so that a
+	 * sequence of changes to the projection results in a single repaint.
+	 * Other types of events, and changes made in other threads (eg by the user
+	 * on the event dispatch thread), are still delivered as usual.
+	 */
+	public synchronized void suspendEvents(int type) {
+		if (suspendedTypes == null) {
+			suspendedTypes = new HashMap<Thread, BitSet>();
+			suspendedEvents = new HashMap<Thread, BitSet>();
+		}
+		Thread thread = Thread.currentThread();
+		if (!suspendedTypes.containsKey(thread)) {
+			suspendedTypes.put(thread, new BitSet());
+			suspendedEvents.put(thread, new BitSet());
+		}
+		suspendedTypes.get(thread).set(type);
+	}
+
+	/**
+	 * Stop holding back the events suspended by the current thread, and return
+	 * the types of the events that were held back, without notifying the
+	 * listeners of them. Events suspended by other threads stay suspended.
+	 */
+	public synchronized BitSet resumeEvents() {
+		if (suspendedTypes == null || !suspendedTypes.containsKey(Thread.currentThread()))
+			return new BitSet();
+		suspendedTypes.remove(Thread.currentThread());
+		BitSet types = suspendedEvents.remove(Thread.currentThread());
+		if (suspendedTypes.isEmpty()) {
+			suspendedTypes = null;
+			suspendedEvents = null;
+		}
+		return types;
+	}
+
+	/**
+	 * Publish a snapshot of the current view, target and projection, so that
+	 * they can be read consistently by other threads. The view and target are
+	 * not copied, since the model never changes them once they have been
+	 * published, but writes the next ones into back buffers.
+	 */
+	protected void publishViewSnapshot() {
+		initViewSnapshot();
+		ViewSnapshot snapshot = null;
+		if (view != null && projection != null)
+			snapshot = new ViewSnapshot(view, target, projection, snapshotVersion.incrementAndGet());
+		// (swapped while holding the lock, so that a back buffer can't be
+		// taken between the old snapshot being replaced and it being retired)
+		synchronized (this) {
+			ViewSnapshot old = viewSnapshot.getAndSet(snapshot);
+			if (old != null)
+				retire(old);
+		}
+	}
+
+	/**
+	 * Remember a snapshot that has been replaced, until nobody is reading it,
+	 * so that its arrays are not reused while they are being read (called
+	 * while holding the lock)
+	 */
+	private void retire(ViewSnapshot snapshot) {
+		forgetUnreadSnapshots();
+		if (snapshot.readers.get() > 0)
+			retiredSnapshots.add(snapshot);
+	}
+
+	/**
+	 * Forget the retired snapshots that have no readers: since they have been
+	 * replaced, they can't get any more
+	 */
+	private void forgetUnreadSnapshots() {
+		Iterator<ViewSnapshot> snapshots = retiredSnapshots.iterator();
+		while (snapshots.hasNext())
+			if (snapshots.next().readers.get() == 0)
+				snapshots.remove();
+	}
+
+	/**
+	 * Get hold of the most recently published snapshot of the view, which is
+	 * not changed by later changes to the model, and which must be handed back
+	 * with releaseViewSnapshot when it is no longer needed. Returns null if
+	 * there is no view.
+	 */
+	public ViewSnapshot acquireViewSnapshot() {
+		if (initViewSnapshot())
+			publishViewSnapshot();
+		ViewSnapshot snapshot;
+		while ((snapshot = viewSnapshot.get()) != null) {
+			snapshot.readers.incrementAndGet();
+			// if it was replaced before we got hold of it then its arrays
+			// may already be being reused, so try again with the new one
+			if (snapshot == viewSnapshot.get())
+				return snapshot;
+			snapshot.readers.decrementAndGet();
+		}
+		return null;
+	}
+
+	/**
+	 * Hand back a snapshot that is no longer needed, so that its arrays can be
+	 * reused once it has been replaced. The snapshot must not be read after it
+	 * has been released.
+	 */
+	public void releaseViewSnapshot(ViewSnapshot snapshot) {
+		if (snapshot != null)
+			snapshot.readers.decrementAndGet();
+	}
+
+	/**
+	 * Create the snapshot references and buffers, if they have not been
+	 * created yet (eg since the model was deserialised). Returns true if they
+	 * were created.
+	 */
+	private synchronized boolean initViewSnapshot() {
+		if (viewSnapshot != null)
+			return false;
+		snapshotVersion = new AtomicInteger();
+		retiredSnapshots = new Vector<ViewSnapshot>();
+		spareBuffers = new Vector<double[][]>();
+		viewSnapshot = new AtomicReference<ViewSnapshot>();
+		return true;
+	}
+
+	/**
+	 * Keep an array that the model has stopped using for its view or target,
+	 * to reuse as a back buffer
+	 */
+	private synchronized void discard(double[][] a) {
+		initViewSnapshot();
+		if ((view != null && a == view.getArray()) || (target != null && a == target.getArray())
+				|| spareBuffers.contains(a))
+			return;
+		spareBuffers.add(a);
+		if (spareBuffers.size() > MAX_SPARE_BUFFERS)
+			spareBuffers.remove(0);
+	}
+
+	/**
+	 * An array with (at least) the given number of rows, each of the given
+	 * length, to write a new view or target into before it is published. A
+	 * spare buffer is reused if no snapshot that may still be read refers to
+	 * it.
+	 */
+	private synchronized double[][] takeBackBuffer(int rows, int cols) {
+		initViewSnapshot();
+		forgetUnreadSnapshots();
+		ViewSnapshot current = viewSnapshot.get();
+		double[][] buffer = null, a;
+		Iterator<double[][]> spares = spareBuffers.iterator();
+		while (buffer == null && spares.hasNext()) {
+			a = spares.next();
+			if (isBeingRead(a, current))
+				continue;
+			spares.remove();
+			if (a.length >= rows)
+				buffer = a;
+		}
+		if (buffer == null) {
+			// leave room for appended rows, as the data has
+			buffer = new double[data == null ? rows : Math.max(rows, data.getArray().length)][];
+			for (int r = 0; r < rows; r++)
+				buffer[r] = new double[cols];
+			return buffer;
+		}
+		for (int r = 0; r < rows; r++)
+			if (buffer[r] == null || buffer[r].length != cols)
+				buffer[r] = new double[cols];
+		return buffer;
+	}
+
+	/** Might the array be being read, through the current or a retired snapshot? */
+	private boolean isBeingRead(double[][] a, ViewSnapshot current) {
+		if (current != null && current.refersTo(a))
+			return true;
+		for (ViewSnapshot retired : retiredSnapshots)
+			if (retired.refersTo(a))
+				return true;
+		return false;
+	}
+
+	/** Tell the listeners that the model has changed */
+	void notifyListeners(int type) {
+		TPPModelEvent e = new TPPModelEvent(this, type);
+		// System.out.println(e);
+		Iterator<TPPModelEventListener> it = getListeners().iterator();
+		while (it.hasNext())
+			it.next().modelChanged(e);
+	}
+
+	public TPPModel clone() {
+		TPPModel clone = new TPPModel(numViewDimensions);
+		Instances cloneInstances = new Instances(instances);
+		try {
+			clone.setInstances(cloneInstances);
+		} catch (Exception e) {
+			// TODO Auto-generated catch block
+			e.printStackTrace();
+		}
+		clone.projection = new LeastSquaresProjection(projection);
+		clone.project();
+		return clone;
+	}
+}
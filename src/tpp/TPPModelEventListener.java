@@ -1,6 +1,6 @@
-package tpp;
-
-public interface TPPModelEventListener {
-	public void modelChanged(TPPModelEvent e);
-
-}
+package tpp;
+
+public interface TPPModelEventListener {
+	public void modelChanged(TPPModelEvent e);
+
+}
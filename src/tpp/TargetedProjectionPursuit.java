@@ -1,20 +1,20 @@
-package tpp;
-
-import javax.swing.UnsupportedLookAndFeelException;
-
-public class TargetedProjectionPursuit {
-
-	public static final String HELP_URL = "http://code.google.com/p/targeted-projection-pursuit/wiki/Introduction";
-
-	/**
-	 * @param args
-	 * @throws UnsupportedLookAndFeelException
-	 * @throws IllegalAccessException
-	 * @throws InstantiationException
-	 * @throws ClassNotFoundException
-	 */
-	public static void main(String[] args) throws ClassNotFoundException, InstantiationException, IllegalAccessException, UnsupportedLookAndFeelException {
-		new TPPFrame();
-	}
-
-}
+package tpp;
+
+import javax.swing.UnsupportedLookAndFeelException;
+
+public class TargetedProjectionPursuit {
+
+	public static final String HELP_URL = "http://code.google.com/p/targeted-projection-pursuit/wiki/Introduction";
+
+	/**
+	 * @param args
+	 * @throws UnsupportedLookAndFeelException
+	 * @throws IllegalAccessException
+	 * @throws InstantiationException
+	 * @throws ClassNotFoundException
+	 */
+	public static void main(String[] args) throws ClassNotFoundException, InstantiationException, IllegalAccessException, UnsupportedLookAndFeelException {
+		new TPPFrame();
+	}
+
+}
@@ -0,0 +1,136 @@
+package tpp;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import weka.core.matrix.Matrix;
+
+/**
+ * A consistent frame of the view, target and projection of a model at some
+ * moment, so that they can be read (eg by the renderer) while the pursuit
+ * carries on changing the model in another thread. Snapshots are published by
+ * the model after each change, and are not changed once published: the model
+ * writes each new view into a back buffer rather than changing the published
+ * one, so a snapshot refers to the model's arrays rather than copying them
+ * (apart from the projection, which is small). <br>
+ * A reader takes the latest snapshot with TPPModel.acquireViewSnapshot and
+ * hands it back with TPPModel.releaseViewSnapshot when it has finished with
+ * it. The model only reuses the arrays of a snapshot as a back buffer once it
+ * has been replaced by a later one and every reader has released it, so a
+ * snapshot must not be read after it has been released.
+ */
+public class ViewSnapshot {
+
+	/** The number of the change to the model that this is a snapshot of */
+	private final int version;
+
+	/** The number of points, which may be less than the length of the arrays */
+	private final int numPoints;
+
+	private final double[][] view, target, projection;
+
+	/** The number of readers that have acquired but not released this */
+	final AtomicInteger readers = new AtomicInteger();
+
+	/**
+	 * A snapshot of the view and target, which are not copied, and the
+	 * projection, which is. The target may be null.
+	 */
+	ViewSnapshot(Matrix view, Matrix target, Matrix projection, int version) {
+		this.version = version;
+		this.numPoints = view.getRowDimension();
+		this.view = view.getArray();
+		this.projection = projection.getArrayCopy();
+		if (target == null || target.getRowDimension() != numPoints
+				|| target.getColumnDimension() != view.getColumnDimension())
+			this.target = null;
+		else
+			this.target = target.getArray();
+	}
+
+	/** Does this snapshot refer to the array (as its view or target)? */
+	boolean refersTo(double[][] a) {
+		return a == view || a == target;
+	}
+
+	/**
+	 * The number of the change to the model that this is a snapshot of. Later
+	 * snapshots have higher versions.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/** The number of points in the view */
+	public int getNumPoints() {
+		return numPoints;
+	}
+
+	/** The number of axes in the projection */
+	public int getNumAxes() {
+		return projection.length;
+	}
+
+	/**
+	 * The rows of the view, which may be more than the number of points.
+	 * Should not be modified.
+	 */
+	double[][] getViewArray() {
+		return view;
+	}
+
+	/** The position of a point in the given dimension of the view */
+	public double get(int point, int dimension) {
+		return view[point][dimension];
+	}
+
+	/**
+	 * The position of the target for a point in the given dimension of the
+	 * view. Should only be called if hasTarget()
+	 */
+	public double getTarget(int point, int dimension) {
+		return target[point][dimension];
+	}
+
+	/** Is there a target the same size as the view? */
+	public boolean hasTarget() {
+		return target != null;
+	}
+
+	/** The position of the end of an axis in the given dimension of the view */
+	public double getAxis(int axis, int dimension) {
+		return projection[axis][dimension];
+	}
+
+	/**
+	 * Project a point in the data space (ie a row vector) onto the given
+	 * dimension of the view
+	 */
+	public double project(Matrix point, int dimension) {
+		double[] p = point.getArray()[0];
+		double v = 0;
+		for (int i = 0; i < projection.length; i++)
+			v += p[i] * projection[i][dimension];
+		return v;
+	}
+
+	/**
+	 * Project a point in the data space, held in the array starting at the
+	 * given offset, onto the given dimension of the view
+	 */
+	public double project(double[] point, int offset, int dimension) {
+		double v = 0;
+		for (int i = 0; i < projection.length; i++)
+			v += point[offset + i] * projection[i][dimension];
+		return v;
+	}
+
+	/** Copy the view into a new matrix */
+	public Matrix getView() {
+		return new Matrix(view, numPoints, projection.length > 0 ? projection[0].length : 0).copy();
+	}
+
+	/** Copy the projection into a new matrix */
+	public Matrix getProjection() {
+		return new Matrix(projection).copy();
+	}
+}